@@ -0,0 +1,145 @@
+package beesweeper;
+
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.FieldListener;
+import beesweeper.model.field.GameField;
+import java.io.PrintStream;
+import java.util.BitSet;
+
+/**
+ * Renders a {@link GameField} for an ANSI terminal. The last frame is kept, and after a move only
+ * the cells that have changed since are written, each after a cursor positioning sequence, so the
+ * output per move is proportional to the changed cells instead of the size of the game field. The
+ * renderer listens to the game field for the changed cells of the window, and an update looks at
+ * those cells only.
+ *
+ * <p>The window of the game field is drawn at the top of the screen, in the {@link FieldLayout}
+ * of the plain output of the {@link Shell}. Everything below it (messages and the prompt) is
+ * cleared on every update. The whole screen is redrawn for a different game field or layout, or
+ * after {@link #invalidate()}, e.g. when the user asks for a reprint because the terminal has been
+ * resized.
+ */
+final class AnsiFrameRenderer {
+
+  private static final String CSI = "\u001b[";
+
+  private final FrameBuffer buffer = new FrameBuffer();
+  private final FieldListener listener =
+      new FieldListener() {
+        @Override
+        public void cellChanged(int row, int column, Cell cell) {
+          if (lastLayout != null
+              && row >= lastLayout.getFromRow()
+              && row < lastLayout.getToRow()
+              && column >= lastLayout.getFromColumn()
+              && column < lastLayout.getToColumn()) {
+            changedCells.set(indexOf(lastLayout, row, column));
+          }
+        }
+
+        @Override
+        public void fieldReset() {
+          lastLayout = null;
+        }
+      };
+
+  // cells of the window changed since the last render, by their index in lastGlyphs
+  private final BitSet changedCells = new BitSet();
+  private GameField lastField;
+  private FieldLayout lastLayout;
+  private int lastFlowers;
+  private byte[] lastGlyphs = new byte[0];
+
+  /** Forces a redraw of the whole screen on the next render. */
+  void invalidate() {
+    lastLayout = null;
+  }
+
+  /**
+   * Renders a window of the game field, either completely or as the difference to the last frame.
+   *
+   * @param field the game field to render
+   * @param layout the layout of the window to render
+   * @param out destination of the escape sequences and text
+   */
+  void render(GameField field, FieldLayout layout, PrintStream out) {
+    if (field != lastField) {
+      if (lastField != null) {
+        lastField.removeListener(listener);
+      }
+      field.addListener(listener);
+      lastField = field;
+      lastLayout = null;
+    }
+
+    buffer.clear();
+    if (!layout.equals(lastLayout)) {
+      redraw(field, layout);
+    } else {
+      update(field, layout);
+    }
+    changedCells.clear();
+    buffer.writeTo(out);
+  }
+
+  private void redraw(GameField field, FieldLayout layout) {
+    lastLayout = layout;
+    int columns = layout.getToColumn() - layout.getFromColumn();
+    int size = (layout.getToRow() - layout.getFromRow()) * columns;
+    if (lastGlyphs.length != size) {
+      lastGlyphs = new byte[size];
+    }
+
+    // cursor home and clear the screen, then the same lines as the plain output
+    buffer.append(CSI).append('H').append(CSI).append("2J");
+    layout.appendHeader(buffer);
+    buffer.append('\n');
+    for (int row = layout.getFromRow(); row < layout.getToRow(); row++) {
+      layout.appendRowLabel(buffer, row);
+      for (int column = layout.getFromColumn(); column < layout.getToColumn(); column++) {
+        byte glyph = CellGlyphs.at(field, row, column);
+        lastGlyphs[indexOf(layout, row, column)] = glyph;
+        layout.appendCell(buffer, glyph);
+      }
+      buffer.append('\n');
+    }
+    lastFlowers = field.getFlowersAvailable();
+    buffer.append("Flowers left: ").append(lastFlowers).append('\n');
+  }
+
+  private void update(GameField field, FieldLayout layout) {
+    int columns = layout.getToColumn() - layout.getFromColumn();
+    for (int index = changedCells.nextSetBit(0);
+        index >= 0;
+        index = changedCells.nextSetBit(index + 1)) {
+      int row = layout.getFromRow() + index / columns;
+      int column = layout.getFromColumn() + index % columns;
+      // a cell may have changed back, e.g. marked and unmarked
+      byte glyph = CellGlyphs.at(field, row, column);
+      if (glyph != lastGlyphs[index]) {
+        lastGlyphs[index] = glyph;
+        moveTo(layout.lineOf(row), layout.characterColumnOf(column));
+        buffer.append(glyph);
+      }
+    }
+    int flowers = field.getFlowersAvailable();
+    if (flowers != lastFlowers) {
+      lastFlowers = flowers;
+      moveTo(layout.flowersLine(), 1);
+      // clear the rest of the line, the new number may be shorter
+      buffer.append("Flowers left: ").append(flowers).append(CSI).append('K');
+    }
+    // messages and prompts of earlier commands are below the game field
+    moveTo(layout.flowersLine() + 1, 1);
+    buffer.append(CSI).append('J');
+  }
+
+  private static int indexOf(FieldLayout layout, int row, int column) {
+    int columns = layout.getToColumn() - layout.getFromColumn();
+    return (row - layout.getFromRow()) * columns + column - layout.getFromColumn();
+  }
+
+  private void moveTo(int line, int column) {
+    buffer.append(CSI).append(line).append(';').append(column).append('H');
+  }
+}
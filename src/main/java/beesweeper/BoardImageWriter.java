@@ -0,0 +1,375 @@
+package beesweeper;
+
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.GameField;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a {@link GameField} as an image with one pixel per cell, for boards far too large for the
+ * text output of the {@link Shell}. The image is written one scanline at a time, so apart from one
+ * scanline and the compression buffers no memory is needed, however large the board is.
+ *
+ * <p>With more than one thread, the rows are split into tiles of about the same number of bytes,
+ * which are encoded in parallel and written in order. For PNG, every tile is compressed into a
+ * separate part of the deflate stream that ends on a byte boundary, and the checksums of the tiles
+ * are combined, so the result is a single valid PNG. At most two tiles per thread are kept in
+ * memory at any time.
+ */
+final class BoardImageWriter {
+
+  /** Format of the image. */
+  enum Format {
+    /** Binary portable pixmap (P6), uncompressed. */
+    PPM,
+    /** Portable network graphics, RGB with 8 bits per channel. */
+    PNG
+  }
+
+  private static final byte[] PNG_SIGNATURE = {
+    (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'
+  };
+  // zlib header for a 32 KiB window and the default compression level
+  private static final byte[] ZLIB_HEADER = {0x78, (byte) 0x9c};
+  private static final int PNG_FILTER_NONE = 0;
+  private static final int PNG_COLOR_TYPE_RGB = 2;
+  private static final int MAX_CHUNK_SIZE = 1 << 16;
+  private static final int DEFAULT_TILE_BYTES = 1 << 20;
+  private static final int ADLER_BASE = 65521;
+
+  // RGB of revealed cells by number of surrounding bees, then the other states
+  private static final byte[] PALETTE = palette();
+  private static final int REVEALED_BEE = 9;
+  private static final int MARKED = 10;
+  private static final int HIDDEN = 11;
+  private static final int ABSENT = 12;
+
+  private final Format format;
+  private final int threads;
+  private final int tileBytes;
+
+  /**
+   * Creates a writer.
+   *
+   * @param format the format of the images
+   * @param threads number of threads encoding tiles in parallel, 1 for encoding on the calling
+   *     thread only
+   * @throws IllegalArgumentException if the number of threads is not positive
+   */
+  BoardImageWriter(Format format, int threads) {
+    this(format, threads, DEFAULT_TILE_BYTES);
+  }
+
+  /** Creates a writer with tiles of about the given number of uncompressed bytes. */
+  BoardImageWriter(Format format, int threads, int tileBytes) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+    }
+    this.format = format;
+    this.threads = threads;
+    this.tileBytes = tileBytes;
+  }
+
+  /**
+   * Writes the image of a game field. The stream should be buffered, it is not closed.
+   *
+   * @param field the game field, must not be changed while it is written
+   * @param out destination of the image
+   * @throws IOException if writing fails
+   */
+  void write(GameField field, OutputStream out) throws IOException {
+    if (format == Format.PPM) {
+      writePpm(field, out);
+    } else {
+      writePng(field, out);
+    }
+  }
+
+  private void writePpm(GameField field, OutputStream out) throws IOException {
+    String header = "P6\n" + field.getMaxColumn() + " " + field.getMaxRow() + "\n255\n";
+    out.write(header.getBytes(StandardCharsets.US_ASCII));
+    if (threads == 1) {
+      byte[] scanline = new byte[3 * field.getMaxColumn()];
+      for (int row = 0; row < field.getMaxRow(); row++) {
+        fillPixels(field, row, scanline, 0);
+        out.write(scanline);
+      }
+    } else {
+      writeTiles(field, out, false);
+    }
+  }
+
+  private void writePng(GameField field, OutputStream out) throws IOException {
+    out.write(PNG_SIGNATURE);
+    byte[] header = new byte[13];
+    putInt(header, 0, field.getMaxColumn());
+    putInt(header, 4, field.getMaxRow());
+    header[8] = 8;
+    header[9] = PNG_COLOR_TYPE_RGB;
+    writeChunk(out, "IHDR", header, 0, header.length);
+
+    ChunkOutputStream data = new ChunkOutputStream(out);
+    if (threads == 1) {
+      Deflater deflater = new Deflater();
+      try {
+        byte[] scanline = new byte[1 + 3 * field.getMaxColumn()];
+        byte[] compressed = new byte[MAX_CHUNK_SIZE];
+        for (int row = 0; row < field.getMaxRow(); row++) {
+          scanline[0] = PNG_FILTER_NONE;
+          fillPixels(field, row, scanline, 1);
+          deflater.setInput(scanline);
+          while (!deflater.needsInput()) {
+            data.write(compressed, 0, deflater.deflate(compressed));
+          }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+          data.write(compressed, 0, deflater.deflate(compressed));
+        }
+      } finally {
+        deflater.end();
+      }
+    } else {
+      data.write(ZLIB_HEADER);
+      long adler = writeTiles(field, data, true);
+      byte[] checksum = new byte[4];
+      putInt(checksum, 0, (int) adler);
+      data.write(checksum);
+    }
+    data.flush();
+    writeChunk(out, "IEND", header, 0, 0);
+  }
+
+  /**
+   * Encodes the rows in tiles on a pool of threads and writes the tiles in order.
+   *
+   * @return the Adler-32 checksum of the uncompressed PNG data, if compressed
+   */
+  private long writeTiles(GameField field, OutputStream out, boolean compressed)
+      throws IOException {
+    int rowBytes = 3 * field.getMaxColumn() + (compressed ? 1 : 0);
+    int tileRows = Math.max(1, tileBytes / rowBytes);
+    int rows = field.getMaxRow();
+    long adler = 1;
+    Queue<Future<Tile>> pending = new ArrayDeque<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      try {
+        int nextRow = 0;
+        while (nextRow < rows || !pending.isEmpty()) {
+          while (nextRow < rows && pending.size() < 2 * threads) {
+            int from = nextRow;
+            int to = Math.min(rows, from + tileRows);
+            boolean last = to == rows;
+            pending.add(executor.submit(() -> encodeTile(field, from, to, compressed, last)));
+            nextRow = to;
+          }
+          Tile tile = pending.remove().get();
+          tile.bytes.writeTo(out);
+          adler = combineAdler32(adler, tile.adler, tile.rawLength);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Image export interrupted");
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Encoding a tile failed", e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    return adler;
+  }
+
+  private static Tile encodeTile(
+      GameField field, int fromRow, int toRow, boolean compressed, boolean last) {
+    return compressed ? deflateTile(field, fromRow, toRow, last) : rawTile(field, fromRow, toRow);
+  }
+
+  private static Tile rawTile(GameField field, int fromRow, int toRow) {
+    byte[] scanline = new byte[3 * field.getMaxColumn()];
+    Tile tile = new Tile(scanline.length * (toRow - fromRow));
+    for (int row = fromRow; row < toRow; row++) {
+      fillPixels(field, row, scanline, 0);
+      tile.bytes.write(scanline, 0, scanline.length);
+    }
+    return tile;
+  }
+
+  private static Tile deflateTile(GameField field, int fromRow, int toRow, boolean last) {
+    byte[] scanline = new byte[1 + 3 * field.getMaxColumn()];
+    byte[] compressed = new byte[MAX_CHUNK_SIZE];
+    Tile tile = new Tile(MAX_CHUNK_SIZE);
+    Adler32 adler = new Adler32();
+    // raw deflate, the zlib header and checksum are written once for all tiles
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      for (int row = fromRow; row < toRow; row++) {
+        scanline[0] = PNG_FILTER_NONE;
+        fillPixels(field, row, scanline, 1);
+        adler.update(scanline);
+        tile.rawLength += scanline.length;
+        deflater.setInput(scanline);
+        while (!deflater.needsInput()) {
+          tile.bytes.write(compressed, 0, deflater.deflate(compressed));
+        }
+      }
+      if (last) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          tile.bytes.write(compressed, 0, deflater.deflate(compressed));
+        }
+      } else {
+        // a sync flush ends the tile on a byte boundary, so the next tile can follow directly
+        int length;
+        do {
+          length = deflater.deflate(compressed, 0, compressed.length, Deflater.SYNC_FLUSH);
+          tile.bytes.write(compressed, 0, length);
+        } while (length == compressed.length);
+      }
+    } finally {
+      deflater.end();
+    }
+    tile.adler = adler.getValue();
+    return tile;
+  }
+
+  /** Writes the RGB pixels of a row into the given array, starting at the given offset. */
+  private static void fillPixels(GameField field, int row, byte[] pixels, int offset) {
+    for (int column = 0; column < field.getMaxColumn(); column++) {
+      int color = 3 * colorOf(field, row, column);
+      int pixel = offset + 3 * column;
+      pixels[pixel] = PALETTE[color];
+      pixels[pixel + 1] = PALETTE[color + 1];
+      pixels[pixel + 2] = PALETTE[color + 2];
+    }
+  }
+
+  private static int colorOf(GameField field, int row, int column) {
+    if (!field.contains(row, column)) {
+      return ABSENT;
+    }
+    Cell cell = field.get(row, column);
+    if (cell.isRevealed()) {
+      return cell.isBee() ? REVEALED_BEE : cell.getNumberOfBeesSurrounding();
+    }
+    return cell.isMarked() ? MARKED : HIDDEN;
+  }
+
+  private static byte[] palette() {
+    byte[] palette = new byte[3 * (ABSENT + 1)];
+    // revealed cells get darker with more bees around them
+    for (int bees = 0; bees < REVEALED_BEE; bees++) {
+      int light = 0xf0 - 0x14 * bees;
+      setColor(palette, bees, light, light, 0xff);
+    }
+    setColor(palette, REVEALED_BEE, 0xd0, 0x20, 0x20);
+    setColor(palette, MARKED, 0xff, 0xc0, 0x00);
+    setColor(palette, HIDDEN, 0x80, 0x80, 0x80);
+    setColor(palette, ABSENT, 0x00, 0x00, 0x00);
+    return palette;
+  }
+
+  private static void setColor(byte[] palette, int index, int red, int green, int blue) {
+    palette[3 * index] = (byte) red;
+    palette[3 * index + 1] = (byte) green;
+    palette[3 * index + 2] = (byte) blue;
+  }
+
+  /** Returns the Adler-32 checksum of two concatenated parts, from the checksums of the parts. */
+  static long combineAdler32(long adler1, long adler2, long length2) {
+    long remainder = length2 % ADLER_BASE;
+    long sum1 = adler1 & 0xffff;
+    long sum2 = remainder * sum1 % ADLER_BASE;
+    sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+    sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff) + ADLER_BASE - remainder;
+    sum1 %= ADLER_BASE;
+    sum2 %= ADLER_BASE;
+    return sum1 | (sum2 << 16);
+  }
+
+  private static void writeChunk(OutputStream out, String type, byte[] data, int offset, int length)
+      throws IOException {
+    byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    byte[] number = new byte[4];
+    putInt(number, 0, length);
+    out.write(number);
+    out.write(typeBytes);
+    out.write(data, offset, length);
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, offset, length);
+    putInt(number, 0, (int) crc.getValue());
+    out.write(number);
+  }
+
+  private static void putInt(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) (value >>> 24);
+    bytes[offset + 1] = (byte) (value >>> 16);
+    bytes[offset + 2] = (byte) (value >>> 8);
+    bytes[offset + 3] = (byte) value;
+  }
+
+  /** Encoded rows of a tile. */
+  private static final class Tile {
+    private final ByteArrayOutputStream bytes;
+    private long adler = 1;
+    private long rawLength;
+
+    private Tile(int capacity) {
+      bytes = new ByteArrayOutputStream(capacity);
+    }
+  }
+
+  /** Stream splitting the compressed image data into IDAT chunks of a bounded size. */
+  private static final class ChunkOutputStream extends OutputStream {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[MAX_CHUNK_SIZE];
+    private int length;
+
+    private ChunkOutputStream(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (length == buffer.length) {
+        flush();
+      }
+      buffer[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (length == buffer.length) {
+          flush();
+        }
+        int part = Math.min(len, buffer.length - length);
+        System.arraycopy(b, off, buffer, length, part);
+        length += part;
+        off += part;
+        len -= part;
+      }
+    }
+
+    /** Writes the buffered data as a chunk, without flushing the underlying stream. */
+    @Override
+    public void flush() throws IOException {
+      if (length > 0) {
+        writeChunk(out, "IDAT", buffer, 0, length);
+        length = 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package beesweeper;
+
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.GameField;
+
+/** Precomputed glyphs of the cells of a {@link GameField}, as printed by the {@link Shell}. */
+final class CellGlyphs {
+
+  /** Glyph of a coordinate that is not part of the shape of the game field. */
+  static final byte ABSENT = ' ';
+
+  // revealed numbers of surrounding bees at their own index, then the other states
+  private static final byte[] GLYPHS = {
+    '0', '1', '2', '3', '4', '5', '6', '7', '8', 'B', 'F', '*'
+  };
+  private static final int REVEALED_BEE = 9;
+  private static final int MARKED = 10;
+  private static final int HIDDEN = 11;
+
+  private CellGlyphs() {}
+
+  /**
+   * Returns the glyph of a cell.
+   *
+   * @param cell the cell
+   * @return the ASCII glyph
+   */
+  static byte of(Cell cell) {
+    if (cell.isRevealed()) {
+      return GLYPHS[cell.isBee() ? REVEALED_BEE : cell.getNumberOfBeesSurrounding()];
+    }
+    return GLYPHS[cell.isMarked() ? MARKED : HIDDEN];
+  }
+
+  /**
+   * Returns the glyph at a coordinate of a game field.
+   *
+   * @param field the game field
+   * @param row the row of the coordinate
+   * @param column the column of the coordinate
+   * @return the ASCII glyph, {@link #ABSENT} if the coordinate is not part of the game field
+   */
+  static byte at(GameField field, int row, int column) {
+    return field.contains(row, column) ? of(field.get(row, column)) : ABSENT;
+  }
+}
@@ -0,0 +1,187 @@
+package beesweeper;
+
+import beesweeper.model.field.GameField;
+
+/**
+ * Text layout of a window of a {@link GameField}: a header line with the column labels, then one
+ * line per row of the window, starting with the row number, and finally the line with the flowers
+ * left. Columns are labelled A to Z, then AA, AB and so on. All cells are as wide as the longest
+ * column label of the game field, and all row numbers as wide as the largest one, so that the
+ * layout does not change while the window is moved over the game field.
+ */
+final class FieldLayout {
+
+  private static final char COLUMN_START_CHAR = 'A';
+  private static final int LETTERS = 26;
+  // longest label that is parsed, far beyond any playable number of columns
+  private static final int MAX_LABEL_LENGTH = 6;
+  private static final int ROW_DISPLAY_OFFSET = 1;
+  private static final int MIN_ROW_LABEL_WIDTH = 3;
+
+  private final int fromRow;
+  private final int fromColumn;
+  private final int toRow;
+  private final int toColumn;
+  private final int rowLabelWidth;
+  private final int cellWidth;
+
+  /**
+   * Creates the layout of a window of a game field. The window is clipped to the game field, and
+   * starts at its last row or column if it would start beyond them.
+   *
+   * @param field the game field
+   * @param fromRow first row of the window
+   * @param fromColumn first column of the window
+   * @param rows number of rows of the window
+   * @param columns number of columns of the window
+   */
+  FieldLayout(GameField field, int fromRow, int fromColumn, int rows, int columns) {
+    int maxRow = field.getMaxRow();
+    int maxColumn = field.getMaxColumn();
+    this.fromRow = Math.max(0, Math.min(fromRow, maxRow - 1));
+    this.fromColumn = Math.max(0, Math.min(fromColumn, maxColumn - 1));
+    this.toRow = (int) Math.min((long) this.fromRow + rows, maxRow);
+    this.toColumn = (int) Math.min((long) this.fromColumn + columns, maxColumn);
+    this.rowLabelWidth =
+        Math.max(MIN_ROW_LABEL_WIDTH, FrameBuffer.digits(maxRow - 1 + ROW_DISPLAY_OFFSET));
+    this.cellWidth = labelLength(maxColumn - 1);
+  }
+
+  /**
+   * Creates the layout of a whole game field.
+   *
+   * @param field the game field
+   * @return the layout
+   */
+  static FieldLayout of(GameField field) {
+    return new FieldLayout(field, 0, 0, field.getMaxRow(), field.getMaxColumn());
+  }
+
+  /** Returns the first row of the window. */
+  int getFromRow() {
+    return fromRow;
+  }
+
+  /** Returns the first column of the window. */
+  int getFromColumn() {
+    return fromColumn;
+  }
+
+  /** Returns the row after the last row of the window. */
+  int getToRow() {
+    return toRow;
+  }
+
+  /** Returns the column after the last column of the window. */
+  int getToColumn() {
+    return toColumn;
+  }
+
+  /** Appends the header line with the column labels, without a line break. */
+  void appendHeader(FrameBuffer line) {
+    line.pad(rowLabelWidth);
+    for (int column = fromColumn; column < toColumn; column++) {
+      line.append(' ').pad(cellWidth - labelLength(column));
+      appendColumnLabel(line, column);
+    }
+  }
+
+  /** Appends the number of a row, right-aligned. */
+  void appendRowLabel(FrameBuffer line, int row) {
+    int rowNumToDisplay = row + ROW_DISPLAY_OFFSET;
+    line.pad(rowLabelWidth - FrameBuffer.digits(rowNumToDisplay)).append(rowNumToDisplay);
+  }
+
+  /** Appends a cell, right-aligned under its column label. */
+  void appendCell(FrameBuffer line, byte glyph) {
+    line.append(' ').pad(cellWidth - 1).append(glyph);
+  }
+
+  /** Returns the 1-based line of a row of the window, counted from the header line. */
+  int lineOf(int row) {
+    return row - fromRow + 2;
+  }
+
+  /** Returns the 1-based line with the flowers left, counted from the header line. */
+  int flowersLine() {
+    return toRow - fromRow + 2;
+  }
+
+  /** Returns the 1-based character column of the glyph of a column of the window. */
+  int characterColumnOf(int column) {
+    return rowLabelWidth + (column - fromColumn) * (cellWidth + 1) + cellWidth + 1;
+  }
+
+  /**
+   * Appends the label of a column: A to Z for the first 26 columns, then AA, AB and so on.
+   *
+   * @param line the line to append to
+   * @param column the 0-based column
+   */
+  static void appendColumnLabel(FrameBuffer line, int column) {
+    int start = line.length();
+    // bijective base 26, the digits are appended in reverse order
+    for (int n = column + 1; n > 0; n = (n - 1) / LETTERS) {
+      line.append((char) (COLUMN_START_CHAR + (n - 1) % LETTERS));
+    }
+    line.reverseFrom(start);
+  }
+
+  /**
+   * Parses a column label as printed by {@link #appendColumnLabel(FrameBuffer, int)}, ignoring
+   * the case of the letters.
+   *
+   * @param label the label
+   * @return the 0-based column, or -1 if the label is not a column label
+   */
+  static int parseColumn(String label) {
+    if (label.isEmpty() || label.length() > MAX_LABEL_LENGTH) {
+      return -1;
+    }
+    int n = 0;
+    for (int i = 0; i < label.length(); i++) {
+      int letter = Character.toUpperCase(label.charAt(i)) - COLUMN_START_CHAR;
+      if (letter < 0 || letter >= LETTERS) {
+        return -1;
+      }
+      n = n * LETTERS + letter + 1;
+    }
+    return n - 1;
+  }
+
+  /** Returns the length of the label of a column. */
+  private static int labelLength(int column) {
+    int length = 1;
+    for (int n = column + 1; n > LETTERS; n = (n - 1) / LETTERS) {
+      length++;
+    }
+    return length;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FieldLayout)) {
+      return false;
+    }
+    FieldLayout other = (FieldLayout) o;
+    return fromRow == other.fromRow
+        && fromColumn == other.fromColumn
+        && toRow == other.toRow
+        && toColumn == other.toColumn
+        && rowLabelWidth == other.rowLabelWidth
+        && cellWidth == other.cellWidth;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = fromRow;
+    result = 31 * result + fromColumn;
+    result = 31 * result + toRow;
+    result = 31 * result + toColumn;
+    result = 31 * result + rowLabelWidth;
+    return 31 * result + cellWidth;
+  }
+}
@@ -0,0 +1,123 @@
+package beesweeper;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reusable buffer for the text of a frame. The text of the shell's frames is ASCII only, so it is
+ * kept as bytes and written to the output in a single call, without encoding it and without
+ * allocating strings per line or per cell. The buffer grows as needed and keeps its capacity for
+ * the next frame.
+ */
+final class FrameBuffer {
+
+  private static final int INITIAL_CAPACITY = 4096;
+
+  private byte[] bytes = new byte[INITIAL_CAPACITY];
+  private int length;
+
+  /** Empties the buffer for the next frame. */
+  void clear() {
+    length = 0;
+  }
+
+  /** Returns the number of bytes in the buffer. */
+  int length() {
+    return length;
+  }
+
+  /**
+   * Sets the number of bytes in the buffer, e.g. to overwrite a part of the last frame in place.
+   * Bytes up to the largest length the buffer ever had keep their content.
+   *
+   * @param length the new length, at most the capacity that has been used so far
+   */
+  void setLength(int length) {
+    this.length = length;
+  }
+
+  /** Appends an ASCII character. */
+  FrameBuffer append(char c) {
+    ensureCapacity(1);
+    bytes[length++] = (byte) c;
+    return this;
+  }
+
+  /** Appends a byte, e.g. a glyph of a cell. */
+  FrameBuffer append(byte b) {
+    ensureCapacity(1);
+    bytes[length++] = b;
+    return this;
+  }
+
+  /** Appends an ASCII string. */
+  FrameBuffer append(String s) {
+    ensureCapacity(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      bytes[length++] = (byte) s.charAt(i);
+    }
+    return this;
+  }
+
+  /** Appends a number in decimal. */
+  FrameBuffer append(int number) {
+    long value = number;
+    if (value < 0) {
+      append('-');
+      value = -value;
+    }
+    int digits = digits(value);
+    ensureCapacity(digits);
+    for (int i = length + digits - 1; i >= length; i--) {
+      bytes[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    length += digits;
+    return this;
+  }
+
+  /** Appends the given number of spaces. */
+  FrameBuffer pad(int width) {
+    if (width > 0) {
+      ensureCapacity(width);
+      Arrays.fill(bytes, length, length + width, (byte) ' ');
+      length += width;
+    }
+    return this;
+  }
+
+  /** Reverses the bytes from the given index to the end of the buffer. */
+  void reverseFrom(int start) {
+    for (int i = start, j = length - 1; i < j; i++, j--) {
+      byte b = bytes[i];
+      bytes[i] = bytes[j];
+      bytes[j] = b;
+    }
+  }
+
+  /** Writes the whole buffer to the output in one call. */
+  void writeTo(PrintStream out) {
+    out.write(bytes, 0, length);
+  }
+
+  @Override
+  public String toString() {
+    return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+  }
+
+  /** Returns the number of decimal digits of a non-negative number. */
+  static int digits(long value) {
+    int digits = 1;
+    for (long rest = value; rest >= 10; rest /= 10) {
+      digits++;
+    }
+    return digits;
+  }
+
+  private void ensureCapacity(int additional) {
+    if (length + additional > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+    }
+  }
+}
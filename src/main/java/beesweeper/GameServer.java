@@ -0,0 +1,286 @@
+package beesweeper;
+
+import beesweeper.metrics.Metrics;
+import beesweeper.model.GameSessionStore;
+import beesweeper.model.field.GameFieldPool;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP server hosting many {@link Shell} sessions in one JVM. Every connection gets its own shell,
+ * speaking the same command language as on the command line, and is served by its own virtual
+ * thread, so idle sessions cost only their buffers. All sessions share one pool of pre-generated
+ * boards and one {@link GameSessionStore}, which evicts the games of idle sessions to disk.
+ */
+public final class GameServer implements AutoCloseable {
+
+  private static final int DEFAULT_PORT = 4711;
+
+  // small buffers, so that tens of thousands of idle sessions fit into memory
+  private static final int INPUT_BUFFER_SIZE = 256;
+  private static final int OUTPUT_BUFFER_SIZE = 2048;
+
+  private static final int POOL_BOARDS_PER_PROFILE = 8;
+  private static final int POOL_REFILL_THREADS = 2;
+  private static final int POOL_MAX_PENDING_REFILLS = 256;
+  private static final Duration POOL_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+  private static final long SESSION_MEMORY_BUDGET = 256L << 20;
+  private static final Duration SESSION_IDLE_TIMEOUT = Duration.ofMinutes(5);
+  private static final Duration EVICTION_INTERVAL = Duration.ofSeconds(30);
+
+  private final ServerSocketChannel serverChannel;
+  private final GameFieldPool boardPool;
+  private final GameSessionStore sessionStore;
+  // temporary spill directory of the session store, or null if the store was passed in
+  private final Path spillDirectory;
+  private final Duration evictionInterval;
+  private final ScheduledExecutorService evictionScheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().name("session-eviction").daemon().factory());
+  private final SessionRegistry sessions = new SessionRegistry();
+  private final ExecutorService sessionExecutor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("session-", 0).factory());
+
+  /**
+   * Creates a server listening on the given address, which evicts idle games to a temporary
+   * directory that is deleted when the server is closed. Call {@link #start()} to accept
+   * connections.
+   *
+   * @param address the address to listen on, port 0 for an ephemeral port
+   * @throws IOException if the address can not be bound or the directory can not be created
+   */
+  public GameServer(InetSocketAddress address) throws IOException {
+    this(bind(address), null, EVICTION_INTERVAL);
+  }
+
+  /**
+   * Creates a server listening on the given address. Call {@link #start()} to accept connections.
+   *
+   * @param address the address to listen on, port 0 for an ephemeral port
+   * @param sessionStore store for the games of the sessions, closed together with this server
+   * @throws IOException if the address can not be bound
+   */
+  public GameServer(InetSocketAddress address, GameSessionStore sessionStore) throws IOException {
+    this(address, sessionStore, EVICTION_INTERVAL);
+  }
+
+  /**
+   * Creates a server listening on the given address, which evicts idle games at the given interval.
+   *
+   * @param address the address to listen on, port 0 for an ephemeral port
+   * @param sessionStore store for the games of the sessions, closed together with this server
+   * @param evictionInterval time between two evictions of idle games
+   * @throws IOException if the address can not be bound
+   */
+  GameServer(InetSocketAddress address, GameSessionStore sessionStore, Duration evictionInterval)
+      throws IOException {
+    this(bind(address), Objects.requireNonNull(sessionStore), evictionInterval);
+  }
+
+  private GameServer(
+      ServerSocketChannel serverChannel, GameSessionStore sessionStore, Duration evictionInterval)
+      throws IOException {
+    Path spillDirectory = null;
+    try {
+      if (sessionStore == null) {
+        // created only after the address is bound, so that a failed bind leaves nothing behind
+        spillDirectory = Files.createTempDirectory("beesweeper-sessions");
+        sessionStore =
+            new GameSessionStore(spillDirectory, SESSION_MEMORY_BUDGET, SESSION_IDLE_TIMEOUT);
+      }
+    } catch (IOException | RuntimeException e) {
+      serverChannel.close();
+      if (spillDirectory != null) {
+        Files.deleteIfExists(spillDirectory);
+      }
+      throw e;
+    }
+    this.serverChannel = serverChannel;
+    this.sessionStore = sessionStore;
+    this.spillDirectory = spillDirectory;
+    this.evictionInterval = evictionInterval;
+    this.boardPool =
+        new GameFieldPool(
+            POOL_BOARDS_PER_PROFILE,
+            POOL_REFILL_THREADS,
+            POOL_MAX_PENDING_REFILLS,
+            POOL_IDLE_TIMEOUT);
+  }
+
+  /**
+   * Starts the server on the loopback interface and serves connections until the process ends.
+   *
+   * @param args optionally the port to listen on
+   * @throws IOException if the port can not be bound
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    Metrics.registerMBeans();
+    GameServer server =
+        new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  try {
+                    server.close();
+                  } catch (IOException e) {
+                    System.err.println("Closing the server failed: " + e.getMessage());
+                  }
+                }));
+    System.out.println("Listening on port " + server.getPort());
+    // the sessions run on virtual threads, which do not keep the JVM alive
+    server.run();
+  }
+
+  /**
+   * Starts accepting connections in the background, and evicting the games of idle sessions even
+   * when no session plays.
+   */
+  public void start() {
+    scheduleEviction();
+    sessionExecutor.execute(this::acceptConnections);
+  }
+
+  /**
+   * Accepts connections on the calling thread until the server is closed, and evicts the games of
+   * idle sessions in the background meanwhile.
+   */
+  public void run() {
+    scheduleEviction();
+    acceptConnections();
+  }
+
+  /**
+   * Returns the port this server listens on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    try {
+      return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the registry of the open sessions.
+   *
+   * @return the session registry
+   */
+  public SessionRegistry getSessions() {
+    return sessions;
+  }
+
+  /**
+   * Returns the store keeping the games of the sessions, e.g. for its hit and eviction counters.
+   *
+   * @return the session store
+   */
+  public GameSessionStore getSessionStore() {
+    return sessionStore;
+  }
+
+  /**
+   * Stops accepting connections and closes all sessions.
+   *
+   * @throws IOException if the server socket or the temporary spill directory can not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    serverChannel.close();
+    evictionScheduler.shutdownNow();
+    sessionExecutor.shutdownNow();
+    boardPool.close();
+    sessionStore.close();
+    if (spillDirectory != null) {
+      Files.deleteIfExists(spillDirectory);
+    }
+  }
+
+  private static ServerSocketChannel bind(InetSocketAddress address) throws IOException {
+    ServerSocketChannel channel = ServerSocketChannel.open();
+    try {
+      return channel.bind(address);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void scheduleEviction() {
+    long interval = evictionInterval.toNanos();
+    evictionScheduler.scheduleWithFixedDelay(
+        this::evictIdleGames, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  private void evictIdleGames() {
+    try {
+      sessionStore.evict();
+    } catch (UncheckedIOException e) {
+      // the games stay in memory, and a later run tries again
+      System.err.println("Evicting games failed: " + e.getMessage());
+    }
+  }
+
+  private void acceptConnections() {
+    while (serverChannel.isOpen()) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        sessionExecutor.execute(() -> serve(channel));
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        System.err.println("Accepting a connection failed: " + e.getMessage());
+      }
+    }
+  }
+
+  private void serve(SocketChannel channel) {
+    try (channel) {
+      // not Channels.newReader, its reads hold a monitor and would pin the carrier thread
+      BufferedReader in =
+          new BufferedReader(
+              new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8),
+              INPUT_BUFFER_SIZE);
+      PrintStream out =
+          new PrintStream(
+              new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_SIZE),
+              false,
+              StandardCharsets.UTF_8);
+      Shell shell = new Shell(in, out, boardPool, sessionStore);
+      long id = sessions.register(shell);
+      try {
+        shell.run();
+      } finally {
+        sessions.unregister(id);
+      }
+    } catch (IOException | UncheckedIOException e) {
+      // a broken connection only ends this session
+    } catch (RuntimeException e) {
+      // a bug must not pass for a broken connection, although it also ends only this session
+      e.printStackTrace();
+    }
+  }
+}
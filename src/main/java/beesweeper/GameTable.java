@@ -0,0 +1,112 @@
+package beesweeper;
+
+import beesweeper.model.BeeSweeper;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.GameFieldPool;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Named games of a {@link Shell} that are not played at the moment. New games are created in the
+ * background, so the player can go on with another game while a large board is generated, and
+ * only waits for the board if it is still not ready when the game is taken.
+ *
+ * <p>This class is not thread-safe, it is used by the thread of its shell only.
+ */
+final class GameTable implements AutoCloseable {
+
+  private final GameFieldPool boardPool;
+  private final ExecutorService executor =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-table-", 0).factory());
+  private final TreeMap<String, CompletableFuture<BeeSweeper>> games = new TreeMap<>();
+
+  /**
+   * Creates an empty table.
+   *
+   * @param boardPool pool the boards of new games are taken from
+   */
+  GameTable(GameFieldPool boardPool) {
+    this.boardPool = boardPool;
+  }
+
+  /**
+   * Starts creating a new game in the background, replacing the game of the same name.
+   *
+   * @param name the name of the game
+   * @param profile shape, dimensions and number of bees of the game field, must be valid
+   */
+  void create(String name, BoardProfile profile) {
+    CompletableFuture<BeeSweeper> game =
+        CompletableFuture.supplyAsync(() -> BeeSweeper.newGame(boardPool, profile), executor);
+    replace(name, game);
+  }
+
+  /**
+   * Puts a game into the table, e.g. when the player switches to another game.
+   *
+   * @param name the name of the game
+   * @param game the game
+   */
+  void put(String name, BeeSweeper game) {
+    replace(name, CompletableFuture.completedFuture(game));
+  }
+
+  /**
+   * Removes a game from the table, waiting for it if it is still being created.
+   *
+   * @param name the name of the game
+   * @return the game, or null if there is no game of that name or it could not be created
+   */
+  BeeSweeper take(String name) {
+    CompletableFuture<BeeSweeper> game = games.remove(name);
+    try {
+      return game == null ? null : game.join();
+    } catch (CompletionException | CancellationException e) {
+      return null;
+    }
+  }
+
+  /** Returns whether there is a game of the given name. */
+  boolean contains(String name) {
+    return games.containsKey(name);
+  }
+
+  /** Returns whether the game of the given name has been created and can be taken at once. */
+  boolean isReady(String name) {
+    CompletableFuture<BeeSweeper> game = games.get(name);
+    return game != null && game.isDone() && !game.isCompletedExceptionally();
+  }
+
+  /** Returns whether creating the game of the given name has failed. */
+  boolean isFailed(String name) {
+    CompletableFuture<BeeSweeper> game = games.get(name);
+    return game != null && game.isCompletedExceptionally();
+  }
+
+  /** Returns the names of all games, in alphabetical order. */
+  NavigableSet<String> names() {
+    return games.navigableKeySet();
+  }
+
+  /** Drops all games and stops creating new ones. */
+  @Override
+  public void close() {
+    for (CompletableFuture<BeeSweeper> game : games.values()) {
+      game.cancel(false);
+    }
+    games.clear();
+    executor.shutdownNow();
+  }
+
+  private void replace(String name, CompletableFuture<BeeSweeper> game) {
+    CompletableFuture<BeeSweeper> old = games.put(name, game);
+    if (old != null) {
+      old.cancel(false);
+    }
+  }
+}
@@ -0,0 +1,481 @@
+package beesweeper;
+
+import beesweeper.model.BeeSweeper;
+import beesweeper.model.GameState;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.FieldListener;
+import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Session of a line protocol for automated clients, which drive a {@link BeeSweeper} game without
+ * parsing text boards. Every request is a JSON object on a line of its own, and so is every
+ * response:
+ *
+ * <pre>
+ * {"op":"new","cols":9,"rows":9,"bees":10}
+ *     {"status":"OK","cols":9,"rows":9,"flowers":10,"delta":[]}
+ * {"op":"reveal","r":3,"c":5}
+ *     {"status":"OK","flowers":10,"delta":[[3,5,"1"]]}
+ * {"op":"mark","r":0,"c":0}, {"op":"unmark","r":0,"c":0}
+ * {"op":"board"}
+ *     {"status":"OK","flowers":10,"delta":[[0,0,"*"],[0,1,"*"], ...]}
+ * {"op":"quit"}
+ * </pre>
+ *
+ * <p>The status is the name of a {@link Shell.Status}. Rows and columns are 0-based. The delta
+ * lists row, column and glyph (as printed by the shell) of every cell changed by the request; the
+ * board request lists all cells in row-major order. Responses to errors consist of the status only.
+ *
+ * <p>Requests are decoded and responses encoded in place in reusable byte buffers, so that the
+ * protocol itself allocates nothing per request. Strings in requests must not contain escape
+ * sequences, unknown keys are ignored. Responses are flushed whenever no further request is
+ * buffered, so that pipelining clients are served without a system call per response.
+ */
+public final class JsonLinesSession {
+
+  private static final int MAX_LINE_LENGTH = 4096;
+  private static final int INPUT_BUFFER_SIZE = 8192;
+  private static final int MISSING = Integer.MIN_VALUE;
+  // at most 9 digits, so that parsing a number can not overflow
+  private static final int MAX_DIGITS = 9;
+
+  private static final int POOL_BOARDS_PER_PROFILE = 2;
+  private static final int POOL_REFILL_THREADS = 1;
+  private static final int POOL_MAX_PENDING_REFILLS = 16;
+  private static final Duration POOL_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+  /** Operations of the protocol, with their names in {@link #OP_NAMES}. */
+  private enum Op {
+    NEW,
+    REVEAL,
+    MARK,
+    UNMARK,
+    BOARD,
+    QUIT
+  }
+
+  private static final Op[] OPS = Op.values();
+  private static final byte[][] OP_NAMES = {
+    ascii("new"), ascii("reveal"), ascii("mark"), ascii("unmark"), ascii("board"), ascii("quit")
+  };
+  private static final byte[] KEY_OP = ascii("op");
+  private static final byte[] KEY_ROW = ascii("r");
+  private static final byte[] KEY_COLUMN = ascii("c");
+  private static final byte[] KEY_ROWS = ascii("rows");
+  private static final byte[] KEY_COLUMNS = ascii("cols");
+  private static final byte[] KEY_BEES = ascii("bees");
+  private static final byte[] TRUE = ascii("true");
+  private static final byte[] FALSE = ascii("false");
+  private static final byte[] NULL = ascii("null");
+
+  private final InputStream in;
+  private final PrintStream out;
+  private final GameFieldPool boardPool;
+  private final boolean ownsBoardPool;
+
+  private final byte[] input = new byte[INPUT_BUFFER_SIZE];
+  private int inputPosition;
+  private int inputLimit;
+  private final byte[] line = new byte[MAX_LINE_LENGTH];
+  private int lineLength;
+  private int position;
+  private final FrameBuffer response = new FrameBuffer();
+
+  // the decoded request
+  private Op op;
+  private int row;
+  private int column;
+  private int rows;
+  private int columns;
+  private int bees;
+  private int number;
+
+  // cells changed by the current request
+  private int deltaCount;
+  private int[] deltaRows = new int[16];
+  private int[] deltaColumns = new int[16];
+  private byte[] deltaGlyphs = new byte[16];
+  private final FieldListener deltaListener =
+      new FieldListener() {
+        @Override
+        public void cellChanged(int row, int column, Cell cell) {
+          addDelta(row, column, CellGlyphs.of(cell));
+        }
+
+        @Override
+        public void fieldReset() {
+          // a new game is answered without a delta
+        }
+      };
+
+  private BeeSweeper game;
+
+  /**
+   * Creates a session reading requests from the given stream and writing responses to the given
+   * stream.
+   *
+   * @param in source of the requests
+   * @param out destination of the responses
+   * @param boardPool pool of pre-generated boards shared with other sessions, or null to create a
+   *     pool for this session only
+   */
+  public JsonLinesSession(InputStream in, PrintStream out, GameFieldPool boardPool) {
+    this.in = in;
+    this.out = out;
+    this.ownsBoardPool = boardPool == null;
+    this.boardPool =
+        boardPool != null
+            ? boardPool
+            : new GameFieldPool(
+                POOL_BOARDS_PER_PROFILE,
+                POOL_REFILL_THREADS,
+                POOL_MAX_PENDING_REFILLS,
+                POOL_IDLE_TIMEOUT);
+  }
+
+  /**
+   * Serves requests until the quit request or the end of the input.
+   *
+   * @throws IOException if reading the requests fails
+   */
+  public void run() throws IOException {
+    try {
+      boolean quit = false;
+      while (!quit && readLine()) {
+        response.clear();
+        deltaCount = 0;
+        if (lineLength > MAX_LINE_LENGTH || !decode() || op == null) {
+          encodeStatus(Shell.Status.ECMD);
+        } else {
+          quit = op == Op.QUIT;
+          execute();
+        }
+        response.append('\n');
+        response.writeTo(out);
+      }
+    } finally {
+      out.flush();
+      if (game != null) {
+        game.getGameState().getField().removeListener(deltaListener);
+      }
+      if (ownsBoardPool) {
+        boardPool.close();
+      }
+    }
+  }
+
+  private void execute() {
+    switch (op) {
+      case NEW:
+        executeNew();
+        break;
+      case BOARD:
+        if (game == null) {
+          encodeStatus(Shell.Status.ENOGAME);
+        } else {
+          GameField field = game.getGameState().getField();
+          for (int r = 0; r < field.getMaxRow(); r++) {
+            for (int c = 0; c < field.getMaxColumn(); c++) {
+              if (field.contains(r, c)) {
+                addDelta(r, c, CellGlyphs.of(field.get(r, c)));
+              }
+            }
+          }
+          encodeResult(Shell.Status.OK, false);
+        }
+        break;
+      case QUIT:
+        encodeStatus(Shell.Status.OK);
+        break;
+      default:
+        executeMove();
+    }
+  }
+
+  private void executeNew() {
+    if (rows == MISSING || columns == MISSING || bees == MISSING) {
+      encodeStatus(Shell.Status.EARGS);
+      return;
+    }
+    if (columns < 1
+        || rows < 1
+        || bees < 1
+        || (long) columns * rows <= bees
+        || columns > Shell.MAX_RECT_WIDTH
+        || rows > Shell.MAX_RECT_HEIGHT) {
+      encodeStatus(Shell.Status.EINPUT);
+      return;
+    }
+    if (game != null) {
+      game.getGameState().getField().removeListener(deltaListener);
+    }
+    game = BeeSweeper.newGame(boardPool, BoardProfile.rectangular(columns, rows, bees));
+    game.getGameState().getField().addListener(deltaListener);
+    encodeResult(Shell.Status.OK, true);
+  }
+
+  private void executeMove() {
+    if (game == null || !game.getGameState().isGameAlive()) {
+      encodeStatus(Shell.Status.ENOGAME);
+      return;
+    }
+    if (row == MISSING || column == MISSING) {
+      encodeStatus(Shell.Status.EARGS);
+      return;
+    }
+    Coordinate coordinate = Coordinate.of(row, column);
+    BeeSweeper.OperationStatus status;
+    if (op == Op.REVEAL) {
+      status = game.reveal(coordinate);
+    } else if (op == Op.MARK) {
+      status = game.mark(coordinate);
+    } else {
+      status = game.unmark(coordinate);
+    }
+
+    if (status == BeeSweeper.OperationStatus.INDEX_OOB) {
+      encodeStatus(Shell.Status.EARGS);
+    } else if (status == BeeSweeper.OperationStatus.FAIL) {
+      encodeStatus(Shell.Status.FAIL);
+    } else {
+      GameState state = game.getGameState();
+      Shell.Status result =
+          state.isGameWon()
+              ? Shell.Status.WIN
+              : state.isGameOver() ? Shell.Status.LOSE : Shell.Status.OK;
+      encodeResult(result, false);
+    }
+  }
+
+  private void addDelta(int row, int column, byte glyph) {
+    if (deltaCount == deltaRows.length) {
+      deltaRows = Arrays.copyOf(deltaRows, deltaCount * 2);
+      deltaColumns = Arrays.copyOf(deltaColumns, deltaCount * 2);
+      deltaGlyphs = Arrays.copyOf(deltaGlyphs, deltaCount * 2);
+    }
+    deltaRows[deltaCount] = row;
+    deltaColumns[deltaCount] = column;
+    deltaGlyphs[deltaCount] = glyph;
+    deltaCount++;
+  }
+
+  private void encodeStatus(Shell.Status status) {
+    response.append("{\"status\":\"").append(status.name()).append("\"}");
+  }
+
+  private void encodeResult(Shell.Status status, boolean dimensions) {
+    GameField field = game.getGameState().getField();
+    response.append("{\"status\":\"").append(status.name()).append('"');
+    if (dimensions) {
+      response.append(",\"cols\":").append(field.getMaxColumn());
+      response.append(",\"rows\":").append(field.getMaxRow());
+    }
+    response.append(",\"flowers\":").append(field.getFlowersAvailable());
+    response.append(",\"delta\":[");
+    for (int i = 0; i < deltaCount; i++) {
+      if (i > 0) {
+        response.append(',');
+      }
+      response.append('[').append(deltaRows[i]).append(',').append(deltaColumns[i]);
+      response.append(",\"").append(deltaGlyphs[i]).append("\"]");
+    }
+    response.append("]}");
+  }
+
+  /**
+   * Reads the next line into the line buffer, without the line break. A line longer than the
+   * buffer is consumed completely, and its length is reported as longer than the buffer.
+   *
+   * @return false at the end of the input
+   */
+  private boolean readLine() throws IOException {
+    lineLength = 0;
+    boolean any = false;
+    while (true) {
+      if (inputPosition == inputLimit) {
+        // about to block, so the client must have all responses to its requests
+        out.flush();
+        inputLimit = in.read(input);
+        inputPosition = 0;
+        if (inputLimit <= 0) {
+          inputLimit = 0;
+          return any;
+        }
+      }
+      any = true;
+      byte b = input[inputPosition++];
+      if (b == '\n') {
+        if (lineLength > 0 && lineLength <= MAX_LINE_LENGTH && line[lineLength - 1] == '\r') {
+          lineLength--;
+        }
+        return true;
+      }
+      if (lineLength < MAX_LINE_LENGTH) {
+        line[lineLength] = b;
+      }
+      if (lineLength <= MAX_LINE_LENGTH) {
+        lineLength++;
+      }
+    }
+  }
+
+  /**
+   * Decodes the request in the line buffer.
+   *
+   * @return false if the line is not a JSON object with valid members
+   */
+  private boolean decode() {
+    op = null;
+    row = MISSING;
+    column = MISSING;
+    rows = MISSING;
+    columns = MISSING;
+    bees = MISSING;
+    position = 0;
+
+    skipWhitespace();
+    if (!consume('{')) {
+      return false;
+    }
+    skipWhitespace();
+    if (!consume('}')) {
+      do {
+        skipWhitespace();
+        if (!consume('"')) {
+          return false;
+        }
+        int keyStart = position;
+        if (!skipString()) {
+          return false;
+        }
+        int keyEnd = position - 1;
+        skipWhitespace();
+        if (!consume(':')) {
+          return false;
+        }
+        skipWhitespace();
+        if (!decodeValue(keyStart, keyEnd)) {
+          return false;
+        }
+        skipWhitespace();
+      } while (consume(','));
+      if (!consume('}')) {
+        return false;
+      }
+    }
+    skipWhitespace();
+    return position == lineLength;
+  }
+
+  private boolean decodeValue(int keyStart, int keyEnd) {
+    if (consume('"')) {
+      int start = position;
+      if (!skipString()) {
+        return false;
+      }
+      if (matches(keyStart, keyEnd, KEY_OP)) {
+        for (int i = 0; i < OPS.length; i++) {
+          if (matches(start, position - 1, OP_NAMES[i])) {
+            op = OPS[i];
+          }
+        }
+      }
+      return true;
+    }
+    if (!decodeNumber()) {
+      return skipLiteral(TRUE) || skipLiteral(FALSE) || skipLiteral(NULL);
+    }
+    if (matches(keyStart, keyEnd, KEY_ROW)) {
+      row = number;
+    } else if (matches(keyStart, keyEnd, KEY_COLUMN)) {
+      column = number;
+    } else if (matches(keyStart, keyEnd, KEY_ROWS)) {
+      rows = number;
+    } else if (matches(keyStart, keyEnd, KEY_COLUMNS)) {
+      columns = number;
+    } else if (matches(keyStart, keyEnd, KEY_BEES)) {
+      bees = number;
+    }
+    return true;
+  }
+
+  /** Decodes an integer into {@link #number}, returns false if there is none. */
+  private boolean decodeNumber() {
+    int start = position;
+    boolean negative = consume('-');
+    int digitsStart = position;
+    int value = 0;
+    while (position < lineLength && line[position] >= '0' && line[position] <= '9') {
+      value = value * 10 + line[position] - '0';
+      position++;
+      if (position - digitsStart > MAX_DIGITS) {
+        position = start;
+        return false;
+      }
+    }
+    if (position == digitsStart) {
+      position = start;
+      return false;
+    }
+    number = negative ? -value : value;
+    return true;
+  }
+
+  /** Skips the rest of a string after its opening quote, returns false for escapes or no end. */
+  private boolean skipString() {
+    while (position < lineLength) {
+      byte b = line[position++];
+      if (b == '"') {
+        return true;
+      } else if (b == '\\') {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private boolean skipLiteral(byte[] literal) {
+    if (position + literal.length <= lineLength
+        && matches(position, position + literal.length, literal)) {
+      position += literal.length;
+      return true;
+    }
+    return false;
+  }
+
+  private void skipWhitespace() {
+    while (position < lineLength
+        && (line[position] == ' '
+            || line[position] == '\t'
+            || line[position] == '\r'
+            || line[position] == '\n')) {
+      position++;
+    }
+  }
+
+  private boolean consume(char c) {
+    if (position < lineLength && line[position] == c) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  /** Tests whether the line buffer from start to end (exclusive) holds the given ASCII text. */
+  private boolean matches(int start, int end, byte[] text) {
+    return Arrays.equals(line, start, end, text, 0, text.length);
+  }
+
+  private static byte[] ascii(String text) {
+    return text.getBytes(StandardCharsets.US_ASCII);
+  }
+}
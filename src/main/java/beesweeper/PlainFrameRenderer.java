@@ -0,0 +1,105 @@
+package beesweeper;
+
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.FieldListener;
+import beesweeper.model.field.GameField;
+import java.io.PrintStream;
+import java.util.BitSet;
+
+/**
+ * Renders a window of a {@link GameField} as plain text in a {@link FieldLayout}, for any kind of
+ * output. The whole frame is built in one reusable {@link FrameBuffer} from the precomputed {@link
+ * CellGlyphs}, and written to the output in a single call.
+ *
+ * <p>The frame is kept for the next render. The renderer listens to the game field and marks the
+ * rows with changed cells as dirty, so a render only rebuilds those rows in place, all rows have
+ * the same length in a layout. A frame of a game field that has not changed is written again
+ * without looking at a single cell.
+ */
+final class PlainFrameRenderer {
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private final FrameBuffer buffer = new FrameBuffer();
+  private final FieldListener listener =
+      new FieldListener() {
+        @Override
+        public void cellChanged(int row, int column, Cell cell) {
+          dirtyRows.set(row);
+        }
+
+        @Override
+        public void fieldReset() {
+          lastLayout = null;
+        }
+      };
+
+  // rows changed since the last render, of the whole game field
+  private final BitSet dirtyRows = new BitSet();
+  private GameField lastField;
+  private FieldLayout lastLayout;
+  // the rows of the window start after the header line and all have the same length
+  private int rowsStart;
+  private int rowLength;
+
+  /**
+   * Renders a window of the game field, followed by the flowers left.
+   *
+   * @param field the game field to render
+   * @param layout the layout of the window to render
+   * @param out destination of the text
+   */
+  void render(GameField field, FieldLayout layout, PrintStream out) {
+    if (field != lastField) {
+      if (lastField != null) {
+        lastField.removeListener(listener);
+      }
+      field.addListener(listener);
+      lastField = field;
+      lastLayout = null;
+    }
+
+    if (!layout.equals(lastLayout)) {
+      redraw(field, layout);
+    } else {
+      update(field, layout);
+    }
+    dirtyRows.clear();
+    buffer.append("Flowers left: ").append(field.getFlowersAvailable()).append(LINE_SEPARATOR);
+    buffer.writeTo(out);
+  }
+
+  private void redraw(GameField field, FieldLayout layout) {
+    lastLayout = layout;
+    buffer.clear();
+    layout.appendHeader(buffer);
+    buffer.append(LINE_SEPARATOR);
+    rowsStart = buffer.length();
+    for (int row = layout.getFromRow(); row < layout.getToRow(); row++) {
+      appendRow(field, layout, row);
+    }
+    int rows = layout.getToRow() - layout.getFromRow();
+    rowLength = rows == 0 ? 0 : (buffer.length() - rowsStart) / rows;
+  }
+
+  private void update(GameField field, FieldLayout layout) {
+    int rowsEnd = rowsStart + (layout.getToRow() - layout.getFromRow()) * rowLength;
+    for (int row = dirtyRows.nextSetBit(layout.getFromRow());
+        row >= 0 && row < layout.getToRow();
+        row = dirtyRows.nextSetBit(row + 1)) {
+      // overwrite the cached row, it keeps its length
+      buffer.setLength(rowsStart + (row - layout.getFromRow()) * rowLength);
+      appendRow(field, layout, row);
+    }
+    // drop the flowers line of the last frame
+    buffer.setLength(rowsEnd);
+  }
+
+  private void appendRow(GameField field, FieldLayout layout, int row) {
+    layout.appendRowLabel(buffer, row);
+    for (int column = layout.getFromColumn(); column < layout.getToColumn(); column++) {
+      layout.appendCell(buffer, CellGlyphs.at(field, row, column));
+    }
+    buffer.append(LINE_SEPARATOR);
+  }
+}
@@ -0,0 +1,64 @@
+package beesweeper;
+
+import beesweeper.model.BeeSweeper;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the {@link Shell} sessions hosted by a {@link GameServer}. Maps session ids to the
+ * shells serving them, and thereby to their {@link BeeSweeper} games.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class SessionRegistry {
+
+  private final Map<Long, Shell> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong();
+
+  /** Creates an empty registry. */
+  public SessionRegistry() {}
+
+  /**
+   * Registers a new session.
+   *
+   * @param shell the shell serving the session
+   * @return the id of the session
+   */
+  long register(Shell shell) {
+    long id = nextId.incrementAndGet();
+    sessions.put(id, shell);
+    return id;
+  }
+
+  /**
+   * Removes a closed session.
+   *
+   * @param id the id of the session
+   */
+  void unregister(long id) {
+    sessions.remove(id);
+  }
+
+  /**
+   * Returns the number of open sessions.
+   *
+   * @return the number of open sessions
+   */
+  public int size() {
+    return sessions.size();
+  }
+
+  /**
+   * Returns the game currently played in the given session. The result is only a hint, as the
+   * session may start or end a game at any time.
+   *
+   * @param id the id of the session
+   * @return the running game, or null if the session does not exist, has no game running or its
+   *     game is evicted from memory
+   */
+  public BeeSweeper getGame(long id) {
+    Shell shell = sessions.get(id);
+    return shell == null ? null : shell.getGame();
+  }
+}
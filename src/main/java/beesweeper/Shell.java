@@ -1,14 +1,27 @@
 package beesweeper;
 
+import beesweeper.metrics.LatencyHistogram;
+import beesweeper.metrics.Metrics;
 import beesweeper.model.BeeSweeper;
+import beesweeper.model.GameSessionStore;
 import beesweeper.model.GameState;
-import beesweeper.model.field.Cell;
+import beesweeper.model.field.BoardProfile;
 import beesweeper.model.field.Coordinate;
 import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldPool;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 
 /**
@@ -17,12 +30,97 @@ import java.util.Arrays;
 public class Shell {
 
   /**
-   * Default constructor for the Shell class.
+   * Default constructor for the Shell class. Reads commands from stdin and writes to stdout,
+   * through a buffer that is flushed before every prompt instead of after every line.
    **/
-  public Shell() {}
+  public Shell() {
+    this(newStdinReader(), newStdoutStream(), null, null);
+  }
+
+  /**
+   * Creates a shell reading commands from the given reader and writing to the given stream, e.g.
+   * for a network session.
+   *
+   * @param in source of the commands
+   * @param out destination of the output, flushed before every prompt waits for input
+   * @param boardPool pool of pre-generated boards shared with other shells, or null to create a
+   *     pool for this shell only
+   * @param sessionStore store keeping the game between commands, shared with other shells, or null
+   *     to keep the game in this shell
+   */
+  public Shell(
+      BufferedReader in,
+      PrintStream out,
+      GameFieldPool boardPool,
+      GameSessionStore sessionStore) {
+    this(in, out, boardPool, sessionStore, false);
+  }
+
+  /**
+   * Creates a shell reading commands from the given reader and writing to the given stream, either
+   * interactively or in batch mode. In batch mode no prompt is shown, the game field is only
+   * printed by the PRINT command and when a game ends, and the {@link Status} of every command is
+   * written on a line of its own instead of messages.
+   *
+   * @param in source of the commands
+   * @param out destination of the output, flushed before every prompt waits for input
+   * @param boardPool pool of pre-generated boards shared with other shells, or null to create a
+   *     pool for this shell only
+   * @param sessionStore store keeping the game between commands, shared with other shells, or null
+   *     to keep the game in this shell
+   * @param batch true for batch mode
+   */
+  public Shell(
+      BufferedReader in,
+      PrintStream out,
+      GameFieldPool boardPool,
+      GameSessionStore sessionStore,
+      boolean batch) {
+    this.in = in;
+    this.batch = batch;
+    this.out = out;
+    this.sessionStore = sessionStore;
+    this.ownsBoardPool = boardPool == null;
+    this.boardPool =
+        boardPool != null
+            ? boardPool
+            : new GameFieldPool(
+                POOL_BOARDS_PER_PROFILE,
+                POOL_REFILL_THREADS,
+                POOL_MAX_PENDING_REFILLS,
+                POOL_IDLE_TIMEOUT);
+    // named games would bypass the memory budget of the store shared by all sessions
+    this.games = sessionStore == null ? new GameTable(this.boardPool) : null;
+  }
+
+  /** Status of a command, written after every command in batch mode. */
+  public enum Status {
+    /** The command was successful. */
+    OK,
+    /** The command was successful and won the game. */
+    WIN,
+    /** The command was successful and lost the game. */
+    LOSE,
+    /** The move is not possible, e.g. revealing a revealed cell. */
+    FAIL,
+    /** The arguments of the command are invalid. */
+    EARGS,
+    /** The board dimensions or the number of bees are invalid. */
+    EINPUT,
+    /** The command is unknown. */
+    ECMD,
+    /** There is no running game, or no game of the given name. */
+    ENOGAME,
+    /** The command is disabled: statistics are off, or the shell shares a session store. */
+    EDISABLED,
+    /** The file of an export could not be written. */
+    EIO
+  }
 
   //attributes
     private static final String PROMPT = "MW > ";
+    private static final String BATCH_OPTION = "--batch";
+    private static final String JSON_OPTION = "--json";
 
     private static final String PRINT_COMMAND = "PRINT";
     private static final String NEWREC_COMMAND = "NEWREC";
@@ -30,7 +128,17 @@ public class Shell {
     private static final String REVEAL_COMMAND = "REVEAL";
     private static final String MARK_COMMAND = "MARK";
     private static final String UNMARK_COMMAND = "UNMARK";
+    private static final String STATS_COMMAND = "STATS";
+    private static final String VIEW_COMMAND = "VIEW";
+    private static final String ANSI_COMMAND = "ANSI";
+    private static final String ON_ARGUMENT = "ON";
+    private static final String OFF_ARGUMENT = "OFF";
+    private static final String EXPORT_COMMAND = "EXPORT";
+    private static final String NEW_COMMAND = "NEW";
+    private static final String USE_COMMAND = "USE";
+    private static final String LIST_COMMAND = "LIST";
     private static final String QUIT_COMMAND = "QUIT";
+    private static final char COMMAND_SEPARATOR = ';';
 
     private static final String INVALID_COMMAND_MESSAGE = "Invalid command.";
     private static final String INVALID_ARGUMENTS_MESSAGE = "Invalid arguments.";
@@ -40,100 +148,354 @@ public class Shell {
     private static final String INVALID_COMB_BEE_MESSAGE = "Not enough fields for bees.";
     private static final String NO_ACTIVE_GAME_MESSAGE = "No active game running.";
     private static final String NOT_POSSIBLE_MESSAGE = "Not possible.";
-
-    // maximum dimension of the game board
-    private static final int MAX_RECT_WIDTH = 26;
-    private static final int MAX_RECT_HEIGHT = 99;
+    private static final String STATS_DISABLED_MESSAGE = "Statistics are disabled.";
+    private static final String NO_SUCH_GAME_MESSAGE = "No game of that name.";
+    private static final String GAME_FAILED_MESSAGE = "The game could not be created.";
+    private static final String EXPORT_FAILED_MESSAGE = "Export failed.";
+    private static final String SHARED_SESSION_MESSAGE = "Not available in a shared session.";
+
+    // maximum dimension of the game board, columns are labelled up to ZZ
+    static final int MAX_RECT_WIDTH = 702;
+    static final int MAX_RECT_HEIGHT = 999;
     private static final int MAX_COMB_HEIGHT = 17;
-    private static final char COLUMN_START_CHAR = 'A';
     private static final int ROW_DISPLAY_OFFSET = 1;
+    private static final int MAX_EXPORT_THREADS = 64;
+
+    // pre-generated boards, so that NEWREC does not wait for board generation
+    private static final int POOL_BOARDS_PER_PROFILE = 2;
+    private static final int POOL_REFILL_THREADS = 1;
+    private static final int POOL_MAX_PENDING_REFILLS = 16;
+    private static final Duration POOL_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    // large enough for the frame of a big board, which is then written with one system call
+    private static final int STDOUT_BUFFER_SIZE = 1 << 16;
 
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final GameFieldPool boardPool;
+    private final boolean ownsBoardPool;
+    private final GameSessionStore sessionStore;
+    private final boolean batch;
+
+    private long sessionId;
     private BeeSweeper game;
+    // named games, the current game is only in the table while another one is played; null with a
+    // session store
+    private final GameTable games;
+    private String gameName;
+    // status of the current command, for batch mode
+    private Status status;
+
+    private final PlainFrameRenderer plainRenderer = new PlainFrameRenderer();
+    // incremental rendering for ANSI terminals, off by default
+    private final AnsiFrameRenderer ansiRenderer = new AnsiFrameRenderer();
+    private boolean ansiRendering;
+    // the game field is printed once after all commands of a line
+    private boolean renderPending;
+
+    // window of the game field that is printed, the whole game field without a VIEW command
+    private int viewRow;
+    private int viewColumn;
+    private int viewRows = Integer.MAX_VALUE;
+    private int viewColumns = Integer.MAX_VALUE;
 
   /**
-   * Read and process input until the quit command has been entered.
+   * Read and process input until the quit command has been entered. With the option {@code
+   * --batch}, the commands are read in batch mode from the file given after the option, or from
+   * stdin. With the option {@code --json}, stdin and stdout are served by a {@link
+   * JsonLinesSession} instead.
    *
    * @param args Command line arguments.
-   * @throws IOException Error reading from stdin.
+   * @throws IOException Error reading from stdin or the command file.
    */
   public static void main(String[] args) throws IOException {
-    final Shell shell = new Shell();
+    Metrics.registerMBeans();
+    if (args.length > 0 && args[0].equals(JSON_OPTION)) {
+      new JsonLinesSession(System.in, newStdoutStream(), null).run();
+      return;
+    }
+    final Shell shell;
+    if (args.length > 0 && args[0].equals(BATCH_OPTION)) {
+      BufferedReader in =
+          args.length > 1
+              ? Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)
+              : newStdinReader();
+      shell = new Shell(in, newStdoutStream(), null, null, true);
+    } else {
+      shell = new Shell();
+    }
     shell.run();
   }
 
+  private static BufferedReader newStdinReader() {
+    return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+  }
+
+  /** Returns a stream to stdout that is only flushed explicitly, e.g. before every prompt. */
+  private static PrintStream newStdoutStream() {
+    return new PrintStream(
+        new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), STDOUT_BUFFER_SIZE),
+        false,
+        StandardCharsets.UTF_8);
+  }
+
   /**
    * Run the beesweeper shell. Shows prompt 'MW> ', takes commands from the user and executes them.
    *
    * @throws IOException error buffer reader
    */
   public void run() throws IOException {
-    BufferedReader in =
-        new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
     boolean quit = false;
+    if (sessionStore != null) {
+      sessionId = sessionStore.open();
+    }
 
-    while (!quit) {
-      System.out.print(PROMPT);
+    try {
+      while (!quit) {
+        if (!batch) {
+          out.print(PROMPT);
+          out.flush();
+        }
 
-      String input = in.readLine();
-      if (input == null) {
-        break;
-      }
+        String input = in.readLine();
+        if (input == null) {
+          break;
+        }
 
-      // remove all empty tokens
-      String[] tokens =
-          Arrays.stream(input.split("\\s+")).filter(e -> e.length() > 0).toArray(String[]::new);
+        if (input.isBlank()) {
+          // empty lines separate the parts of a script
+          if (!batch) {
+            displayError("No Command given");
+          }
+          continue;
+        }
+
+        if (sessionStore == null) {
+          quit = executeLine(input);
+        } else {
+          // the game stays in the store between lines, so that it can be evicted while idle
+          game = sessionStore.acquire(sessionId);
+          try {
+            quit = executeLine(input);
+          } finally {
+            sessionStore.release(sessionId, game);
+            game = null;
+          }
+        }
+      }
+    } finally {
+      out.flush();
+      if (games != null) {
+        games.close();
+      }
+      if (sessionStore != null) {
+        sessionStore.close(sessionId);
+      }
+      if (ownsBoardPool) {
+        boardPool.close();
+      }
+    }
+  }
 
+  /**
+   * Executes the commands of a line, which are separated by semicolons, e.g. {@code REVEAL A 1;
+   * MARK B 2}. Errors are reported after the command that caused them, and the game field is
+   * printed once after the last command instead of after every move, unless a move ends the game.
+   *
+   * @return true if the shell should quit
+   */
+  private boolean executeLine(String line) {
+    boolean quit = false;
+    int start = 0;
+    while (!quit && start <= line.length()) {
+      int end = line.indexOf(COMMAND_SEPARATOR, start);
+      if (end < 0) {
+        end = line.length();
+      }
+      String[] tokens = tokenize(line, start, end);
+      start = end + 1;
       if (tokens.length == 0) {
-        displayError("No Command given");
+        // e.g. after a trailing separator
         continue;
       }
 
       String command = tokens[0].toUpperCase();
       String[] arguments = Arrays.copyOfRange(tokens, 1, tokens.length);
+      status = Status.OK;
+      quit = execute(command, arguments);
+      if (batch) {
+        // only PRINT renders in batch mode, its output comes before its status
+        printPendingGameField();
+        out.println(status);
+      }
+    }
+    printPendingGameField();
+    return quit;
+  }
 
-      // Consider using enums instead (Effective Java Item 34)
-      switch (command) {
-        case PRINT_COMMAND:
-          handlePrintCommand(arguments);
-          break;
-        case NEWREC_COMMAND:
-          handleNewRectangleCommand(arguments);
-          break;
-        case NEWCOMB_COMMAND:
-          handleNewCombCommand(arguments);
-          break;
-        case REVEAL_COMMAND:
-          handleRevealCommand(arguments);
-          break;
-        case MARK_COMMAND:
-          handleMarkCommand(arguments);
-          break;
-        case UNMARK_COMMAND:
-          handleUnmarkCommand(arguments);
-          break;
-        case QUIT_COMMAND:
-          if (arguments.length != 0) {
-            displayError(INVALID_ARGUMENTS_MESSAGE);
-            continue;
-          }
-          quit = true;
-          break;
-        default:
-          displayError(INVALID_COMMAND_MESSAGE);
+  private void printPendingGameField() {
+    if (renderPending && game != null) {
+      printCurrentGameField();
+    }
+    renderPending = false;
+  }
+
+  /**
+   * Splits a line into its tokens, which are separated by whitespace.
+   *
+   * @param line the line
+   * @return the tokens, without empty ones
+   */
+  static String[] tokenize(String line) {
+    return tokenize(line, 0, line.length());
+  }
+
+  private static String[] tokenize(String line, int from, int to) {
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      if (!Character.isWhitespace(line.charAt(i))
+          && (i == from || Character.isWhitespace(line.charAt(i - 1)))) {
+        count++;
+      }
+    }
+    String[] tokens = new String[count];
+    int token = 0;
+    int i = from;
+    while (token < count) {
+      while (Character.isWhitespace(line.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < to && !Character.isWhitespace(line.charAt(i))) {
+        i++;
       }
+      tokens[token++] = line.substring(start, i);
+    }
+    return tokens;
+  }
+
+  /**
+   * Executes a single command.
+   *
+   * @return true if the shell should quit
+   */
+  private boolean execute(String command, String[] arguments) {
+    try {
+      return executeCommand(command, arguments);
+    } catch (InvalidNumberException e) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return false;
+    }
+  }
+
+  private boolean executeCommand(String command, String[] arguments) {
+    // Consider using enums instead (Effective Java Item 34)
+    switch (command) {
+      case PRINT_COMMAND:
+        handlePrintCommand(arguments);
+        break;
+      case NEWREC_COMMAND:
+        handleNewRectangleCommand(arguments);
+        break;
+      case NEWCOMB_COMMAND:
+        handleNewCombCommand(arguments);
+        break;
+      case REVEAL_COMMAND:
+        handleRevealCommand(arguments);
+        break;
+      case MARK_COMMAND:
+        handleMarkCommand(arguments);
+        break;
+      case UNMARK_COMMAND:
+        handleUnmarkCommand(arguments);
+        break;
+      case STATS_COMMAND:
+        handleStatsCommand(arguments);
+        break;
+      case VIEW_COMMAND:
+        handleViewCommand(arguments);
+        break;
+      case ANSI_COMMAND:
+        handleAnsiCommand(arguments);
+        break;
+      case EXPORT_COMMAND:
+        handleExportCommand(arguments);
+        break;
+      case NEW_COMMAND:
+        handleNewCommand(arguments);
+        break;
+      case USE_COMMAND:
+        handleUseCommand(arguments);
+        break;
+      case LIST_COMMAND:
+        handleListCommand(arguments);
+        break;
+      case QUIT_COMMAND:
+        if (arguments.length != 0) {
+          displayError(INVALID_ARGUMENTS_MESSAGE);
+          return false;
+        }
+        return true;
+      default:
+        displayError(INVALID_COMMAND_MESSAGE);
+    }
+    return false;
+  }
+
+  /**
+   * Parses a number argument of a command.
+   *
+   * @param argument the argument
+   * @return the number
+   * @throws InvalidNumberException if the argument is not a number in the range of int, which is
+   *     reported as invalid arguments by {@link #execute(String, String[])}
+   */
+  private static int parseNumber(String argument) {
+    try {
+      return Integer.parseInt(argument);
+    } catch (NumberFormatException e) {
+      throw new InvalidNumberException();
+    }
+  }
+
+  /** Thrown by {@link #parseNumber(String)}, ends the command but not the shell. */
+  private static final class InvalidNumberException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private InvalidNumberException() {
+      // only the type matters, the stack trace is never used
+      super(null, null, false, false);
     }
   }
 
+  /**
+   * Returns the running game of this shell, or null if there is none. With a session store, only
+   * games that are currently in memory are returned.
+   */
+  BeeSweeper getGame() {
+    return sessionStore == null ? game : sessionStore.peek(sessionId);
+  }
+
   private void printActionResult(BeeSweeper.OperationStatus operationStatus) {
     GameState gameState = game.getGameState();
     if (operationStatus == BeeSweeper.OperationStatus.SUCCESS) {
-      printCurrentGameField();
+      if (gameState.isGameWon() || gameState.isGameOver()) {
+        // the final board is shown before the message, the rest of the line fails anyway
+        renderPending = false;
+        printCurrentGameField();
+      } else {
+        renderIfInteractive();
+      }
       if (gameState.isGameWon()) {
-        System.out.println("Congratulations, you win!");
+        message("Congratulations, you win!");
+        status = Status.WIN;
         game = null;
+        gameName = null;
       } else if (gameState.isGameOver()) {
-        System.out.println("Sorry, you loose.");
+        message("Sorry, you loose.");
+        status = Status.LOSE;
         game = null;
+        gameName = null;
       }
     } else if (operationStatus == BeeSweeper.OperationStatus.INDEX_OOB) {
       displayError(INVALID_ARGUMENTS_MESSAGE);
@@ -154,7 +516,9 @@ public class Shell {
       return;
     }
 
-    printCurrentGameField();
+    // a reprint also repairs the screen, e.g. after the terminal has been resized
+    ansiRenderer.invalidate();
+    renderPending = true;
   }
 
   private void handleNewRectangleCommand(String[] arguments) {
@@ -163,27 +527,43 @@ public class Shell {
       return;
     }
 
-    int columns = Integer.parseInt(arguments[0]);
-    int rows = Integer.parseInt(arguments[1]);
-    int bees = Integer.parseInt(arguments[2]);
+    BoardProfile profile = parseRectangle(arguments, 0);
+    if (profile == null) {
+      return;
+    }
+
+    keepNamedGame();
+    game = BeeSweeper.newGame(boardPool, profile);
+    ansiRenderer.invalidate();
+    renderIfInteractive();
+  }
 
-    if (columns < 0 || rows < 0 || bees < 0) {
+  /**
+   * Parses the columns, rows and bees of a rectangular game field, starting at the given argument.
+   *
+   * @return the profile of the game field, or null if the arguments are not valid
+   */
+  private BoardProfile parseRectangle(String[] arguments, int from) {
+    int columns = parseNumber(arguments[from]);
+    int rows = parseNumber(arguments[from + 1]);
+    int bees = parseNumber(arguments[from + 2]);
+
+    if (columns < 0 || rows < 0 || bees < 1) {
       displayError(INVALID_INPUT_MESSAGE);
-      return;
+      return null;
     }
 
     if (columns * rows <= bees) {
       displayError(INVALID_INPUT_MESSAGE);
-      return;
+      return null;
     }
 
     if (columns > MAX_RECT_WIDTH || rows > MAX_RECT_HEIGHT) {
       displayError(INVALID_INPUT_MESSAGE);
-      return;
+      return null;
     }
 
-    game = BeeSweeper.newRectangularGame(columns, rows, bees);
-    printCurrentGameField();
+    return BoardProfile.rectangular(columns, rows, bees);
   }
 
   private void handleNewCombCommand(String[] arguments) {
@@ -192,8 +572,8 @@ public class Shell {
       return;
     }
 
-    int rows = Integer.parseInt(arguments[0]);
-    int bees = Integer.parseInt(arguments[1]);
+    int rows = parseNumber(arguments[0]);
+    int bees = parseNumber(arguments[1]);
 
     if (rows < 3 || rows % 2 == 0 || rows > MAX_COMB_HEIGHT) {
       displayError(INVALID_COMB_DIMENSION_MESSAGE);
@@ -206,8 +586,148 @@ public class Shell {
       return;
     }
 
+    keepNamedGame();
     game = BeeSweeper.newCombGame(rows, bees);
-    printCurrentGameField();
+    ansiRenderer.invalidate();
+    renderIfInteractive();
+  }
+
+  private void handleExportCommand(String[] arguments) {
+    // remote clients must not write files on the server or start threads there
+    if (sessionStore != null) {
+      displayError(SHARED_SESSION_MESSAGE);
+      return;
+    }
+
+    if (!isGameRunning()) {
+      displayError(NO_ACTIVE_GAME_MESSAGE);
+      return;
+    }
+
+    if (arguments.length != 1 && arguments.length != 2) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    // the format is given by the file name, e.g. EXPORT board.png 8
+    String file = arguments[0];
+    String lowerCaseFile = file.toLowerCase();
+    BoardImageWriter.Format format;
+    if (lowerCaseFile.endsWith(".png")) {
+      format = BoardImageWriter.Format.PNG;
+    } else if (lowerCaseFile.endsWith(".ppm")) {
+      format = BoardImageWriter.Format.PPM;
+    } else {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+    int threads = arguments.length == 2 ? parseNumber(arguments[1]) : 1;
+    if (threads < 1 || threads > MAX_EXPORT_THREADS) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    BoardImageWriter writer = new BoardImageWriter(format, threads);
+    try (OutputStream image = new BufferedOutputStream(Files.newOutputStream(Path.of(file)))) {
+      writer.write(game.getGameState().getField(), image);
+    } catch (IOException | InvalidPathException e) {
+      displayError(EXPORT_FAILED_MESSAGE);
+    }
+  }
+
+  private void handleNewCommand(String[] arguments) {
+    if (games == null) {
+      displayError(SHARED_SESSION_MESSAGE);
+      return;
+    }
+
+    if (arguments.length != 4) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    BoardProfile profile = parseRectangle(arguments, 1);
+    if (profile == null) {
+      return;
+    }
+
+    // the board is generated in the background, USE waits for it if it is not ready by then
+    String name = arguments[0];
+    if (name.equals(gameName)) {
+      gameName = null;
+    }
+    games.create(name, profile);
+  }
+
+  private void handleUseCommand(String[] arguments) {
+    if (games == null) {
+      displayError(SHARED_SESSION_MESSAGE);
+      return;
+    }
+
+    if (arguments.length != 1) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    String name = arguments[0];
+    if (name.equals(gameName)) {
+      renderIfInteractive();
+      return;
+    }
+    if (!games.contains(name)) {
+      displayError(NO_SUCH_GAME_MESSAGE);
+      return;
+    }
+
+    BeeSweeper named = games.take(name);
+    if (named == null) {
+      displayError(GAME_FAILED_MESSAGE);
+      return;
+    }
+    keepNamedGame();
+    game = named;
+    gameName = name;
+    ansiRenderer.invalidate();
+    renderIfInteractive();
+  }
+
+  private void handleListCommand(String[] arguments) {
+    if (games == null) {
+      displayError(SHARED_SESSION_MESSAGE);
+      return;
+    }
+
+    if (arguments.length != 0) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    // in alphabetical order, the current game is marked with a star and games whose board is not
+    // ready yet as pending, or as failed if their board could not be created
+    String current = gameName;
+    for (String name : games.names()) {
+      if (current != null && current.compareTo(name) < 0) {
+        out.println("* " + current);
+        current = null;
+      }
+      if (games.isReady(name)) {
+        out.println("  " + name);
+      } else {
+        out.println("  " + name + (games.isFailed(name) ? " (failed)" : " (pending)"));
+      }
+    }
+    if (current != null) {
+      out.println("* " + current);
+    }
+  }
+
+  /** Puts the current game back into the table of named games before another game is played. */
+  private void keepNamedGame() {
+    if (gameName != null && isGameRunning()) {
+      games.put(gameName, game);
+    }
+    gameName = null;
   }
 
   private void handleRevealCommand(String[] arguments) {
@@ -221,13 +741,12 @@ public class Shell {
       return;
     }
 
-    if (arguments[0].length() != 1) {
+    int col = FieldLayout.parseColumn(arguments[0]);
+    if (col < 0) {
       displayError(INVALID_ARGUMENTS_MESSAGE);
       return;
     }
-
-    int col = arguments[0].charAt(0) - COLUMN_START_CHAR;
-    int row = Integer.parseInt(arguments[1]) - ROW_DISPLAY_OFFSET;
+    int row = parseNumber(arguments[1]) - ROW_DISPLAY_OFFSET;
 
     BeeSweeper.OperationStatus status = game.reveal(Coordinate.of(row, col));
     printActionResult(status);
@@ -244,13 +763,12 @@ public class Shell {
       return;
     }
 
-    if (arguments[0].length() != 1) {
+    int col = FieldLayout.parseColumn(arguments[0]);
+    if (col < 0) {
       displayError(INVALID_ARGUMENTS_MESSAGE);
       return;
     }
-
-    int col = arguments[0].charAt(0) - COLUMN_START_CHAR;
-    int row = Integer.parseInt(arguments[1]) - 1;
+    int row = parseNumber(arguments[1]) - 1;
 
     BeeSweeper.OperationStatus status = game.mark(Coordinate.of(row, col));
     printActionResult(status);
@@ -267,75 +785,172 @@ public class Shell {
       return;
     }
 
-    if (arguments[0].length() != 1) {
+    int col = FieldLayout.parseColumn(arguments[0]);
+    if (col < 0) {
       displayError(INVALID_ARGUMENTS_MESSAGE);
       return;
     }
-
-    int col = arguments[0].charAt(0) - COLUMN_START_CHAR;
-    int row = Integer.parseInt(arguments[1]) - 1;
+    int row = parseNumber(arguments[1]) - 1;
 
     BeeSweeper.OperationStatus operationStatus = game.unmark(Coordinate.of(row, col));
     printActionResult(operationStatus);
   }
 
-  void printCurrentGameField() {
-    assert isGameRunning();
+  private void handleStatsCommand(String[] arguments) {
+    if (arguments.length != 0) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
 
-    GameField field = game.getGameState().getField();
-    int numColumns = field.getMaxColumn();
+    if (!Metrics.ENABLED) {
+      displayError(STATS_DISABLED_MESSAGE);
+      return;
+    }
 
-    // print column index (A~Z)
-    StringBuilder line = new StringBuilder("   ");
-    for (int colNum = 0; colNum < numColumns; ++colNum) {
-      line.append(" ").append((char) (colNum + COLUMN_START_CHAR));
+    out.println(
+        "Moves: "
+            + Metrics.getMoves()
+            + ", cascades: "
+            + Metrics.getCascades()
+            + ", cells revealed: "
+            + Metrics.getCellsRevealed()
+            + ", games won: "
+            + Metrics.getGamesWon()
+            + ", games lost: "
+            + Metrics.getGamesLost());
+    for (Metrics.Operation operation : Metrics.Operation.values()) {
+      LatencyHistogram histogram = Metrics.getHistogram(operation);
+      out.printf(
+          "%s: count %d, mean %d ns, p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+          operation,
+          histogram.getCount(),
+          histogram.getMeanNanos(),
+          histogram.getPercentileNanos(0.5),
+          histogram.getPercentileNanos(0.99),
+          histogram.getPercentileNanos(0.999),
+          histogram.getMaxNanos());
     }
-    System.out.println(line);
+  }
 
-    // print each row with row index
-    for (int rowNum = 0; rowNum < field.getMaxRow(); ++rowNum) {
-      String numberPadding = "";
-      int rowNumToDisplay = rowNum + ROW_DISPLAY_OFFSET;
-      if (rowNumToDisplay < 10) {
-        numberPadding += " ";
-      }
-      if (rowNumToDisplay < 100) {
-        numberPadding += " ";
-      }
-      line = new StringBuilder(numberPadding + rowNumToDisplay);
-      for (int colNum = 0; colNum < numColumns; ++colNum) {
-        line.append(" ");
-        Coordinate coord = Coordinate.of(rowNum, colNum);
-        if (field.contains(coord)) {
-          Cell currCell = field.get(coord);
-          line.append(cellToString(currCell));
-        } else {
-          line.append(" ");
-        }
-      }
-      System.out.println(line);
+  private void handleViewCommand(String[] arguments) {
+    if (!isGameRunning()) {
+      displayError(NO_ACTIVE_GAME_MESSAGE);
+      return;
+    }
+
+    if (arguments.length == 0) {
+      // back to the whole game field
+      viewRow = 0;
+      viewColumn = 0;
+      viewRows = Integer.MAX_VALUE;
+      viewColumns = Integer.MAX_VALUE;
+      renderIfInteractive();
+      return;
+    }
+
+    if (arguments.length != 4) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    GameField field = game.getGameState().getField();
+    int col = FieldLayout.parseColumn(arguments[0]);
+    int row = parseNumber(arguments[1]) - ROW_DISPLAY_OFFSET;
+    int width = parseNumber(arguments[2]);
+    int height = parseNumber(arguments[3]);
+    if (col < 0
+        || col >= field.getMaxColumn()
+        || row < 0
+        || row >= field.getMaxRow()
+        || width < 1
+        || height < 1) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
     }
 
-    // print remaining flowers
-    System.out.println("Flowers left: " + field.getFlowersAvailable());
+    viewRow = row;
+    viewColumn = col;
+    viewRows = height;
+    viewColumns = width;
+    renderIfInteractive();
   }
 
-  private String cellToString(Cell cell) {
-    if (cell.isRevealed()) {
-      if (cell.isBee()) {
-        return "B";
-      } else {
-        return String.valueOf(cell.getNumberOfBeesSurrounding());
-      }
-    } else if (cell.isMarked()) {
-      return "F";
+  private void handleAnsiCommand(String[] arguments) {
+    if (arguments.length != 1) {
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+      return;
+    }
+
+    String mode = arguments[0].toUpperCase();
+    if (mode.equals(ON_ARGUMENT)) {
+      ansiRendering = true;
+      ansiRenderer.invalidate();
+    } else if (mode.equals(OFF_ARGUMENT)) {
+      ansiRendering = false;
     } else {
-      return "*";
+      displayError(INVALID_ARGUMENTS_MESSAGE);
+    }
+  }
+
+  void printCurrentGameField() {
+    // also called for the final board, when the game is not running anymore
+    assert game != null;
+
+    long start = Metrics.start();
+    GameField field = game.getGameState().getField();
+    FieldLayout layout = new FieldLayout(field, viewRow, viewColumn, viewRows, viewColumns);
+    if (ansiRendering) {
+      ansiRenderer.render(field, layout, out);
+    } else {
+      plainRenderer.render(field, layout, out);
+    }
+    Metrics.stop(Metrics.Operation.RENDER, start);
+  }
+
+  /**
+   * Prints the game field after the commands of the current line, if one of them changed it,
+   * unless in batch mode.
+   */
+  private void renderIfInteractive() {
+    if (!batch) {
+      renderPending = true;
+    }
+  }
+
+  /** Prints a message to the player, which in batch mode is replaced by the status. */
+  private void message(String message) {
+    if (!batch) {
+      out.println(message);
     }
   }
 
   private void displayError(String message) {
-    System.out.println("Error! " + message);
+    status = statusOf(message);
+    message("Error! " + message);
+  }
+
+  private static Status statusOf(String errorMessage) {
+    switch (errorMessage) {
+      case INVALID_ARGUMENTS_MESSAGE:
+        return Status.EARGS;
+      case INVALID_INPUT_MESSAGE:
+      case INVALID_COMB_DIMENSION_MESSAGE:
+      case INVALID_COMB_BEE_MESSAGE:
+      case GAME_FAILED_MESSAGE:
+        return Status.EINPUT;
+      case NO_ACTIVE_GAME_MESSAGE:
+      case NO_SUCH_GAME_MESSAGE:
+        return Status.ENOGAME;
+      case NOT_POSSIBLE_MESSAGE:
+        return Status.FAIL;
+      case STATS_DISABLED_MESSAGE:
+      case SHARED_SESSION_MESSAGE:
+        return Status.EDISABLED;
+      case EXPORT_FAILED_MESSAGE:
+        return Status.EIO;
+      default:
+        return Status.ECMD;
+    }
   }
 
   private boolean isGameRunning() {
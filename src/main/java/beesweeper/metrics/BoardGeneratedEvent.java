@@ -0,0 +1,34 @@
+package beesweeper.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for generating or re-seeding a game field. */
+@Name("beesweeper.BoardGenerated")
+@Label("Board Generated")
+@Category("BeeSweeper")
+@Description("A game field was generated or re-seeded in place")
+public final class BoardGeneratedEvent extends Event {
+
+  /** Number of rows of the game field. */
+  @Label("Rows")
+  public int rows;
+
+  /** Number of columns of the game field. */
+  @Label("Columns")
+  public int columns;
+
+  /** Number of bees hidden on the game field. */
+  @Label("Bees")
+  public int bees;
+
+  /** Whether an existing game field was re-seeded instead of a new one created. */
+  @Label("Re-seeded")
+  public boolean reseeded;
+
+  /** Creates an event, to be committed once the operation has finished. */
+  public BoardGeneratedEvent() {}
+}
@@ -0,0 +1,30 @@
+package beesweeper.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for a move that reveals several cells at once. */
+@Name("beesweeper.Cascade")
+@Label("Cascade")
+@Category("BeeSweeper")
+@Description("A move revealed the neighbours of a cell")
+public final class CascadeEvent extends Event {
+
+  /** Row of the cell whose neighbours were revealed. */
+  @Label("Row")
+  public int row;
+
+  /** Column of the cell whose neighbours were revealed. */
+  @Label("Column")
+  public int column;
+
+  /** Number of cells revealed by the move. */
+  @Label("Cells Opened")
+  public int cellsOpened;
+
+  /** Creates an event, to be committed once the operation has finished. */
+  public CascadeEvent() {}
+}
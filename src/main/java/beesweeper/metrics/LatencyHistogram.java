@@ -0,0 +1,122 @@
+package beesweeper.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets. Every power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so recorded values are kept with a relative error of at
+ * most 1/{@value #SUB_BUCKETS} over the whole range of {@code long}, in a fixed array of counters.
+ * Recording a value does not allocate.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+
+  /** Number of linear sub-buckets per power of two. */
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder totalCount = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /** Creates an empty histogram. */
+  public LatencyHistogram() {}
+
+  /**
+   * Records a latency. Negative values are recorded as 0.
+   *
+   * @param nanos the latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    counts.incrementAndGet(bucketOf(value));
+    totalCount.increment();
+    totalNanos.add(value);
+    if (value > maxNanos.get()) {
+      maxNanos.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return the number of latencies
+   */
+  public long getCount() {
+    return totalCount.sum();
+  }
+
+  /**
+   * Returns the mean of the recorded latencies.
+   *
+   * @return the mean latency in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getMeanNanos() {
+    long count = totalCount.sum();
+    return count == 0 ? 0 : totalNanos.sum() / count;
+  }
+
+  /**
+   * Returns the largest recorded latency.
+   *
+   * @return the maximum latency in nanoseconds, or 0 if nothing has been recorded
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Returns the latency below which the given fraction of the recorded latencies lie, as the upper
+   * bound of the bucket containing it.
+   *
+   * @param fraction the fraction of latencies, between 0 and 1
+   * @return the percentile in nanoseconds, or 0 if nothing has been recorded
+   * @throws IllegalArgumentException if the fraction is not between 0 and 1
+   */
+  public long getPercentileNanos(double fraction) {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+    }
+    long count = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      count += snapshot[i];
+    }
+    long target = Math.max(1, (long) Math.ceil(fraction * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= target) {
+        return Math.min(upperBoundOf(i), getMaxNanos());
+      }
+    }
+    return 0;
+  }
+
+  /** Returns the index of the bucket holding the given non-negative value. */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /** Returns the largest value held by the bucket with the given index. */
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    long lowerBound = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,355 @@
+package beesweeper.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide latency histograms and counters of the BeeSweeper operations.
+ *
+ * <p>Metrics are enabled unless the system property {@value #ENABLED_PROPERTY} is {@code false}.
+ * The switch is read once into a constant, so with metrics disabled the JIT compiler removes the
+ * instrumentation from the hot paths entirely. Instrumented code brackets an operation with {@link
+ * #start()} and {@link #stop(Operation, long)}.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class Metrics {
+
+  /** System property that disables metrics when set to {@code false}. */
+  public static final String ENABLED_PROPERTY = "beesweeper.metrics";
+
+  /** Whether metrics are recorded. */
+  public static final boolean ENABLED =
+      !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+
+  /** JMX domain of the registered MBeans. */
+  static final String JMX_DOMAIN = "beesweeper";
+
+  /** Operations whose latency is recorded. */
+  public enum Operation {
+    /** Generating a game field. */
+    CREATE_FIELD,
+    /** Revealing a cell. */
+    REVEAL,
+    /** Revealing the neighbours of a cell on a shared game field. */
+    REVEAL_NEIGHBOURS,
+    /** Marking a cell. */
+    MARK,
+    /** Unmarking a cell. */
+    UNMARK,
+    /** Rendering a game field. */
+    RENDER
+  }
+
+  private static final LatencyHistogram[] HISTOGRAMS =
+      new LatencyHistogram[Operation.values().length];
+
+  static {
+    for (int i = 0; i < HISTOGRAMS.length; i++) {
+      HISTOGRAMS[i] = new LatencyHistogram();
+    }
+  }
+
+  private static final LongAdder MOVES = new LongAdder();
+  private static final LongAdder CASCADES = new LongAdder();
+  private static final LongAdder CELLS_REVEALED = new LongAdder();
+  private static final LongAdder GAMES_WON = new LongAdder();
+  private static final LongAdder GAMES_LOST = new LongAdder();
+
+  // Utility class with only static methods
+  private Metrics() {}
+
+  /**
+   * Starts timing an operation.
+   *
+   * @return the start time to pass to {@link #stop(Operation, long)}, or 0 if metrics are disabled
+   */
+  public static long start() {
+    return ENABLED ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Records the latency of an operation started with {@link #start()}.
+   *
+   * @param operation the timed operation
+   * @param startNanos the start time returned by {@link #start()}
+   */
+  public static void stop(Operation operation, long startNanos) {
+    if (ENABLED) {
+      HISTOGRAMS[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+  }
+
+  /** Counts a move made by a player. */
+  public static void countMove() {
+    if (ENABLED) {
+      MOVES.increment();
+    }
+  }
+
+  /** Counts a move that revealed several cells at once. */
+  public static void countCascade() {
+    if (ENABLED) {
+      CASCADES.increment();
+    }
+  }
+
+  /** Counts a revealed cell. */
+  public static void countCellRevealed() {
+    if (ENABLED) {
+      CELLS_REVEALED.increment();
+    }
+  }
+
+  /** Counts a won game. */
+  public static void countGameWon() {
+    if (ENABLED) {
+      GAMES_WON.increment();
+    }
+  }
+
+  /** Counts a lost game. */
+  public static void countGameLost() {
+    if (ENABLED) {
+      GAMES_LOST.increment();
+    }
+  }
+
+  /**
+   * Returns the latency histogram of the given operation.
+   *
+   * @param operation the operation
+   * @return the histogram of its latencies
+   */
+  public static LatencyHistogram getHistogram(Operation operation) {
+    return HISTOGRAMS[operation.ordinal()];
+  }
+
+  /**
+   * Returns the number of moves made by players.
+   *
+   * @return the number of moves
+   */
+  public static long getMoves() {
+    return MOVES.sum();
+  }
+
+  /**
+   * Returns the number of moves that revealed several cells at once.
+   *
+   * @return the number of cascades
+   */
+  public static long getCascades() {
+    return CASCADES.sum();
+  }
+
+  /**
+   * Returns the number of revealed cells.
+   *
+   * @return the number of revealed cells
+   */
+  public static long getCellsRevealed() {
+    return CELLS_REVEALED.sum();
+  }
+
+  /**
+   * Returns the number of won games.
+   *
+   * @return the number of won games
+   */
+  public static long getGamesWon() {
+    return GAMES_WON.sum();
+  }
+
+  /**
+   * Returns the number of lost games.
+   *
+   * @return the number of lost games
+   */
+  public static long getGamesLost() {
+    return GAMES_LOST.sum();
+  }
+
+  /**
+   * Registers the counters and the latency of every operation as MBeans with the platform MBean
+   * server, as {@code beesweeper:type=Metrics} and {@code beesweeper:type=Latency,operation=...}.
+   * Does nothing if metrics are disabled or the MBeans are registered already.
+   *
+   * @throws IllegalStateException if the MBeans can not be registered
+   */
+  public static synchronized void registerMBeans() {
+    if (!ENABLED) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName countersName = new ObjectName(JMX_DOMAIN + ":type=Metrics");
+      if (server.isRegistered(countersName)) {
+        return;
+      }
+      server.registerMBean(new Counters(), countersName);
+      for (Operation operation : Operation.values()) {
+        ObjectName latencyName =
+            new ObjectName(
+                JMX_DOMAIN
+                    + ":type=Latency,operation="
+                    + operation.name().toLowerCase(Locale.ROOT));
+        server.registerMBean(new Latency(HISTOGRAMS[operation.ordinal()]), latencyName);
+      }
+    } catch (JMException e) {
+      throw new IllegalStateException("Registering the metrics MBeans failed", e);
+    }
+  }
+
+  /** Management interface of the counters. */
+  public interface CountersMXBean {
+    /**
+     * Returns the number of moves.
+     *
+     * @return see {@link Metrics#getMoves()}
+     */
+    long getMoves();
+
+    /**
+     * Returns the number of cascades.
+     *
+     * @return see {@link Metrics#getCascades()}
+     */
+    long getCascades();
+
+    /**
+     * Returns the number of revealed cells.
+     *
+     * @return see {@link Metrics#getCellsRevealed()}
+     */
+    long getCellsRevealed();
+
+    /**
+     * Returns the number of won games.
+     *
+     * @return see {@link Metrics#getGamesWon()}
+     */
+    long getGamesWon();
+
+    /**
+     * Returns the number of lost games.
+     *
+     * @return see {@link Metrics#getGamesLost()}
+     */
+    long getGamesLost();
+  }
+
+  /** Management interface of the latency of one operation. */
+  public interface LatencyMXBean {
+    /**
+     * Returns the number of timed operations.
+     *
+     * @return see {@link LatencyHistogram#getCount()}
+     */
+    long getCount();
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return see {@link LatencyHistogram#getMeanNanos()}
+     */
+    long getMeanNanos();
+
+    /**
+     * Returns the median latency.
+     *
+     * @return the 50th percentile in nanoseconds
+     */
+    long getP50Nanos();
+
+    /**
+     * Returns the 99th percentile of the latency.
+     *
+     * @return the 99th percentile in nanoseconds
+     */
+    long getP99Nanos();
+
+    /**
+     * Returns the 99.9th percentile of the latency.
+     *
+     * @return the 99.9th percentile in nanoseconds
+     */
+    long getP999Nanos();
+
+    /**
+     * Returns the maximum latency.
+     *
+     * @return see {@link LatencyHistogram#getMaxNanos()}
+     */
+    long getMaxNanos();
+  }
+
+  private static final class Counters implements CountersMXBean {
+    @Override
+    public long getMoves() {
+      return Metrics.getMoves();
+    }
+
+    @Override
+    public long getCascades() {
+      return Metrics.getCascades();
+    }
+
+    @Override
+    public long getCellsRevealed() {
+      return Metrics.getCellsRevealed();
+    }
+
+    @Override
+    public long getGamesWon() {
+      return Metrics.getGamesWon();
+    }
+
+    @Override
+    public long getGamesLost() {
+      return Metrics.getGamesLost();
+    }
+  }
+
+  private static final class Latency implements LatencyMXBean {
+    private final LatencyHistogram histogram;
+
+    private Latency(LatencyHistogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public long getCount() {
+      return histogram.getCount();
+    }
+
+    @Override
+    public long getMeanNanos() {
+      return histogram.getMeanNanos();
+    }
+
+    @Override
+    public long getP50Nanos() {
+      return histogram.getPercentileNanos(0.5);
+    }
+
+    @Override
+    public long getP99Nanos() {
+      return histogram.getPercentileNanos(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+      return histogram.getPercentileNanos(0.999);
+    }
+
+    @Override
+    public long getMaxNanos() {
+      return histogram.getMaxNanos();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package beesweeper.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** JFR event for saving or loading a game snapshot. */
+@Name("beesweeper.Snapshot")
+@Label("Snapshot")
+@Category("BeeSweeper")
+@Description("A game was saved to or loaded from a snapshot file")
+public final class SnapshotEvent extends Event {
+
+  /** Whether the game was loaded, otherwise it was saved. */
+  @Label("Load")
+  public boolean load;
+
+  /** Path of the snapshot file. */
+  @Label("File")
+  public String file;
+
+  /** Size of the snapshot. */
+  @Label("Size")
+  @DataAmount
+  public long bytes;
+
+  /** Number of rows of the game field. */
+  @Label("Rows")
+  public int rows;
+
+  /** Number of columns of the game field. */
+  @Label("Columns")
+  public int columns;
+
+  /** Creates an event, to be committed once the operation has finished. */
+  public SnapshotEvent() {}
+}
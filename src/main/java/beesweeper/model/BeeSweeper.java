@@ -1,16 +1,18 @@
 package beesweeper.model;
 
+import beesweeper.metrics.Metrics;
+import beesweeper.model.field.BoardProfile;
 import beesweeper.model.field.Cell;
 import beesweeper.model.field.Coordinate;
 import beesweeper.model.field.GameField;
 import beesweeper.model.field.GameFieldFactory;
-import beesweeper.model.shape.FieldShape;
-import beesweeper.model.shape.RandomCoordinateGenerator;
-import beesweeper.model.shape.RectangularShapeFactory;
+import beesweeper.model.field.GameFieldPool;
+import java.util.OptionalInt;
 
 /** BeeSweeper game. Same rules as Minesweeper, but different setting. */
 public class BeeSweeper {
   private final GameField playingField;
+  private final OptionalInt seed;
   private GameState gameState;
 
 
@@ -32,9 +34,13 @@ public class BeeSweeper {
    * int)} instead.
    */
   BeeSweeper(GameField playingField) {
+    this(playingField, OptionalInt.empty());
+  }
 
+  private BeeSweeper(GameField playingField, OptionalInt seed) {
     this.playingField = playingField;
-    this.gameState = getGameState().create(playingField);
+    this.seed = seed;
+    this.gameState = GameState.create(playingField);
   }
 
   /**
@@ -47,13 +53,32 @@ public class BeeSweeper {
    * @return a new BeeSweeper object representing the rectangular game
    */
   public static BeeSweeper newRectangularGame(int columns, int rows, int numBees) {
-    RectangularShapeFactory shape = new RectangularShapeFactory(columns, rows);
-    FieldShape a = shape.create();
-    RandomCoordinateGenerator zufall = new RandomCoordinateGenerator();
-    GameFieldFactory gameFieldFactory = new GameFieldFactory(shape, zufall);
-    GameField gameField = gameFieldFactory.create(numBees, numBees);
+    return new BeeSweeper(BoardProfile.rectangular(columns, rows, numBees).generate());
+  }
+
+  /**
+   * Creates a new game of BeeSweeper with a game field of the given profile, taken from the given
+   * pool of pre-generated game fields.
+   *
+   * @param pool pool to take the game field from
+   * @param profile shape, dimensions and number of bees of the game field
+   * @return a new BeeSweeper object representing the game
+   */
+  public static BeeSweeper newGame(GameFieldPool pool, BoardProfile profile) {
+    return new BeeSweeper(pool.take(profile));
+  }
 
-    return new BeeSweeper(gameField);
+  /**
+   * Creates a new game of BeeSweeper with a game field of the given profile, whose bees are placed
+   * by a random generator with the given seed. The same profile and seed always lead to the same
+   * game field.
+   *
+   * @param profile shape, dimensions and number of bees of the game field
+   * @param seed seed for placing the bees
+   * @return a new BeeSweeper object representing the game
+   */
+  public static BeeSweeper newGame(BoardProfile profile, int seed) {
+    return new BeeSweeper(profile.generate(seed), OptionalInt.of(seed));
   }
 
   /**
@@ -68,6 +93,21 @@ public class BeeSweeper {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Starts a new game on the game field of this game, with the same number of bees and flowers.
+   * The game field is re-seeded in place by the given factory (see {@link
+   * GameFieldFactory#reset(GameField, int, int)}), so apart from the returned game object nothing
+   * is allocated. This game must not be used anymore afterwards.
+   *
+   * @param fieldFactory factory for the shape of this game, which determines the new bee locations
+   * @return the new game, played on the re-seeded game field
+   */
+  public BeeSweeper restart(GameFieldFactory fieldFactory) {
+    int numBees = playingField.getNumberOfBees();
+    fieldFactory.reset(playingField, numBees, numBees);
+    return new BeeSweeper(playingField);
+  }
+
   /**
    * Reveals the cell at the given location.
    *
@@ -76,38 +116,49 @@ public class BeeSweeper {
    *     successful. Otherwise, a corresponding error status.
    */
   public OperationStatus reveal(Coordinate coordinate) {
+    long start = Metrics.start();
+    OperationStatus status = revealCell(coordinate);
+    Metrics.stop(Metrics.Operation.REVEAL, start);
+    return status;
+  }
+
+  private OperationStatus revealCell(Coordinate coordinate) {
     if (!playingField.contains(coordinate)) {
       return OperationStatus.INDEX_OOB;
 
     }
     Cell cell = playingField.get(coordinate);
 
-    if (cell.isBee()) {
-      cell.reveal();
-      gameState = gameState.with(GameState.GameStatus.LOSE);
-      return OperationStatus.SUCCESS;
-    } else if (cell.isRevealed()) {
-      System.out.println("Cell is already revealed");
+    if (cell.isRevealed()) {
       return OperationStatus.FAIL;
-    } else {
-      cell.reveal();
-
-      // Check if all non-bee cells are revealed
-      boolean allNonBeeCellsRevealed = true;
+    }
 
-      for (Coordinate coord : playingField.getAllCoordinates()) {
-        Cell currentCell = playingField.get(coord);
-        if (!currentCell.isBee() && !currentCell.isRevealed()) {
-          allNonBeeCellsRevealed = false;
-          break;
-        }
+    playingField.reveal(coordinate);
+    Metrics.countMove();
+    if (cell.isBee()) {
+      end(GameState.GameStatus.LOSE);
+    } else {
+      Metrics.countCellRevealed();
+      if (playingField.areAllSafeCellsRevealed()) {
+        end(GameState.GameStatus.WIN);
       }
+    }
+    return OperationStatus.SUCCESS;
+  }
 
-      if (allNonBeeCellsRevealed) {
-        gameState = gameState.with(GameState.GameStatus.WIN);
+  /**
+   * Sets the final status of the game. Moves are still accepted after the game is over, so a game
+   * is only counted as won or lost when it ends for the first time.
+   */
+  private void end(GameState.GameStatus finalStatus) {
+    boolean wasAlive = gameState.isGameAlive();
+    gameState = gameState.with(finalStatus);
+    if (wasAlive) {
+      if (finalStatus == GameState.GameStatus.WIN) {
+        Metrics.countGameWon();
+      } else {
+        Metrics.countGameLost();
       }
-
-      return OperationStatus.SUCCESS;
     }
   }
 
@@ -119,6 +170,13 @@ public class BeeSweeper {
    *     successful. Otherwise, a corresponding error status.
    */
   public OperationStatus mark(Coordinate coordinate) {
+    long start = Metrics.start();
+    OperationStatus status = markCell(coordinate);
+    Metrics.stop(Metrics.Operation.MARK, start);
+    return status;
+  }
+
+  private OperationStatus markCell(Coordinate coordinate) {
     if (!playingField.contains(coordinate)) {
       return OperationStatus.INDEX_OOB;
     }
@@ -131,26 +189,9 @@ public class BeeSweeper {
       return OperationStatus.FAIL;
     } else {
       playingField.mark(coordinate);
-
-      // Check if all marked cells are bees
-      boolean allMarkedCellsAreBees = true;
-      boolean allOtherCellsRevealed = true;
-      for (Coordinate beeCoordinate : playingField.getAllBeeCoordinates()) {
-        Cell beeCell = playingField.get(beeCoordinate);
-
-        if (!beeCell.isMarked() && !beeCell.isRevealed()) {
-          allOtherCellsRevealed = false;
-          break;
-        }
-
-        if (!beeCell.isMarked()) {
-          allMarkedCellsAreBees = false;
-          break;
-        }
-      }
-
-      if (allMarkedCellsAreBees && allOtherCellsRevealed) {
-        gameState = gameState.with(GameState.GameStatus.WIN);
+      Metrics.countMove();
+      if (playingField.areAllBeesMarked()) {
+        end(GameState.GameStatus.WIN);
       }
 
       return OperationStatus.SUCCESS;
@@ -165,6 +206,13 @@ public class BeeSweeper {
    *     successful. Otherwise, a corresponding error status.
    */
   public OperationStatus unmark(Coordinate coordinate) {
+    long start = Metrics.start();
+    OperationStatus status = unmarkCell(coordinate);
+    Metrics.stop(Metrics.Operation.UNMARK, start);
+    return status;
+  }
+
+  private OperationStatus unmarkCell(Coordinate coordinate) {
     if (!playingField.contains(coordinate)) {
       return OperationStatus.INDEX_OOB;
     }
@@ -174,10 +222,31 @@ public class BeeSweeper {
       return OperationStatus.FAIL;
     } else {
       playingField.unmark(coordinate);
+      Metrics.countMove();
       return OperationStatus.SUCCESS;
     }
   }
 
+  /**
+   * Returns the seed the bees of this game were placed with, if the game was created with {@link
+   * #newGame(BoardProfile, int)}.
+   *
+   * @return the seed of this game, or an empty optional if it is not known
+   */
+  public OptionalInt getSeed() {
+    return seed;
+  }
+
+  /** Restores a loaded game whose bees were placed with the given seed. */
+  static BeeSweeper restore(GameField playingField, int seed) {
+    return new BeeSweeper(playingField, OptionalInt.of(seed));
+  }
+
+  /** Restores the status of a loaded game. */
+  void restoreStatus(GameState.GameStatus status) {
+    gameState = gameState.with(status);
+  }
+
   /** Gets the current GameState.
    *
    *
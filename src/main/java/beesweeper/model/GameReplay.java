@@ -0,0 +1,352 @@
+package beesweeper.model;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compact archive of a {@link BeeSweeper} game: the profile of the game field, the seed its bees
+ * were placed with and the list of successful moves. Any state of the game can be reconstructed by
+ * generating the game field again from the seed and replaying the moves.
+ *
+ * <p>The encoded form starts with the magic number {@code BEER}, the format version and the shape
+ * type, followed by varints for the columns, rows, bees, seed and number of moves. Each move is a
+ * single varint holding the move type in its lowest two bits and the zigzag-encoded distance from
+ * the cell of the previous move above them, so nearby moves take one or two bytes.
+ */
+public final class GameReplay {
+
+  /** Magic number at the beginning of every replay, {@code BEER} in ASCII. */
+  static final int MAGIC = 0x42454552;
+
+  /** Current version of the replay format. */
+  static final byte VERSION = 1;
+
+  private static final int MOVE_BITS = 2;
+
+  private final BoardProfile profile;
+  private final int seed;
+  private final int numberOfMoves;
+  private final byte[] moves;
+
+  private GameReplay(BoardProfile profile, int seed, int numberOfMoves, byte[] moves) {
+    this.profile = profile;
+    this.seed = seed;
+    this.numberOfMoves = numberOfMoves;
+    this.moves = moves;
+  }
+
+  /**
+   * Starts a new game with the given profile and seed, whose moves are recorded.
+   *
+   * @param profile shape, dimensions and number of bees of the game field
+   * @param seed seed for placing the bees
+   * @return the recorder of the new game
+   */
+  public static Recorder record(BoardProfile profile, int seed) {
+    return new Recorder(profile, seed);
+  }
+
+  /**
+   * Returns the profile of the recorded game.
+   *
+   * @return the profile
+   */
+  public BoardProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * Returns the seed the bees of the recorded game were placed with.
+   *
+   * @return the seed
+   */
+  public int getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the number of recorded moves.
+   *
+   * @return the number of moves
+   */
+  public int getNumberOfMoves() {
+    return numberOfMoves;
+  }
+
+  /**
+   * Reconstructs the final state of the recorded game.
+   *
+   * @return the game after all recorded moves
+   */
+  public BeeSweeper replay() {
+    return replay(numberOfMoves);
+  }
+
+  /**
+   * Reconstructs the state of the recorded game after the given number of moves.
+   *
+   * @param moveCount number of moves to replay
+   * @return the game after the given number of moves
+   * @throws IllegalArgumentException if more moves are requested than recorded
+   */
+  public BeeSweeper replay(int moveCount) {
+    if (moveCount < 0 || moveCount > numberOfMoves) {
+      throw new IllegalArgumentException(
+          "Replay has " + numberOfMoves + " moves, requested " + moveCount);
+    }
+    BeeSweeper game = BeeSweeper.newGame(profile, seed);
+    MoveJournal.Move[] types = MoveJournal.Move.values();
+    int columns = profile.getColumns();
+    ByteBuffer buffer = ByteBuffer.wrap(moves);
+    int index = 0;
+    for (int i = 0; i < moveCount; i++) {
+      long value = readVarint(buffer);
+      index += (int) zigzagDecode(value >>> MOVE_BITS);
+      types[(int) (value & ((1 << MOVE_BITS) - 1))].apply(
+          game, Coordinate.of(index / columns, index % columns));
+    }
+    return game;
+  }
+
+  /**
+   * Encodes this replay.
+   *
+   * @return the encoded replay
+   */
+  public byte[] encode() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(32 + moves.length);
+    ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 2);
+    header.putInt(MAGIC).put(VERSION).put((byte) profile.getShapeType().ordinal());
+    out.write(header.array(), 0, header.position());
+    writeVarint(out, profile.getColumns());
+    writeVarint(out, profile.getRows());
+    writeVarint(out, profile.getNumBees());
+    writeVarint(out, zigzagEncode(seed));
+    writeVarint(out, numberOfMoves);
+    out.write(moves, 0, moves.length);
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes a replay.
+   *
+   * @param encoded a replay encoded by {@link #encode()}
+   * @return the decoded replay
+   * @throws IOException if the given bytes are not a valid replay
+   */
+  public static GameReplay decode(byte[] encoded) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(encoded);
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Not a BeeSweeper replay");
+      }
+      byte version = buffer.get();
+      if (version != VERSION) {
+        throw new IOException("Unsupported replay version " + version);
+      }
+      int shapeType = buffer.get();
+      int columns = readIntVarint(buffer);
+      int rows = readIntVarint(buffer);
+      int numBees = readIntVarint(buffer);
+      int seed = (int) zigzagDecode(readVarint(buffer));
+      int numberOfMoves = readIntVarint(buffer);
+      BoardProfile profile;
+      if (shapeType == BoardProfile.ShapeType.RECTANGULAR.ordinal()) {
+        profile = BoardProfile.rectangular(columns, rows, numBees);
+      } else if (shapeType == BoardProfile.ShapeType.HONEYCOMB.ordinal()) {
+        profile = BoardProfile.honeycomb(rows, numBees);
+      } else if (shapeType == BoardProfile.ShapeType.TOROIDAL.ordinal()) {
+        profile = BoardProfile.toroidal(columns, rows, numBees);
+      } else {
+        throw new IOException("Unknown shape type " + shapeType);
+      }
+      byte[] moves = Arrays.copyOfRange(encoded, buffer.position(), encoded.length);
+      checkMoves(ByteBuffer.wrap(moves), numberOfMoves, (long) columns * rows);
+      return new GameReplay(profile, seed, numberOfMoves, moves);
+    } catch (RuntimeException e) {
+      throw new IOException("Corrupt replay", e);
+    }
+  }
+
+  /**
+   * Writes this replay to the given file.
+   *
+   * @param file the file to write to
+   * @throws IOException if the file can not be written
+   */
+  public void write(Path file) throws IOException {
+    Files.write(file, encode());
+  }
+
+  /**
+   * Reads a replay from the given file.
+   *
+   * @param file the file to read from
+   * @return the replay
+   * @throws IOException if the file can not be read or is not a valid replay
+   */
+  public static GameReplay read(Path file) throws IOException {
+    return decode(Files.readAllBytes(file));
+  }
+
+  /**
+   * Reads and replays the given archived games in parallel.
+   *
+   * @param files the replay files
+   * @return the final states of the games, in the order of the files
+   * @throws UncheckedIOException if one of the files can not be read
+   */
+  public static List<BeeSweeper> replayAll(List<Path> files) {
+    return files.parallelStream()
+        .map(
+            file -> {
+              try {
+                return read(file).replay();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            })
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Checks that the moves consist of exactly the given number of varints, each with a known move
+   * type and on a cell of the game field, so that replaying them can not fail.
+   */
+  private static void checkMoves(ByteBuffer buffer, int numberOfMoves, long cells)
+      throws IOException {
+    int types = MoveJournal.Move.values().length;
+    long index = 0;
+    for (int i = 0; i < numberOfMoves; i++) {
+      long value = readVarint(buffer);
+      index += zigzagDecode(value >>> MOVE_BITS);
+      if ((value & ((1 << MOVE_BITS) - 1)) >= types || index < 0 || index >= cells) {
+        throw new IOException("Corrupt replay");
+      }
+    }
+    if (buffer.hasRemaining()) {
+      throw new IOException("Corrupt replay");
+    }
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarint(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Varint too long");
+  }
+
+  private static int readIntVarint(ByteBuffer buffer) {
+    return Math.toIntExact(readVarint(buffer));
+  }
+
+  private static long zigzagEncode(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long zigzagDecode(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * A running game whose successful moves are recorded. Moves must be made through this object,
+   * not the game itself.
+   */
+  public static final class Recorder {
+    private final BoardProfile profile;
+    private final int seed;
+    private final BeeSweeper game;
+    private final ByteArrayOutputStream moves = new ByteArrayOutputStream();
+    private int numberOfMoves;
+    private int lastIndex;
+
+    private Recorder(BoardProfile profile, int seed) {
+      this.profile = profile;
+      this.seed = seed;
+      this.game = BeeSweeper.newGame(profile, seed);
+    }
+
+    /**
+     * Returns the recorded game.
+     *
+     * @return the game
+     */
+    public BeeSweeper getGame() {
+      return game;
+    }
+
+    /**
+     * Reveals the cell at the given location and records the move.
+     *
+     * @param coordinate the coordinate of the cell to act on
+     * @return the operation status, see {@link BeeSweeper#reveal(Coordinate)}
+     */
+    public BeeSweeper.OperationStatus reveal(Coordinate coordinate) {
+      return recorded(MoveJournal.Move.REVEAL, coordinate);
+    }
+
+    /**
+     * Marks the cell at the given location and records the move.
+     *
+     * @param coordinate the coordinate of the cell to act on
+     * @return the operation status, see {@link BeeSweeper#mark(Coordinate)}
+     */
+    public BeeSweeper.OperationStatus mark(Coordinate coordinate) {
+      return recorded(MoveJournal.Move.MARK, coordinate);
+    }
+
+    /**
+     * Unmarks the cell at the given location and records the move.
+     *
+     * @param coordinate the coordinate of the cell to act on
+     * @return the operation status, see {@link BeeSweeper#unmark(Coordinate)}
+     */
+    public BeeSweeper.OperationStatus unmark(Coordinate coordinate) {
+      return recorded(MoveJournal.Move.UNMARK, coordinate);
+    }
+
+    /**
+     * Returns a replay of all moves recorded so far.
+     *
+     * @return the replay
+     */
+    public GameReplay toReplay() {
+      return new GameReplay(profile, seed, numberOfMoves, moves.toByteArray());
+    }
+
+    private BeeSweeper.OperationStatus recorded(MoveJournal.Move move, Coordinate coordinate) {
+      BeeSweeper.OperationStatus status = move.apply(game, coordinate);
+      // only successful moves change the game, everything else need not be replayed
+      if (status == BeeSweeper.OperationStatus.SUCCESS) {
+        int index = coordinate.getRow() * profile.getColumns() + coordinate.getColumn();
+        writeVarint(
+            moves, (zigzagEncode((long) index - lastIndex) << MOVE_BITS) | move.ordinal());
+        lastIndex = index;
+        numberOfMoves++;
+      }
+      return status;
+    }
+  }
+}
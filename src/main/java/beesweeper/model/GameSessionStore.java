@@ -0,0 +1,385 @@
+package beesweeper.model;
+
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Store for the {@link BeeSweeper} games of many sessions, which keeps only recently played games
+ * in memory. Games are evicted to a {@link GameSnapshot} file in the spill directory when the
+ * estimated memory of all resident games exceeds the memory budget (least recently used first), or
+ * when they have not been played for longer than the idle timeout. An evicted game is loaded again
+ * transparently the next time its session is acquired.
+ *
+ * <p>A session's game is checked out with {@link #acquire(long)} for the duration of a command and
+ * checked in with {@link #release(long, BeeSweeper)}, from the same thread. A checked out game is
+ * never evicted. Evictions run on every release; idle games are only evicted while no session
+ * plays if {@link #evict()} is also called periodically.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class GameSessionStore implements AutoCloseable {
+
+  /** Rough estimate of the heap used per cell of a game field: cell, coordinate, references. */
+  static final long BYTES_PER_CELL = 64;
+
+  private static final String SPILL_PREFIX = "session-";
+  private static final String SPILL_SUFFIX = ".bees";
+
+  private final Path spillDirectory;
+  private final long memoryBudget;
+  private final long idleTimeoutNanos;
+  private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong();
+
+  // resident sessions in access order, guarded by residentLock
+  private final ReentrantLock residentLock = new ReentrantLock();
+  private final LinkedHashMap<Long, Session> resident = new LinkedHashMap<>(16, 0.75f, true);
+  private long residentBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates an empty store.
+   *
+   * @param spillDirectory directory for the snapshots of evicted games, created if it does not
+   *     exist
+   * @param memoryBudget estimated bytes the resident games may take
+   * @param idleTimeout time after which a game that has not been played is evicted
+   * @throws IOException if the spill directory can not be created
+   * @throws IllegalArgumentException if the budget or the timeout is not positive
+   */
+  public GameSessionStore(Path spillDirectory, long memoryBudget, Duration idleTimeout)
+      throws IOException {
+    if (memoryBudget < 1) {
+      throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+    }
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("Idle timeout must be positive: " + idleTimeout);
+    }
+    this.spillDirectory = Files.createDirectories(spillDirectory);
+    this.memoryBudget = memoryBudget;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+  }
+
+  /**
+   * Opens a new session without a game.
+   *
+   * @return the id of the session
+   */
+  public long open() {
+    long id = nextId.incrementAndGet();
+    sessions.put(id, new Session(id));
+    return id;
+  }
+
+  /**
+   * Checks out the game of a session, loading it from its snapshot if it has been evicted. Must be
+   * followed by {@link #release(long, BeeSweeper)} on the same thread.
+   *
+   * @param id the id of the session
+   * @return the game of the session, or null if it has none
+   * @throws NoSuchElementException if the session does not exist
+   * @throws UncheckedIOException if the evicted game can not be loaded
+   */
+  public BeeSweeper acquire(long id) {
+    Session session = session(id);
+    session.lock.lock();
+    try {
+      if (session.spillFile != null) {
+        misses.increment();
+        session.game = GameSnapshot.load(session.spillFile);
+        Files.delete(session.spillFile);
+        session.spillFile = null;
+        addResident(session);
+      } else if (session.game != null) {
+        hits.increment();
+        touchResident(session);
+      }
+      return session.game;
+    } catch (IOException e) {
+      session.lock.unlock();
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      session.lock.unlock();
+      throw e;
+    }
+  }
+
+  /**
+   * Checks in the game of a session after a command, and evicts games if necessary.
+   *
+   * @param id the id of the session
+   * @param game the current game of the session, which may have been replaced by the command, or
+   *     null if the session has no game anymore
+   * @throws NoSuchElementException if the session does not exist
+   * @throws IllegalMonitorStateException if the session was not acquired by this thread
+   */
+  public void release(long id, BeeSweeper game) {
+    Session session = session(id);
+    try {
+      if (game != session.game) {
+        removeResident(session);
+        session.game = game;
+        if (game != null) {
+          addResident(session);
+        }
+      }
+      session.lastAccessNanos = System.nanoTime();
+    } finally {
+      session.lock.unlock();
+    }
+    evict();
+  }
+
+  /**
+   * Returns the game of a session if it is in memory, without checking it out.
+   *
+   * @param id the id of the session
+   * @return the resident game, or null if the session does not exist, has no game or its game is
+   *     evicted
+   */
+  public BeeSweeper peek(long id) {
+    Session session = sessions.get(id);
+    return session == null ? null : session.game;
+  }
+
+  /**
+   * Closes a session and deletes its evicted game, if any.
+   *
+   * @param id the id of the session
+   * @throws UncheckedIOException if the snapshot of an evicted game can not be deleted
+   */
+  public void close(long id) {
+    Session session = sessions.remove(id);
+    if (session == null) {
+      return;
+    }
+    session.lock.lock();
+    try {
+      removeResident(session);
+      session.game = null;
+      if (session.spillFile != null) {
+        Files.deleteIfExists(session.spillFile);
+        session.spillFile = null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      session.lock.unlock();
+    }
+  }
+
+  /**
+   * Evicts games until the resident games fit into the memory budget, and all games that have
+   * been idle for longer than the idle timeout. Games that are checked out are skipped.
+   *
+   * @throws UncheckedIOException if the snapshot of an evicted game can not be written
+   */
+  public void evict() {
+    long now = System.nanoTime();
+    List<Session> candidates = new ArrayList<>();
+    residentLock.lock();
+    try {
+      long remainingBytes = residentBytes;
+      Iterator<Session> iterator = resident.values().iterator();
+      // least recently used first, so the scan stops at the first game that may stay
+      while (iterator.hasNext()) {
+        Session session = iterator.next();
+        if (remainingBytes <= memoryBudget && now - session.lastAccessNanos <= idleTimeoutNanos) {
+          break;
+        }
+        candidates.add(session);
+        remainingBytes -= session.footprint;
+      }
+    } finally {
+      residentLock.unlock();
+    }
+    for (Session session : candidates) {
+      if (session.lock.tryLock()) {
+        try {
+          spill(session);
+        } finally {
+          session.lock.unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the directory the games are evicted to.
+   *
+   * @return the spill directory
+   */
+  public Path getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Returns the number of open sessions.
+   *
+   * @return the number of sessions
+   */
+  public int size() {
+    return sessions.size();
+  }
+
+  /**
+   * Returns the number of games in memory.
+   *
+   * @return the number of resident games
+   */
+  public int getResidentCount() {
+    residentLock.lock();
+    try {
+      return resident.size();
+    } finally {
+      residentLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the estimated memory of the games in memory.
+   *
+   * @return the estimated bytes of the resident games
+   */
+  public long getResidentBytes() {
+    residentLock.lock();
+    try {
+      return residentBytes;
+    } finally {
+      residentLock.unlock();
+    }
+  }
+
+  /**
+   * Returns how often an acquired game was in memory.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns how often an acquired game had to be loaded from its snapshot.
+   *
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns how often a game has been evicted to a snapshot.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Closes all sessions and deletes the snapshots of their evicted games.
+   *
+   * @throws UncheckedIOException if a snapshot can not be deleted
+   */
+  @Override
+  public void close() {
+    for (Long id : new ArrayList<>(sessions.keySet())) {
+      close(id);
+    }
+  }
+
+  /** Returns the estimated heap used by the given game. */
+  static long estimateFootprint(BeeSweeper game) {
+    GameField field = game.getGameState().getField();
+    return (long) field.getMaxRow() * field.getMaxColumn() * BYTES_PER_CELL;
+  }
+
+  /** Writes the game of a locked session to its snapshot and drops it from memory. */
+  private void spill(Session session) {
+    // a session closed since it was chosen for eviction must not leave a snapshot behind
+    if (session.game == null || sessions.get(session.id) != session) {
+      return;
+    }
+    Path file = spillDirectory.resolve(SPILL_PREFIX + session.id + SPILL_SUFFIX);
+    try {
+      GameSnapshot.save(session.game, file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    removeResident(session);
+    session.game = null;
+    session.spillFile = file;
+    evictions.increment();
+  }
+
+  private void addResident(Session session) {
+    session.footprint = estimateFootprint(session.game);
+    residentLock.lock();
+    try {
+      resident.put(session.id, session);
+      residentBytes += session.footprint;
+    } finally {
+      residentLock.unlock();
+    }
+  }
+
+  private void touchResident(Session session) {
+    residentLock.lock();
+    try {
+      resident.get(session.id);
+    } finally {
+      residentLock.unlock();
+    }
+  }
+
+  private void removeResident(Session session) {
+    residentLock.lock();
+    try {
+      if (resident.remove(session.id) != null) {
+        residentBytes -= session.footprint;
+      }
+    } finally {
+      residentLock.unlock();
+    }
+  }
+
+  private Session session(long id) {
+    Session session = sessions.get(id);
+    if (session == null) {
+      throw new NoSuchElementException("Unknown session " + id);
+    }
+    return session;
+  }
+
+  /** A session and its game, which is either resident or evicted to the spill file. */
+  private static final class Session {
+    private final long id;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile BeeSweeper game;
+    private Path spillFile;
+    private long footprint;
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    private Session(long id) {
+      this.id = id;
+    }
+  }
+}
@@ -0,0 +1,366 @@
+package beesweeper.model;
+
+import beesweeper.metrics.SnapshotEvent;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldFactory;
+import beesweeper.model.shape.CoordinateGenerator;
+import beesweeper.model.shape.Topology;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * Binary snapshot format for {@link BeeSweeper} games.
+ *
+ * <p>A snapshot consists of a fixed-size header, followed by three bit planes with one bit per
+ * cell of the bounding rectangle of the game field, in row-major order: bees, revealed cells and
+ * marked cells. The header contains
+ *
+ * <ol>
+ *   <li>the magic number {@code BEES} and the format version,
+ *   <li>the shape type and game status,
+ *   <li>the number of rows and columns,
+ *   <li>the number of bees and flowers available,
+ *   <li>the seed the bees were placed with, if known.
+ * </ol>
+ *
+ * <p>Snapshots are written and read with a single bulk operation on a {@link FileChannel}, without
+ * creating objects per cell for the I/O. Loading a snapshot still builds a complete game field on
+ * the heap; {@link MappedGame} plays a snapshot file without doing so.
+ */
+public final class GameSnapshot {
+
+  /** Magic number at the beginning of every snapshot, {@code BEES} in ASCII. */
+  static final int MAGIC = 0x42454553;
+
+  /** Current version of the snapshot format. */
+  static final short VERSION = 1;
+
+  /** Size of the header in bytes. */
+  static final int HEADER_SIZE = 4 + 2 + 1 + 1 + 4 + 4 + 4 + 4 + 1 + 4;
+
+  private static final int NUMBER_OF_PLANES = 3;
+
+  // Utility class with only static methods
+  private GameSnapshot() {}
+
+  /**
+   * Saves the given game to the given file. An existing file is overwritten.
+   *
+   * @param game the game to save
+   * @param file the file to write the snapshot to
+   * @throws IOException if the file can not be written
+   */
+  public static void save(BeeSweeper game, Path file) throws IOException {
+    SnapshotEvent event = new SnapshotEvent();
+    event.begin();
+    ByteBuffer buffer = encode(game);
+    long size = buffer.remaining();
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    commit(event, false, file, size, game);
+  }
+
+  /**
+   * Loads a game from the given file.
+   *
+   * @param file the file to read the snapshot from
+   * @return the loaded game
+   * @throws IOException if the file can not be read or is not a valid snapshot
+   */
+  public static BeeSweeper load(Path file) throws IOException {
+    SnapshotEvent event = new SnapshotEvent();
+    event.begin();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+        throw new IOException("Not a BeeSweeper snapshot: " + file);
+      }
+      ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          throw new IOException("Unexpected end of snapshot: " + file);
+        }
+      }
+      buffer.flip();
+      BeeSweeper game = decode(buffer);
+      commit(event, true, file, size, game);
+      return game;
+    }
+  }
+
+  private static void commit(
+      SnapshotEvent event, boolean load, Path file, long size, BeeSweeper game) {
+    if (event.shouldCommit()) {
+      GameField field = game.getGameState().getField();
+      event.load = load;
+      event.file = file.toString();
+      event.bytes = size;
+      event.rows = field.getMaxRow();
+      event.columns = field.getMaxColumn();
+      event.commit();
+    }
+  }
+
+  /**
+   * Encodes the given game into a new direct buffer, ready to be written.
+   *
+   * @param game the game to encode
+   * @return the encoded snapshot, positioned at its beginning
+   */
+  static ByteBuffer encode(BeeSweeper game) {
+    GameField field = game.getGameState().getField();
+    int rows = field.getMaxRow();
+    int columns = field.getMaxColumn();
+    int planeSize = planeSize(rows, columns);
+    OptionalInt seed = game.getSeed();
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + NUMBER_OF_PLANES * planeSize);
+    buffer
+        .putInt(MAGIC)
+        .putShort(VERSION)
+        .put((byte) shapeTypeOf(field).ordinal())
+        .put((byte) game.getGameState().getStatus().ordinal())
+        .putInt(rows)
+        .putInt(columns)
+        .putInt(countBees(field))
+        .putInt(field.getFlowersAvailable())
+        .put((byte) (seed.isPresent() ? 1 : 0))
+        .putInt(seed.orElse(0));
+
+    int beePlane = HEADER_SIZE;
+    int revealedPlane = beePlane + planeSize;
+    int markedPlane = revealedPlane + planeSize;
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        if (!field.contains(row, column)) {
+          continue;
+        }
+        Cell cell = field.get(row, column);
+        int index = row * columns + column;
+        if (cell.isBee()) {
+          setBit(buffer, beePlane, index);
+        }
+        if (cell.isRevealed()) {
+          setBit(buffer, revealedPlane, index);
+        }
+        if (cell.isMarked()) {
+          setBit(buffer, markedPlane, index);
+        }
+      }
+    }
+    buffer.position(0);
+    return buffer;
+  }
+
+  /**
+   * Decodes a game from the given buffer.
+   *
+   * @param buffer buffer positioned at the beginning of a snapshot
+   * @return the decoded game
+   * @throws IOException if the buffer does not contain a valid snapshot
+   */
+  static BeeSweeper decode(ByteBuffer buffer) throws IOException {
+    final Header header = Header.read(buffer);
+    final int rows = header.rows;
+    final int columns = header.columns;
+    final int numBees = header.numBees;
+    final int beePlane = header.beePlane();
+    final int revealedPlane = header.revealedPlane();
+    final int markedPlane = header.markedPlane();
+
+    List<Coordinate> bees = new ArrayList<>(numBees);
+    int numMarked = 0;
+    for (int index = 0; index < rows * columns; index++) {
+      if (getBit(buffer, beePlane, index)) {
+        bees.add(Coordinate.of(index / columns, index % columns));
+      }
+      if (getBit(buffer, markedPlane, index)) {
+        numMarked++;
+      }
+    }
+    if (bees.size() != numBees) {
+      throw new IOException("Corrupt snapshot: expected " + numBees + " bees");
+    }
+
+    BoardProfile profile;
+    if (header.shapeType == BoardProfile.ShapeType.TOROIDAL) {
+      profile = BoardProfile.toroidal(columns, rows, numBees);
+    } else {
+      profile = BoardProfile.rectangular(columns, rows, numBees);
+    }
+    CoordinateGenerator savedBees = (n, shape) -> bees;
+    GameField field;
+    try {
+      // marking the saved cells below uses up the additional flowers again
+      field =
+          new GameFieldFactory(profile.createShapeFactory(), savedBees)
+              .restore(numBees, header.flowers + numMarked);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt snapshot: " + e.getMessage(), e);
+    }
+
+    for (int index = 0; index < rows * columns; index++) {
+      boolean revealed = getBit(buffer, revealedPlane, index);
+      boolean marked = getBit(buffer, markedPlane, index);
+      if (revealed || marked) {
+        Coordinate coordinate = Coordinate.of(index / columns, index % columns);
+        if (!field.contains(coordinate)) {
+          throw new IOException("Corrupt snapshot: cell outside of shape " + coordinate);
+        }
+        if (revealed) {
+          field.reveal(coordinate);
+        }
+        if (marked) {
+          field.mark(coordinate);
+        }
+      }
+    }
+
+    return header.restore(field);
+  }
+
+  /** Header of a snapshot. */
+  static final class Header {
+
+    /** Offset of the game status in a snapshot. */
+    static final int STATUS_OFFSET = 7;
+
+    /** Offset of the number of available flowers in a snapshot. */
+    static final int FLOWERS_OFFSET = 20;
+
+    final int start;
+    final BoardProfile.ShapeType shapeType;
+    final GameState.GameStatus status;
+    final int rows;
+    final int columns;
+    final int numBees;
+    final int flowers;
+    final boolean hasSeed;
+    final int seed;
+
+    private Header(ByteBuffer buffer) throws IOException {
+      start = buffer.position();
+      if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+        throw new IOException("Not a BeeSweeper snapshot");
+      }
+      short version = buffer.getShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version);
+      }
+      shapeType = valueOf(BoardProfile.ShapeType.values(), buffer.get());
+      if (shapeType == BoardProfile.ShapeType.HONEYCOMB) {
+        // honeycomb game fields can not be created, so they can not be restored either
+        throw new IOException("Unsupported shape type in snapshot: " + shapeType);
+      }
+      status = valueOf(GameState.GameStatus.values(), buffer.get());
+      rows = buffer.getInt();
+      columns = buffer.getInt();
+      numBees = buffer.getInt();
+      flowers = buffer.getInt();
+      hasSeed = buffer.get() != 0;
+      seed = buffer.getInt();
+      if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+        throw new IOException("Invalid snapshot dimensions: " + columns + "x" + rows);
+      }
+      // bounds for everything that is allocated or counted from the header
+      if (numBees <= 0 || numBees >= rows * columns) {
+        throw new IOException("Invalid number of bees in snapshot: " + numBees);
+      }
+      if (flowers < 0) {
+        throw new IOException("Invalid number of flowers in snapshot: " + flowers);
+      }
+      if (buffer.limit() - start < HEADER_SIZE + (long) NUMBER_OF_PLANES * planeSize()) {
+        throw new IOException("Truncated snapshot");
+      }
+    }
+
+    /**
+     * Reads and validates the header of the snapshot at the position of the given buffer.
+     *
+     * @throws IOException if the buffer does not contain a complete snapshot
+     */
+    static Header read(ByteBuffer buffer) throws IOException {
+      return new Header(buffer);
+    }
+
+    int planeSize() {
+      return GameSnapshot.planeSize(rows, columns);
+    }
+
+    int beePlane() {
+      return start + HEADER_SIZE;
+    }
+
+    int revealedPlane() {
+      return beePlane() + planeSize();
+    }
+
+    int markedPlane() {
+      return revealedPlane() + planeSize();
+    }
+
+    /** Creates the game of this snapshot on the given game field. */
+    BeeSweeper restore(GameField field) {
+      BeeSweeper game = hasSeed ? BeeSweeper.restore(field, seed) : new BeeSweeper(field);
+      game.restoreStatus(status);
+      return game;
+    }
+  }
+
+  private static int planeSize(int rows, int columns) {
+    return (int) (((long) rows * columns + Byte.SIZE - 1) / Byte.SIZE);
+  }
+
+  private static BoardProfile.ShapeType shapeTypeOf(GameField field) {
+    if (field.getTopology() == Topology.TOROIDAL) {
+      return BoardProfile.ShapeType.TOROIDAL;
+    }
+    long boundingCells = (long) field.getMaxRow() * field.getMaxColumn();
+    return field.getAllCoordinates().size() == boundingCells
+        ? BoardProfile.ShapeType.RECTANGULAR
+        : BoardProfile.ShapeType.HONEYCOMB;
+  }
+
+  private static int countBees(GameField field) {
+    int numBees = 0;
+    for (Coordinate coordinate : field.getAllCoordinates()) {
+      if (field.get(coordinate).isBee()) {
+        numBees++;
+      }
+    }
+    return numBees;
+  }
+
+  private static <T> T valueOf(T[] values, byte ordinal) throws IOException {
+    if (ordinal < 0 || ordinal >= values.length) {
+      throw new IOException("Corrupt snapshot: unknown constant " + ordinal);
+    }
+    return values[ordinal];
+  }
+
+  private static void setBit(ByteBuffer buffer, int plane, int index) {
+    int position = plane + (index >>> 3);
+    buffer.put(position, (byte) (buffer.get(position) | (1 << (index & 7))));
+  }
+
+  private static boolean getBit(ByteBuffer buffer, int plane, int index) {
+    return (buffer.get(plane + (index >>> 3)) & (1 << (index & 7))) != 0;
+  }
+}
@@ -39,6 +39,11 @@ public final class GameState {
     return new GameState(gameField, status);
   }
 
+  /** Return the status of the game. */
+  GameStatus getStatus() {
+    return gameStatus;
+  }
+
   /** Return the game field.
    *
    * @return the game field
@@ -0,0 +1,259 @@
+package beesweeper.model;
+
+import beesweeper.model.field.Coordinate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link BeeSweeper} game that survives crashes. Every successful move is appended to a {@link
+ * MoveJournal} before it is acknowledged, and the game can be recovered from its directory as the
+ * latest snapshot plus a replay of the journaled moves. Once the journal grows beyond a threshold,
+ * it is compacted into a new snapshot.
+ *
+ * <p>A game directory contains the journal file {@value #JOURNAL_FILE} and snapshots named {@code
+ * snapshot-<sequence>.bees}, where the sequence is the one of the last move included in the
+ * snapshot. Only the latest snapshot is kept.
+ */
+public final class JournaledGame implements AutoCloseable {
+
+  /** Name of the journal file in a game directory. */
+  public static final String JOURNAL_FILE = "moves.journal";
+
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".bees";
+
+  private final Path directory;
+  private final MoveJournal journal;
+  private final long compactionThreshold;
+  private final BeeSweeper game;
+
+  private JournaledGame(
+      Path directory, MoveJournal journal, long compactionThreshold, BeeSweeper game) {
+    this.directory = directory;
+    this.journal = journal;
+    this.compactionThreshold = compactionThreshold;
+    this.game = game;
+  }
+
+  /**
+   * Starts journaling the given game in the given directory, which must not contain a journaled
+   * game yet. An initial snapshot of the game is written.
+   *
+   * @param directory directory for the journal and snapshots, created if it does not exist
+   * @param game the game to journal
+   * @param syncPolicy when journaled moves are forced to the storage device
+   * @param groupSize number of moves that are written to the journal together
+   * @param compactionThreshold journal size in bytes after which it is compacted into a snapshot
+   * @return the journaled game
+   * @throws IOException if the directory already contains a game or can not be written
+   */
+  public static JournaledGame create(
+      Path directory,
+      BeeSweeper game,
+      MoveJournal.SyncPolicy syncPolicy,
+      int groupSize,
+      long compactionThreshold)
+      throws IOException {
+    Files.createDirectories(directory);
+    if (Files.exists(directory.resolve(JOURNAL_FILE)) || latestSnapshotSequence(directory) >= -1) {
+      throw new IOException("Directory already contains a game: " + directory);
+    }
+    writeSnapshot(directory, game, -1);
+    MoveJournal journal =
+        MoveJournal.open(directory.resolve(JOURNAL_FILE), syncPolicy, groupSize, 0);
+    return new JournaledGame(directory, journal, compactionThreshold, game);
+  }
+
+  /**
+   * Recovers the game in the given directory from its latest snapshot and journal.
+   *
+   * @param directory directory of the game
+   * @param syncPolicy when journaled moves are forced to the storage device
+   * @param groupSize number of moves that are written to the journal together
+   * @param compactionThreshold journal size in bytes after which it is compacted into a snapshot
+   * @return the recovered game
+   * @throws IOException if the directory does not contain a game or can not be read
+   */
+  public static JournaledGame recover(
+      Path directory, MoveJournal.SyncPolicy syncPolicy, int groupSize, long compactionThreshold)
+      throws IOException {
+    long snapshotSequence = latestSnapshotSequence(directory);
+    if (snapshotSequence < -1) {
+      throw new IOException("No snapshot in " + directory);
+    }
+    BeeSweeper game = GameSnapshot.load(snapshotFile(directory, snapshotSequence));
+    MoveJournal journal =
+        MoveJournal.open(
+            directory.resolve(JOURNAL_FILE), syncPolicy, groupSize, snapshotSequence + 1);
+    try {
+      journal.replay(
+          snapshotSequence, (move, row, column) -> move.apply(game, Coordinate.of(row, column)));
+    } catch (IOException | RuntimeException e) {
+      journal.close();
+      throw e;
+    }
+    return new JournaledGame(directory, journal, compactionThreshold, game);
+  }
+
+  /**
+   * Returns the journaled game. Moves must be made through this object, not the game itself.
+   *
+   * @return the game
+   */
+  public BeeSweeper getGame() {
+    return game;
+  }
+
+  /**
+   * Reveals the cell at the given location and journals the move.
+   *
+   * @param coordinate the coordinate of the cell to act on
+   * @return the operation status, see {@link BeeSweeper#reveal(Coordinate)}
+   * @throws UncheckedIOException if the move can not be journaled
+   */
+  public BeeSweeper.OperationStatus reveal(Coordinate coordinate) {
+    return journaled(MoveJournal.Move.REVEAL, coordinate, game.reveal(coordinate));
+  }
+
+  /**
+   * Marks the cell at the given location and journals the move.
+   *
+   * @param coordinate the coordinate of the cell to act on
+   * @return the operation status, see {@link BeeSweeper#mark(Coordinate)}
+   * @throws UncheckedIOException if the move can not be journaled
+   */
+  public BeeSweeper.OperationStatus mark(Coordinate coordinate) {
+    return journaled(MoveJournal.Move.MARK, coordinate, game.mark(coordinate));
+  }
+
+  /**
+   * Unmarks the cell at the given location and journals the move.
+   *
+   * @param coordinate the coordinate of the cell to act on
+   * @return the operation status, see {@link BeeSweeper#unmark(Coordinate)}
+   * @throws UncheckedIOException if the move can not be journaled
+   */
+  public BeeSweeper.OperationStatus unmark(Coordinate coordinate) {
+    return journaled(MoveJournal.Move.UNMARK, coordinate, game.unmark(coordinate));
+  }
+
+  /**
+   * Writes a snapshot of the current game and clears the journal. The journal is only cleared once
+   * the snapshot is durable, so no committed move is lost if the system crashes meanwhile.
+   *
+   * @throws IOException if the snapshot can not be written
+   */
+  public void compact() throws IOException {
+    journal.commit();
+    long sequence = journal.getLastSequence();
+    writeSnapshot(directory, game, sequence);
+    journal.clear();
+    deleteSnapshotsBefore(directory, sequence);
+  }
+
+  /**
+   * Commits all journaled moves and closes the journal.
+   *
+   * @throws IOException if the moves can not be written
+   */
+  @Override
+  public void close() throws IOException {
+    journal.close();
+  }
+
+  private BeeSweeper.OperationStatus journaled(
+      MoveJournal.Move move, Coordinate coordinate, BeeSweeper.OperationStatus status) {
+    // only successful moves change the game, everything else need not be replayed
+    if (status != BeeSweeper.OperationStatus.SUCCESS) {
+      return status;
+    }
+    try {
+      journal.append(move, coordinate.getRow(), coordinate.getColumn());
+      if (journal.size() >= compactionThreshold) {
+        compact();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return status;
+  }
+
+  /**
+   * Atomically and durably writes a snapshot including all moves up to the given sequence number:
+   * the contents are forced to the storage device before the snapshot is renamed into place, and
+   * the rename is forced afterwards.
+   */
+  private static void writeSnapshot(Path directory, BeeSweeper game, long sequence)
+      throws IOException {
+    Path temporary = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+    GameSnapshot.save(game, temporary);
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(
+        temporary,
+        snapshotFile(directory, sequence),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    syncDirectory(directory);
+  }
+
+  /** Forces the entries of a directory, e.g. a rename, to the storage device. */
+  private static void syncDirectory(Path directory) throws IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(directory, StandardOpenOption.READ);
+    } catch (AccessDeniedException e) {
+      // some platforms, e.g. Windows, can not open directories, and make renames durable anyway
+      return;
+    }
+    try (channel) {
+      channel.force(true);
+    }
+  }
+
+  private static Path snapshotFile(Path directory, long sequence) {
+    return directory.resolve(SNAPSHOT_PREFIX + sequence + SNAPSHOT_SUFFIX);
+  }
+
+  /** Returns the sequence of the latest snapshot, or {@link Long#MIN_VALUE} if there is none. */
+  private static long latestSnapshotSequence(Path directory) throws IOException {
+    long latest = Long.MIN_VALUE;
+    try (DirectoryStream<Path> snapshots =
+        Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+      for (Path snapshot : snapshots) {
+        latest = Math.max(latest, sequenceOf(snapshot));
+      }
+    }
+    return latest;
+  }
+
+  private static void deleteSnapshotsBefore(Path directory, long sequence) throws IOException {
+    try (DirectoryStream<Path> snapshots =
+        Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+      for (Path snapshot : snapshots) {
+        if (sequenceOf(snapshot) < sequence) {
+          Files.delete(snapshot);
+        }
+      }
+    }
+  }
+
+  private static long sequenceOf(Path snapshot) {
+    String name = snapshot.getFileName().toString();
+    String sequence =
+        name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length());
+    try {
+      return Long.parseLong(sequence);
+    } catch (NumberFormatException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package beesweeper.model;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldFactory;
+import beesweeper.model.shape.MappedFieldShape;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link BeeSweeper} game played directly on a memory-mapped {@link GameSnapshot} file.
+ *
+ * <p>Opening a game maps the file and reads its header, but no cells: the game field is a {@link
+ * MappedFieldShape}, which loads cells when they are first accessed. Resuming a huge game therefore
+ * takes constant time, and the operating system pages the board in and out as needed, even if it is
+ * larger than the heap. {@link #sync()} writes the changes back, so that the file is a valid
+ * snapshot again.
+ */
+public final class MappedGame implements AutoCloseable {
+
+  private final MappedByteBuffer buffer;
+  private final MappedFieldShape shape;
+  private final BeeSweeper game;
+
+  private MappedGame(MappedByteBuffer buffer, MappedFieldShape shape, BeeSweeper game) {
+    this.buffer = buffer;
+    this.shape = shape;
+    this.game = game;
+  }
+
+  /**
+   * Opens the rectangular game in the given snapshot file for playing.
+   *
+   * @param file a snapshot written by {@link GameSnapshot#save}
+   * @return the opened game
+   * @throws IOException if the file can not be mapped or is not a rectangular snapshot
+   */
+  public static MappedGame open(Path file) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    GameSnapshot.Header header = GameSnapshot.Header.read(buffer);
+    if (header.shapeType != BoardProfile.ShapeType.RECTANGULAR) {
+      throw new IOException("Only rectangular games can be mapped: " + file);
+    }
+    MappedFieldShape shape =
+        new MappedFieldShape(
+            buffer,
+            header.rows,
+            header.columns,
+            header.beePlane(),
+            header.revealedPlane(),
+            header.markedPlane());
+    GameField field = GameFieldFactory.fromShape(shape, header.flowers);
+    return new MappedGame(buffer, shape, header.restore(field));
+  }
+
+  /**
+   * Returns the mapped game.
+   *
+   * @return the game
+   */
+  public BeeSweeper getGame() {
+    return game;
+  }
+
+  /** Writes all changes of the game to the file. */
+  public void sync() {
+    GameState state = game.getGameState();
+    shape.flush();
+    buffer.put(GameSnapshot.Header.STATUS_OFFSET, (byte) state.getStatus().ordinal());
+    buffer.putInt(GameSnapshot.Header.FLOWERS_OFFSET, state.getField().getFlowersAvailable());
+    buffer.force();
+  }
+
+  /** Writes all changes of the game to the file. */
+  @Override
+  public void close() {
+    sync();
+  }
+}
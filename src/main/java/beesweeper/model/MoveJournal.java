@@ -0,0 +1,279 @@
+package beesweeper.model;
+
+import beesweeper.model.field.Coordinate;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of the moves of a {@link BeeSweeper} game.
+ *
+ * <p>Each move is stored as a fixed-size record of {@value #RECORD_SIZE} bytes: sequence number,
+ * move type, row, column and a CRC32 checksum of the preceding fields. Records are collected in a
+ * buffer and written as a group, either when the group is full or on {@link #commit()}. Whether a
+ * write is also forced to the storage device is determined by the {@link SyncPolicy}.
+ *
+ * <p>On opening, the journal is scanned and cut off at the first incomplete or corrupt record,
+ * which is what a crash in the middle of a write leaves behind.
+ */
+public final class MoveJournal implements AutoCloseable {
+
+  /** Size of a single record in bytes. */
+  public static final int RECORD_SIZE = 24;
+
+  /** Moves that can be journaled. */
+  public enum Move {
+    /** {@link BeeSweeper#reveal}. */
+    REVEAL,
+    /** {@link BeeSweeper#mark}. */
+    MARK,
+    /** {@link BeeSweeper#unmark}. */
+    UNMARK;
+
+    /**
+     * Makes this move in the given game.
+     *
+     * @param game the game to make the move in
+     * @param coordinate the coordinate of the cell to act on
+     * @return the operation status of the move
+     */
+    public BeeSweeper.OperationStatus apply(BeeSweeper game, Coordinate coordinate) {
+      switch (this) {
+        case REVEAL:
+          return game.reveal(coordinate);
+        case MARK:
+          return game.mark(coordinate);
+        case UNMARK:
+          return game.unmark(coordinate);
+        default:
+          throw new AssertionError(this);
+      }
+    }
+  }
+
+  /** When written records are forced to the storage device. */
+  public enum SyncPolicy {
+    /** Every record is written and forced immediately, no record is lost on a crash. */
+    EVERY_MOVE,
+    /** Records are written and forced once per group, at most one group is lost on a crash. */
+    EVERY_GROUP,
+    /** Records are written once per group, forcing is left to the operating system. */
+    NEVER
+  }
+
+  /** Receives the moves of a journal during {@link #replay}. */
+  @FunctionalInterface
+  public interface MoveHandler {
+
+    /**
+     * Handles a single journaled move.
+     *
+     * @param move the type of the move
+     * @param row the row of the cell
+     * @param column the column of the cell
+     */
+    void handle(Move move, int row, int column);
+  }
+
+  private final FileChannel channel;
+  private final SyncPolicy syncPolicy;
+  private final ByteBuffer group;
+  private final CRC32 crc = new CRC32();
+  private long nextSequence;
+
+  private MoveJournal(FileChannel channel, SyncPolicy syncPolicy, int groupSize, long next) {
+    this.channel = channel;
+    this.syncPolicy = syncPolicy;
+    this.group = ByteBuffer.allocateDirect(groupSize * RECORD_SIZE);
+    this.nextSequence = next;
+  }
+
+  /**
+   * Opens the journal in the given file, creating it if it does not exist yet. A corrupt tail is
+   * truncated.
+   *
+   * @param file the journal file
+   * @param syncPolicy when written records are forced to the storage device
+   * @param groupSize number of records that are written together
+   * @param firstSequence lowest sequence number for appended moves. Sequence numbers always
+   *     continue after the last move in the file.
+   * @return the opened journal
+   * @throws IOException if the file can not be opened
+   */
+  public static MoveJournal open(
+      Path file, SyncPolicy syncPolicy, int groupSize, long firstSequence) throws IOException {
+    if (groupSize < 1) {
+      throw new IllegalArgumentException("Group size must be positive: " + groupSize);
+    }
+    FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      MoveJournal journal = new MoveJournal(channel, syncPolicy, groupSize, firstSequence);
+      long validEnd = journal.scan(Long.MIN_VALUE, null);
+      channel.truncate(validEnd);
+      channel.position(validEnd);
+      return journal;
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Appends a move to this journal. Depending on the group size and {@link SyncPolicy}, the move is
+   * only durable after the next {@link #commit()}.
+   *
+   * @param move the type of the move
+   * @param row the row of the cell
+   * @param column the column of the cell
+   * @return the sequence number of the move
+   * @throws IOException if the group can not be written
+   */
+  public synchronized long append(Move move, int row, int column) throws IOException {
+    long sequence = nextSequence++;
+    int start = group.position();
+    group.putLong(sequence).put((byte) move.ordinal()).put((byte) 0).putShort((short) 0);
+    group.putInt(row).putInt(column);
+    group.putInt(checksum(group, start));
+
+    if (syncPolicy == SyncPolicy.EVERY_MOVE || !group.hasRemaining()) {
+      commit();
+    }
+    return sequence;
+  }
+
+  /**
+   * Writes all appended moves, and forces them to the storage device unless the policy is {@link
+   * SyncPolicy#NEVER}.
+   *
+   * @throws IOException if the moves can not be written
+   */
+  public synchronized void commit() throws IOException {
+    if (group.position() == 0) {
+      return;
+    }
+    group.flip();
+    while (group.hasRemaining()) {
+      channel.write(group);
+    }
+    group.clear();
+    if (syncPolicy != SyncPolicy.NEVER) {
+      channel.force(false);
+    }
+  }
+
+  /**
+   * Passes all committed moves with a sequence number greater than the given one to the handler,
+   * in order.
+   *
+   * @param afterSequence sequence number of the last move that should be skipped
+   * @param handler receives the moves
+   * @throws IOException if the journal can not be read
+   */
+  public synchronized void replay(long afterSequence, MoveHandler handler) throws IOException {
+    scan(afterSequence, handler);
+  }
+
+  /**
+   * Discards all moves of this journal, e.g. after they have been compacted into a snapshot.
+   * Sequence numbers continue where they were.
+   *
+   * @throws IOException if the journal can not be truncated
+   */
+  public synchronized void clear() throws IOException {
+    group.clear();
+    channel.truncate(0);
+    channel.position(0);
+    if (syncPolicy != SyncPolicy.NEVER) {
+      channel.force(false);
+    }
+  }
+
+  /**
+   * Returns the sequence number of the last appended move.
+   *
+   * @return the last sequence number, or -1 if no move has ever been appended
+   */
+  public synchronized long getLastSequence() {
+    return nextSequence - 1;
+  }
+
+  /**
+   * Returns the size of this journal in bytes, including moves that are not committed yet.
+   *
+   * @return the size in bytes
+   * @throws IOException if the size can not be determined
+   */
+  public synchronized long size() throws IOException {
+    return channel.position() + group.position();
+  }
+
+  /**
+   * Commits all appended moves and closes this journal.
+   *
+   * @throws IOException if the moves can not be written
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      commit();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Reads all valid records from the beginning, passing the ones after the given sequence number to
+   * the handler, and updates the next sequence number.
+   *
+   * @return the end of the last valid record
+   */
+  private long scan(long afterSequence, MoveHandler handler) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+    long position = 0;
+    long expectedSequence = -1;
+    while (true) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read < RECORD_SIZE) {
+        return position;
+      }
+      buffer.flip();
+      while (buffer.remaining() >= RECORD_SIZE) {
+        int start = buffer.position();
+        long sequence = buffer.getLong(start);
+        int ordinal = buffer.get(start + 8);
+        int row = buffer.getInt(start + 12);
+        int column = buffer.getInt(start + 16);
+        boolean valid =
+            buffer.getInt(start + 20) == checksum(buffer, start)
+                && ordinal >= 0
+                && ordinal < Move.values().length
+                && (expectedSequence < 0 || sequence == expectedSequence);
+        if (!valid) {
+          return position;
+        }
+        if (handler != null && sequence > afterSequence) {
+          handler.handle(Move.values()[ordinal], row, column);
+        }
+        expectedSequence = sequence + 1;
+        nextSequence = Math.max(nextSequence, expectedSequence);
+        buffer.position(start + RECORD_SIZE);
+        position += RECORD_SIZE;
+      }
+    }
+  }
+
+  /** CRC32 of the record fields preceding the checksum. */
+  private int checksum(ByteBuffer buffer, int start) {
+    crc.reset();
+    ByteBuffer fields = buffer.duplicate();
+    fields.limit(start + RECORD_SIZE - Integer.BYTES).position(start);
+    crc.update(fields);
+    return (int) crc.getValue();
+  }
+}
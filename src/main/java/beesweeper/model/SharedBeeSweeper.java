@@ -0,0 +1,505 @@
+package beesweeper.model;
+
+import beesweeper.metrics.CascadeEvent;
+import beesweeper.metrics.Metrics;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import beesweeper.model.shape.FieldShape;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.jfr.EventType;
+
+/**
+ * BeeSweeper game on one shared game field, played by many players at the same time.
+ *
+ * <p>The state of every cell is packed into one byte, and moves on a single cell are lock-free
+ * compare-and-set transitions of that byte. When players race on the same cell, exactly one of them
+ * succeeds and the others see the result of that move. {@link #revealNeighbours(Coordinate)} is
+ * made of single-cell transitions, too, but chords are serialized with each other by locks on the
+ * square tiles the game field is partitioned into. A chord spans up to four tiles and locks them
+ * in ascending row-major order, so concurrent chords can not deadlock. The game status, the
+ * available flowers and the counters for detecting a win are atomics.
+ *
+ * <p>Unlike {@link BeeSweeper}, moves are rejected with {@link BeeSweeper.OperationStatus#FAIL}
+ * once the game is over, and marking fails if no flowers are left.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class SharedBeeSweeper {
+
+  /** Default edge length of the tiles the game field is partitioned into. */
+  public static final int DEFAULT_TILE_SIZE = 64;
+
+  // bits of the packed cell states
+  private static final byte REVEALED = 1;
+  private static final byte MARKED = 2;
+  private static final byte BEE = 4;
+
+  private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(byte[].class);
+  private static final VarHandle DIRTY_TILES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+  private static final EventType CASCADE_EVENT_TYPE = EventType.getEventType(CascadeEvent.class);
+
+  private final GameField playingField;
+  private final int columns;
+  private final byte[] states;
+  private final int numBees;
+  private final int tileSize;
+  private final int tileColumns;
+  private final ReentrantLock[] tileLocks;
+  // tiles with cells changed since they were last copied into the game field, and their indices
+  // claimed by the current copy, guarded by fieldLock
+  private final byte[] dirtyTiles;
+  private final int[] claimedTiles;
+  private final ReentrantLock fieldLock = new ReentrantLock();
+
+  private final AtomicReference<GameState.GameStatus> status =
+      new AtomicReference<>(GameState.GameStatus.ALIVE);
+  private final AtomicInteger flowersAvailable;
+  private final AtomicInteger cloakedSafeCells;
+  private final AtomicInteger markedBees = new AtomicInteger();
+
+  private SharedBeeSweeper(GameField playingField, int numBees, int tileSize) {
+    if (tileSize < 1) {
+      throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+    }
+    this.playingField = playingField;
+    this.columns = playingField.getMaxColumn();
+    this.states = new byte[playingField.getMaxRow() * columns];
+    for (Coordinate c : playingField.getAllCoordinates()) {
+      if (playingField.get(c).isBee()) {
+        states[c.getRow() * columns + c.getColumn()] = BEE;
+      }
+    }
+    this.numBees = numBees;
+    this.tileSize = tileSize;
+    this.tileColumns = ceilDiv(playingField.getMaxColumn(), tileSize);
+    this.tileLocks = new ReentrantLock[ceilDiv(playingField.getMaxRow(), tileSize) * tileColumns];
+    for (int i = 0; i < tileLocks.length; i++) {
+      tileLocks[i] = new ReentrantLock();
+    }
+    this.dirtyTiles = new byte[tileLocks.length];
+    this.claimedTiles = new int[tileLocks.length];
+    this.flowersAvailable = new AtomicInteger(playingField.getFlowersAvailable());
+    this.cloakedSafeCells = new AtomicInteger(playingField.getAllCoordinates().size() - numBees);
+  }
+
+  /**
+   * Creates a new shared game with a game field of the given profile, whose bees are placed by a
+   * random generator with the given seed. Uses tiles of {@link #DEFAULT_TILE_SIZE}.
+   *
+   * @param profile shape, dimensions and number of bees of the game field
+   * @param seed seed for placing the bees
+   * @return the new shared game
+   */
+  public static SharedBeeSweeper newGame(BoardProfile profile, int seed) {
+    return newGame(profile, seed, DEFAULT_TILE_SIZE);
+  }
+
+  /**
+   * Creates a new shared game with a game field of the given profile, whose bees are placed by a
+   * random generator with the given seed.
+   *
+   * @param profile shape, dimensions and number of bees of the game field
+   * @param seed seed for placing the bees
+   * @param tileSize edge length of the tiles guarded by one lock
+   * @return the new shared game
+   * @throws IllegalArgumentException if the tile size is not positive
+   */
+  public static SharedBeeSweeper newGame(BoardProfile profile, int seed, int tileSize) {
+    return new SharedBeeSweeper(profile.generate(seed), profile.getNumBees(), tileSize);
+  }
+
+  /**
+   * Reveals the cell at the given location.
+   *
+   * @param coordinate the coordinate of the cell to act on
+   * @return the operation status of this method. {@link BeeSweeper.OperationStatus#SUCCESS} if
+   *     action was successful. Otherwise, a corresponding error status.
+   */
+  public BeeSweeper.OperationStatus reveal(Coordinate coordinate) {
+    long start = Metrics.start();
+    BeeSweeper.OperationStatus result = revealMove(coordinate);
+    if (result == BeeSweeper.OperationStatus.SUCCESS) {
+      Metrics.countMove();
+    }
+    Metrics.stop(Metrics.Operation.REVEAL, start);
+    return result;
+  }
+
+  private BeeSweeper.OperationStatus revealMove(Coordinate coordinate) {
+    int row = coordinate.getRow();
+    int column = coordinate.getColumn();
+    if (!playingField.contains(row, column)) {
+      return BeeSweeper.OperationStatus.INDEX_OOB;
+    }
+    if (!isAlive()) {
+      return BeeSweeper.OperationStatus.FAIL;
+    }
+    return revealCell(row * columns + column, REVEALED);
+  }
+
+  /**
+   * Reveals all cloaked and unmarked neighbours of a revealed cell, if as many neighbours are
+   * marked as there are bees surrounding the cell. A neighbour marked by another player in the
+   * meantime stays cloaked. If one of the revealed neighbours is a bee, the game is lost.
+   *
+   * @param coordinate the coordinate of the revealed cell
+   * @return the operation status of this method. {@link BeeSweeper.OperationStatus#SUCCESS} if
+   *     action was successful. Otherwise, a corresponding error status.
+   */
+  public BeeSweeper.OperationStatus revealNeighbours(Coordinate coordinate) {
+    long start = Metrics.start();
+    BeeSweeper.OperationStatus result = revealNeighboursMove(coordinate);
+    if (result == BeeSweeper.OperationStatus.SUCCESS) {
+      Metrics.countMove();
+      Metrics.countCascade();
+    }
+    Metrics.stop(Metrics.Operation.REVEAL_NEIGHBOURS, start);
+    return result;
+  }
+
+  private BeeSweeper.OperationStatus revealNeighboursMove(Coordinate coordinate) {
+    int row = coordinate.getRow();
+    int column = coordinate.getColumn();
+    if (!playingField.contains(row, column)) {
+      return BeeSweeper.OperationStatus.INDEX_OOB;
+    }
+    if (!isAlive()) {
+      return BeeSweeper.OperationStatus.FAIL;
+    }
+    int firstTileRow = Integer.MAX_VALUE;
+    int lastTileRow = 0;
+    int firstTileColumn = Integer.MAX_VALUE;
+    int lastTileColumn = 0;
+    for (int i = 0; i < FieldShape.SPAN; i++) {
+      int r = playingField.rowAround(row, i);
+      if (r >= 0) {
+        firstTileRow = Math.min(firstTileRow, r / tileSize);
+        lastTileRow = Math.max(lastTileRow, r / tileSize);
+      }
+      int c = playingField.columnAround(column, i);
+      if (c >= 0) {
+        firstTileColumn = Math.min(firstTileColumn, c / tileSize);
+        lastTileColumn = Math.max(lastTileColumn, c / tileSize);
+      }
+    }
+    // ascending row-major order, the same for every move; at the edges of a torus this also locks
+    // the tiles in between, which is coarse but keeps the order
+    for (int tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+      for (int tileColumn = firstTileColumn; tileColumn <= lastTileColumn; tileColumn++) {
+        tileLocks[tileRow * tileColumns + tileColumn].lock();
+      }
+    }
+    try {
+      if ((state(row * columns + column) & REVEALED) == 0
+          || countMarkedNeighbours(row, column)
+              != playingField.get(row, column).getNumberOfBeesSurrounding()) {
+        return BeeSweeper.OperationStatus.FAIL;
+      }
+      // not even allocated unless the event is enabled, so that chords stay allocation-free
+      CascadeEvent event = CASCADE_EVENT_TYPE.isEnabled() ? new CascadeEvent() : null;
+      if (event != null) {
+        event.begin();
+      }
+      int cellsOpened = 0;
+      for (int i = 0; i < FieldShape.SPAN; i++) {
+        int r = playingField.rowAround(row, i);
+        for (int j = 0; r >= 0 && j < FieldShape.SPAN; j++) {
+          int c = playingField.columnAround(column, j);
+          if (c >= 0
+              && playingField.contains(r, c)
+              && revealCell(r * columns + c, (byte) (REVEALED | MARKED))
+                  == BeeSweeper.OperationStatus.SUCCESS) {
+            cellsOpened++;
+          }
+        }
+      }
+      if (event != null && event.shouldCommit()) {
+        event.row = row;
+        event.column = column;
+        event.cellsOpened = cellsOpened;
+        event.commit();
+      }
+      return BeeSweeper.OperationStatus.SUCCESS;
+    } finally {
+      for (int tileRow = lastTileRow; tileRow >= firstTileRow; tileRow--) {
+        for (int tileColumn = lastTileColumn; tileColumn >= firstTileColumn; tileColumn--) {
+          tileLocks[tileRow * tileColumns + tileColumn].unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks the cell at the given location.
+   *
+   * @param coordinate the coordinate of the cell to act on
+   * @return the operation status of this method. {@link BeeSweeper.OperationStatus#SUCCESS} if
+   *     action was successful. Otherwise, a corresponding error status.
+   */
+  public BeeSweeper.OperationStatus mark(Coordinate coordinate) {
+    long start = Metrics.start();
+    BeeSweeper.OperationStatus result = markMove(coordinate);
+    if (result == BeeSweeper.OperationStatus.SUCCESS) {
+      Metrics.countMove();
+    }
+    Metrics.stop(Metrics.Operation.MARK, start);
+    return result;
+  }
+
+  private BeeSweeper.OperationStatus markMove(Coordinate coordinate) {
+    int row = coordinate.getRow();
+    int column = coordinate.getColumn();
+    if (!playingField.contains(row, column)) {
+      return BeeSweeper.OperationStatus.INDEX_OOB;
+    }
+    int index = row * columns + column;
+    byte state = state(index);
+    if (!isAlive() || (state & (REVEALED | MARKED)) != 0) {
+      return BeeSweeper.OperationStatus.FAIL;
+    }
+    // reserve a flower first, it is given back if the cell changes before it can be marked
+    if (flowersAvailable.getAndUpdate(flowers -> flowers > 0 ? flowers - 1 : flowers) == 0) {
+      return BeeSweeper.OperationStatus.FAIL;
+    }
+    while (!STATES.compareAndSet(states, index, state, (byte) (state | MARKED))) {
+      state = state(index);
+      if ((state & (REVEALED | MARKED)) != 0) {
+        flowersAvailable.incrementAndGet();
+        return BeeSweeper.OperationStatus.FAIL;
+      }
+    }
+    markTileDirty(index);
+    if ((state & BEE) != 0) {
+      countMarkedBee();
+    }
+    return BeeSweeper.OperationStatus.SUCCESS;
+  }
+
+  /**
+   * Unmarks the cell at the given location.
+   *
+   * @param coordinate the coordinate of the cell to act on
+   * @return the operation status of this method. {@link BeeSweeper.OperationStatus#SUCCESS} if
+   *     action was successful. Otherwise, a corresponding error status.
+   */
+  public BeeSweeper.OperationStatus unmark(Coordinate coordinate) {
+    long start = Metrics.start();
+    BeeSweeper.OperationStatus result = unmarkMove(coordinate);
+    if (result == BeeSweeper.OperationStatus.SUCCESS) {
+      Metrics.countMove();
+    }
+    Metrics.stop(Metrics.Operation.UNMARK, start);
+    return result;
+  }
+
+  private BeeSweeper.OperationStatus unmarkMove(Coordinate coordinate) {
+    int row = coordinate.getRow();
+    int column = coordinate.getColumn();
+    if (!playingField.contains(row, column)) {
+      return BeeSweeper.OperationStatus.INDEX_OOB;
+    }
+    int index = row * columns + column;
+    byte state = state(index);
+    if (!isAlive() || (state & MARKED) == 0) {
+      return BeeSweeper.OperationStatus.FAIL;
+    }
+    // the marked bees are counted down before the cell is unmarked, so that the counter never
+    // exceeds the actually marked bees and can not signal a win too early
+    boolean isBee = (state & BEE) != 0;
+    if (isBee) {
+      markedBees.decrementAndGet();
+    }
+    while (!STATES.compareAndSet(states, index, state, (byte) (state & ~MARKED))) {
+      state = state(index);
+      if ((state & MARKED) == 0) {
+        if (isBee) {
+          countMarkedBee();
+        }
+        return BeeSweeper.OperationStatus.FAIL;
+      }
+    }
+    markTileDirty(index);
+    flowersAvailable.incrementAndGet();
+    return BeeSweeper.OperationStatus.SUCCESS;
+  }
+
+  /**
+   * Returns the current status of the game.
+   *
+   * @return the game status
+   */
+  public GameState.GameStatus getStatus() {
+    return status.get();
+  }
+
+  /**
+   * Returns the number of flowers that are currently available.
+   *
+   * @return the available flowers
+   */
+  public int getFlowersAvailable() {
+    return flowersAvailable.get();
+  }
+
+  /**
+   * Returns whether the cell at the given location is revealed.
+   *
+   * @param coordinate the coordinate of the cell
+   * @return true if the cell is on the game field and revealed
+   */
+  public boolean isRevealed(Coordinate coordinate) {
+    int row = coordinate.getRow();
+    int column = coordinate.getColumn();
+    return playingField.contains(row, column) && (state(row * columns + column) & REVEALED) != 0;
+  }
+
+  /**
+   * Returns whether the cell at the given location is marked.
+   *
+   * @param coordinate the coordinate of the cell
+   * @return true if the cell is on the game field and marked
+   */
+  public boolean isMarked(Coordinate coordinate) {
+    int row = coordinate.getRow();
+    int column = coordinate.getColumn();
+    return playingField.contains(row, column) && (state(row * columns + column) & MARKED) != 0;
+  }
+
+  /**
+   * Returns the shared game field, after applying the moves made since the last call to it. The
+   * moves are applied through the game field, so its flowers and win counters and its listeners
+   * follow them, and only the tiles with changed cells are visited. The game field is only
+   * consistent if no moves are made meanwhile, e.g. after the game is over.
+   *
+   * @return the game field
+   */
+  public GameField getField() {
+    fieldLock.lock();
+    try {
+      int claimed = 0;
+      for (int tile = 0; tile < dirtyTiles.length; tile++) {
+        // cleared before the cells are read, so a move racing with the copy marks it again
+        if ((byte) DIRTY_TILES.getAndSet(dirtyTiles, tile, (byte) 0) != 0) {
+          claimedTiles[claimed++] = tile;
+        }
+      }
+      // unmarks first, so that the flowers of the game field suffice for the marks
+      for (int i = 0; i < claimed; i++) {
+        applyTile(claimedTiles[i], false);
+      }
+      for (int i = 0; i < claimed; i++) {
+        applyTile(claimedTiles[i], true);
+      }
+      return playingField;
+    } finally {
+      fieldLock.unlock();
+    }
+  }
+
+  /** Applies the reveals and either the marks or the unmarks of a tile to the game field. */
+  private void applyTile(int tile, boolean marks) {
+    int firstRow = tile / tileColumns * tileSize;
+    int firstColumn = tile % tileColumns * tileSize;
+    int lastRow = Math.min(firstRow + tileSize, playingField.getMaxRow());
+    int lastColumn = Math.min(firstColumn + tileSize, columns);
+    for (int row = firstRow; row < lastRow; row++) {
+      for (int column = firstColumn; column < lastColumn; column++) {
+        byte state = state(row * columns + column);
+        Cell cell = playingField.get(row, column);
+        Coordinate coordinate = null;
+        if ((state & REVEALED) != 0 && !cell.isRevealed()) {
+          coordinate = Coordinate.of(row, column);
+          playingField.reveal(coordinate);
+        }
+        boolean marked = (state & MARKED) != 0;
+        if (marked != cell.isMarked() && marked == marks) {
+          coordinate = coordinate == null ? Coordinate.of(row, column) : coordinate;
+          if (marked) {
+            playingField.mark(coordinate);
+          } else {
+            playingField.unmark(coordinate);
+          }
+        }
+      }
+    }
+  }
+
+  /** Reveals the cell with the given index in the state array, unless any of the bits is set. */
+  private BeeSweeper.OperationStatus revealCell(int index, byte blockingBits) {
+    byte state;
+    do {
+      state = state(index);
+      if ((state & blockingBits) != 0) {
+        return BeeSweeper.OperationStatus.FAIL;
+      }
+    } while (!STATES.compareAndSet(states, index, state, (byte) (state | REVEALED)));
+    markTileDirty(index);
+    if ((state & BEE) != 0) {
+      end(GameState.GameStatus.LOSE);
+    } else {
+      Metrics.countCellRevealed();
+      if (cloakedSafeCells.decrementAndGet() == 0) {
+        end(GameState.GameStatus.WIN);
+      }
+    }
+    return BeeSweeper.OperationStatus.SUCCESS;
+  }
+
+  private void countMarkedBee() {
+    if (markedBees.incrementAndGet() == numBees) {
+      end(GameState.GameStatus.WIN);
+    }
+  }
+
+  /** Ends the game with the given status, unless it is over already. */
+  private void end(GameState.GameStatus finalStatus) {
+    if (status.compareAndSet(GameState.GameStatus.ALIVE, finalStatus)) {
+      if (finalStatus == GameState.GameStatus.WIN) {
+        Metrics.countGameWon();
+      } else {
+        Metrics.countGameLost();
+      }
+    }
+  }
+
+  private void markTileDirty(int index) {
+    int tile = index / columns / tileSize * tileColumns + index % columns / tileSize;
+    DIRTY_TILES.setVolatile(dirtyTiles, tile, (byte) 1);
+  }
+
+  private byte state(int index) {
+    return (byte) STATES.getVolatile(states, index);
+  }
+
+  private int countMarkedNeighbours(int row, int column) {
+    int marked = 0;
+    for (int i = 0; i < FieldShape.SPAN; i++) {
+      int r = playingField.rowAround(row, i);
+      for (int j = 0; r >= 0 && j < FieldShape.SPAN; j++) {
+        int c = playingField.columnAround(column, j);
+        if (c >= 0
+            && (r != row || c != column)
+            && playingField.contains(r, c)
+            && (state(r * columns + c) & MARKED) != 0) {
+          marked++;
+        }
+      }
+    }
+    return marked;
+  }
+
+  private boolean isAlive() {
+    return status.get() == GameState.GameStatus.ALIVE;
+  }
+
+  private static int ceilDiv(int dividend, int divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+}
@@ -0,0 +1,187 @@
+package beesweeper.model.field;
+
+import beesweeper.model.shape.HoneyCombedShapeFactory;
+import beesweeper.model.shape.RandomCoordinateGenerator;
+import beesweeper.model.shape.RectangularShapeFactory;
+import beesweeper.model.shape.ShapeFactory;
+import beesweeper.model.shape.Topology;
+
+/**
+ * Generation parameters of a {@link GameField}: shape type, dimensions and number of bees. Two
+ * profiles are equal if they describe the same kind of board, so profiles can be used as keys, e.g.
+ * by {@link GameFieldPool}.
+ */
+public final class BoardProfile {
+
+  /** Shape of the game field described by a profile. */
+  public enum ShapeType {
+    /** Rectangular game field, see {@link RectangularShapeFactory}. */
+    RECTANGULAR,
+    /** Honeycombed game field, see {@link HoneyCombedShapeFactory}. */
+    HONEYCOMB,
+    /** Rectangular game field that wraps around at its edges, see {@link Topology#TOROIDAL}. */
+    TOROIDAL
+  }
+
+  private final ShapeType shapeType;
+  private final int columns;
+  private final int rows;
+  private final int numBees;
+
+  private BoardProfile(ShapeType shapeType, int columns, int rows, int numBees) {
+    this.shapeType = shapeType;
+    this.columns = columns;
+    this.rows = rows;
+    this.numBees = numBees;
+  }
+
+  /**
+   * Creates the profile of a rectangular game field.
+   *
+   * @param columns number of columns of the game field
+   * @param rows number of rows of the game field
+   * @param numBees number of bees hidden on the game field
+   * @return the profile
+   */
+  public static BoardProfile rectangular(int columns, int rows, int numBees) {
+    return new BoardProfile(ShapeType.RECTANGULAR, columns, rows, numBees);
+  }
+
+  /**
+   * Creates the profile of a rectangular game field that wraps around at its edges, so that every
+   * cell has the same number of neighbours.
+   *
+   * @param columns number of columns of the game field
+   * @param rows number of rows of the game field
+   * @param numBees number of bees hidden on the game field
+   * @return the profile
+   */
+  public static BoardProfile toroidal(int columns, int rows, int numBees) {
+    return new BoardProfile(ShapeType.TOROIDAL, columns, rows, numBees);
+  }
+
+  /**
+   * Creates the profile of a honeycombed game field.
+   *
+   * @param rows number of rows of the game field
+   * @param numBees number of bees hidden on the game field
+   * @return the profile
+   */
+  public static BoardProfile honeycomb(int rows, int numBees) {
+    return new BoardProfile(ShapeType.HONEYCOMB, (3 * rows - 1) / 2, rows, numBees);
+  }
+
+  /**
+   * Returns the shape type of this profile.
+   *
+   * @return the shape type
+   */
+  public ShapeType getShapeType() {
+    return shapeType;
+  }
+
+  /**
+   * Returns the (maximum) number of columns of this profile.
+   *
+   * @return the number of columns
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Returns the number of rows of this profile.
+   *
+   * @return the number of rows
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Returns the number of bees of this profile.
+   *
+   * @return the number of bees
+   */
+  public int getNumBees() {
+    return numBees;
+  }
+
+  /**
+   * Creates the {@link ShapeFactory} for this profile.
+   *
+   * @return a new shape factory
+   * @throws IllegalArgumentException if the dimensions of this profile are invalid
+   */
+  public ShapeFactory createShapeFactory() {
+    if (shapeType == ShapeType.HONEYCOMB) {
+      return new HoneyCombedShapeFactory(rows);
+    }
+    if (shapeType == ShapeType.TOROIDAL) {
+      return new RectangularShapeFactory(columns, rows, Topology.TOROIDAL);
+    }
+    return new RectangularShapeFactory(columns, rows);
+  }
+
+  /**
+   * Generates a new game field for this profile, with randomly placed bees and as many flowers as
+   * bees.
+   *
+   * @return a new game field
+   * @throws IllegalArgumentException if this profile does not describe a valid game field
+   */
+  public GameField generate() {
+    return new GameFieldFactory(createShapeFactory(), new RandomCoordinateGenerator())
+        .create(numBees, numBees);
+  }
+
+  /**
+   * Generates a new game field for this profile, with bees placed by a random generator with the
+   * given seed and as many flowers as bees. Equal profiles and seeds generate equal game fields.
+   *
+   * @param seed seed for placing the bees
+   * @return a new game field
+   * @throws IllegalArgumentException if this profile does not describe a valid game field
+   */
+  public GameField generate(int seed) {
+    return new GameFieldFactory(createShapeFactory(), new RandomCoordinateGenerator(seed))
+        .create(numBees, numBees);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BoardProfile that = (BoardProfile) o;
+    return shapeType == that.shapeType
+        && columns == that.columns
+        && rows == that.rows
+        && numBees == that.numBees;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = shapeType.hashCode();
+    result = 31 * result + columns;
+    result = 31 * result + rows;
+    return 31 * result + numBees;
+  }
+
+  @Override
+  public String toString() {
+    return "BoardProfile{"
+        + "shapeType="
+        + shapeType
+        + ", columns="
+        + columns
+        + ", rows="
+        + rows
+        + ", numBees="
+        + numBees
+        + '}';
+  }
+}
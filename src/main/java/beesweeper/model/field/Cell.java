@@ -105,6 +105,20 @@ public final class Cell {
     isRevealed = true;
   }
 
+  /**
+   * Reset this cell to a cloaked and unmarked cell without any bees surrounding it, so that it can
+   * be reused for a new game.
+   *
+   * @param isBee true if the cell is a bee in the new game, false otherwise
+   */
+
+  public void reset(boolean isBee) {
+    this.isBee = isBee;
+    this.numberOfBeesSurrounding = 0;
+    this.isRevealed = false;
+    this.isMarked = false;
+  }
+
   /**
    * Unreveal the cell.
    *
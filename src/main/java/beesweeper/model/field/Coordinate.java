@@ -3,7 +3,6 @@ package beesweeper.model.field;
 import beesweeper.model.shape.FieldShape;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Coordinate ofa cell on a {@link FieldShape}.
@@ -77,7 +76,7 @@ public final class Coordinate implements Comparable<Coordinate> {
 
   @Override
   public int hashCode() {
-    return Objects.hash(row, column);
+    return 31 * row + column;
   }
 
   @Override
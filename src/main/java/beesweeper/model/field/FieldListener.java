@@ -0,0 +1,20 @@
+package beesweeper.model.field;
+
+/**
+ * Listener for state changes of the cells of a {@link GameField}, e.g. for keeping an index of the
+ * game field up to date. Listeners are called synchronously by the thread changing the game field.
+ */
+public interface FieldListener {
+
+  /**
+   * Called after a cell has been revealed, marked or unmarked.
+   *
+   * @param row the row of the changed cell
+   * @param column the column of the changed cell
+   * @param cell the changed cell
+   */
+  void cellChanged(int row, int column, Cell cell);
+
+  /** Called after all cells of the game field have been changed at once, e.g. by re-seeding it. */
+  void fieldReset();
+}
@@ -0,0 +1,242 @@
+package beesweeper.model.field;
+
+import beesweeper.model.shape.FieldShape;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+/**
+ * The frontier of a {@link GameField}: the hidden cells next to a revealed safe cell, and the
+ * revealed safe cells that bound them, i.e. that still have a hidden neighbour. It is maintained
+ * incrementally from the changes of the game field, so that revealing a cell costs only a visit of
+ * its neighbours, and it is rebuilt when the game field is re-seeded.
+ *
+ * <p>Cells are identified by their index {@code row * getMaxColumn() + column}, and kept in an
+ * {@link IndexSet} per part of the frontier. Marked cells are hidden cells.
+ *
+ * <p>Like {@link GameField}, this class is not thread-safe.
+ */
+public final class Frontier {
+
+  /** The parts of the frontier. */
+  public enum Part {
+    /** Hidden cells with at least one revealed safe neighbour. */
+    HIDDEN,
+    /** Revealed safe cells with at least one hidden neighbour. */
+    BOUNDARY
+  }
+
+  /** Listener for changes of the frontier. */
+  public interface Listener {
+
+    /**
+     * Called after a cell has entered or left a part of the frontier.
+     *
+     * @param part the part of the frontier that has changed
+     * @param index the index of the cell
+     * @param added true if the cell has entered the part, false if it has left it
+     */
+    void frontierChanged(Part part, int index, boolean added);
+
+    /** Called after the frontier has been rebuilt, because the game field was reset. */
+    void frontierReset();
+  }
+
+  private final GameField field;
+  private final int rows;
+  private final int columns;
+  // per cell: whether it is revealed, and how many neighbours are hidden or revealed and safe
+  private final boolean[] revealed;
+  private final byte[] hiddenNeighbours;
+  private final byte[] safeRevealedNeighbours;
+  private final IndexSet hidden;
+  private final IndexSet boundary;
+  private Listener[] listeners = new Listener[0];
+
+  Frontier(GameField field) {
+    this.field = field;
+    this.rows = field.getMaxRow();
+    this.columns = field.getMaxColumn();
+    int size = rows * columns;
+    this.revealed = new boolean[size];
+    this.hiddenNeighbours = new byte[size];
+    this.safeRevealedNeighbours = new byte[size];
+    this.hidden = new IndexSet(size);
+    this.boundary = new IndexSet(size);
+    rebuild();
+    field.addListener(
+        new FieldListener() {
+          @Override
+          public void cellChanged(int row, int column, Cell cell) {
+            if (cell.isRevealed() && !revealed[row * columns + column]) {
+              onRevealed(row, column, cell.isBee());
+            }
+          }
+
+          @Override
+          public void fieldReset() {
+            rebuild();
+            for (Listener listener : listeners) {
+              listener.frontierReset();
+            }
+          }
+        });
+  }
+
+  /**
+   * Registers a listener that is notified about every cell entering or leaving the frontier.
+   *
+   * @param listener the listener to add
+   */
+  public void addListener(Listener listener) {
+    Listener[] extended = Arrays.copyOf(listeners, listeners.length + 1);
+    extended[listeners.length] = listener;
+    listeners = extended;
+  }
+
+  /**
+   * Returns the number of cells in a part of the frontier.
+   *
+   * @param part the part of the frontier
+   * @return the number of cells
+   */
+  public int size(Part part) {
+    return set(part).size();
+  }
+
+  /**
+   * Tests whether a cell is in a part of the frontier.
+   *
+   * @param part the part of the frontier
+   * @param row the row of the cell
+   * @param column the column of the cell
+   * @return true if the cell is in the part, false if not or if it is outside of the game field
+   */
+  public boolean contains(Part part, int row, int column) {
+    return field.contains(row, column) && set(part).contains(row * columns + column);
+  }
+
+  /**
+   * Returns an iterator over the indexes of the cells in a part of the frontier, in no particular
+   * order. The game field must not be changed while iterating.
+   *
+   * @param part the part of the frontier
+   * @return the iterator
+   */
+  public PrimitiveIterator.OfInt iterator(Part part) {
+    return set(part).iterator();
+  }
+
+  /**
+   * Returns the row of the cell with the given index.
+   *
+   * @param index the index of a cell
+   * @return the row of the cell
+   */
+  public int rowOf(int index) {
+    return index / columns;
+  }
+
+  /**
+   * Returns the column of the cell with the given index.
+   *
+   * @param index the index of a cell
+   * @return the column of the cell
+   */
+  public int columnOf(int index) {
+    return index % columns;
+  }
+
+  private IndexSet set(Part part) {
+    return part == Part.HIDDEN ? hidden : boundary;
+  }
+
+  private void onRevealed(int row, int column, boolean bee) {
+    int index = row * columns + column;
+    revealed[index] = true;
+    remove(Part.HIDDEN, index);
+    for (int i = 0; i < FieldShape.SPAN; i++) {
+      int r = field.rowAround(row, i);
+      for (int j = 0; r >= 0 && j < FieldShape.SPAN; j++) {
+        int c = field.columnAround(column, j);
+        if (c >= 0 && (r != row || c != column) && field.contains(r, c)) {
+          int neighbour = r * columns + c;
+          hiddenNeighbours[neighbour]--;
+          if (revealed[neighbour]) {
+            if (hiddenNeighbours[neighbour] == 0) {
+              remove(Part.BOUNDARY, neighbour);
+            }
+          } else if (!bee && ++safeRevealedNeighbours[neighbour] == 1) {
+            add(Part.HIDDEN, neighbour);
+          }
+        }
+      }
+    }
+    if (!bee && hiddenNeighbours[index] > 0) {
+      add(Part.BOUNDARY, index);
+    }
+  }
+
+  /** Recomputes the frontier from the cells of the game field. */
+  private void rebuild() {
+    hidden.clear();
+    boundary.clear();
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        if (field.contains(row, column)) {
+          revealed[row * columns + column] = field.get(row, column).isRevealed();
+        }
+      }
+    }
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        if (field.contains(row, column)) {
+          countNeighbours(row, column);
+        }
+      }
+    }
+  }
+
+  private void countNeighbours(int row, int column) {
+    int index = row * columns + column;
+    byte hiddenCount = 0;
+    byte safeRevealedCount = 0;
+    for (int i = 0; i < FieldShape.SPAN; i++) {
+      int r = field.rowAround(row, i);
+      for (int j = 0; r >= 0 && j < FieldShape.SPAN; j++) {
+        int c = field.columnAround(column, j);
+        if (c >= 0 && (r != row || c != column) && field.contains(r, c)) {
+          if (!revealed[r * columns + c]) {
+            hiddenCount++;
+          } else if (!field.get(r, c).isBee()) {
+            safeRevealedCount++;
+          }
+        }
+      }
+    }
+    hiddenNeighbours[index] = hiddenCount;
+    safeRevealedNeighbours[index] = safeRevealedCount;
+    if (!revealed[index]) {
+      if (safeRevealedCount > 0) {
+        hidden.add(index);
+      }
+    } else if (hiddenCount > 0 && !field.get(row, column).isBee()) {
+      boundary.add(index);
+    }
+  }
+
+  private void add(Part part, int index) {
+    if (set(part).add(index)) {
+      for (Listener listener : listeners) {
+        listener.frontierChanged(part, index, true);
+      }
+    }
+  }
+
+  private void remove(Part part, int index) {
+    if (set(part).remove(index)) {
+      for (Listener listener : listeners) {
+        listener.frontierChanged(part, index, false);
+      }
+    }
+  }
+}
@@ -2,8 +2,11 @@ package beesweeper.model.field;
 
 import beesweeper.model.BeeSweeper;
 import beesweeper.model.shape.FieldShape;
+import beesweeper.model.shape.Topology;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * This class represents the game field of the {@link BeeSweeper} game. Consists of the field shape
@@ -18,9 +21,87 @@ public final class GameField {
   private final FieldShape field;
   private int flowersAvailable;
 
+  // counters for detecting a win without scanning the whole game field
+  private int numBees;
+  private int cloakedSafeCells;
+  private int markedBees;
+
+  private FieldListener[] listeners = new FieldListener[0];
+  private Frontier frontier;
+
   GameField(FieldShape shape, int numFlowers) {
     field = shape;
     flowersAvailable = numFlowers;
+    recount();
+  }
+
+  /** Recomputes the win counters from the cells of the shape, after all cells have changed. */
+  void recount() {
+    numBees = field.countBees();
+    cloakedSafeCells = field.getAllCoordinates().size() - numBees - field.countRevealedSafeCells();
+    markedBees = field.countMarkedBees();
+    for (FieldListener listener : listeners) {
+      listener.fieldReset();
+    }
+  }
+
+  /**
+   * Registers a listener that is notified about every change of a cell made through this game
+   * field.
+   *
+   * @param listener the listener to add
+   */
+  public void addListener(FieldListener listener) {
+    FieldListener[] extended = Arrays.copyOf(listeners, listeners.length + 1);
+    extended[listeners.length] = listener;
+    listeners = extended;
+  }
+
+  /**
+   * Removes a listener registered with {@link #addListener(FieldListener)}.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeListener(FieldListener listener) {
+    for (int i = 0; i < listeners.length; i++) {
+      if (listeners[i] == listener) {
+        FieldListener[] reduced = new FieldListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, reduced, 0, i);
+        System.arraycopy(listeners, i + 1, reduced, i, reduced.length - i);
+        listeners = reduced;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the frontier of this game field. The frontier is built on the first call, and from then
+   * on maintained incrementally with every move.
+   *
+   * @return the frontier
+   */
+  public Frontier getFrontier() {
+    if (frontier == null) {
+      frontier = new Frontier(this);
+    }
+    return frontier;
+  }
+
+  /** Returns the shape of this game field, for re-seeding it in place. */
+  FieldShape getShape() {
+    return field;
+  }
+
+  /**
+   * Clears all cells of this game field (no bees, cloaked, unmarked) and sets the available
+   * flowers, so that the game field can be re-seeded for a new game.
+   */
+  void clear(int numFlowers) {
+    List<Coordinate> coordinates = field.getAllCoordinates();
+    for (int i = 0; i < coordinates.size(); i++) {
+      field.get(coordinates.get(i)).reset(false);
+    }
+    flowersAvailable = numFlowers;
   }
 
   /** check if the coordination is included in the game
@@ -33,6 +114,61 @@ public final class GameField {
     return field.contains(coordinate);
   }
 
+  /**
+   * Check if the given row and column are included in the game, without creating a coordinate.
+   *
+   * @param row the row to check
+   * @param column the column to check
+   * @return if the given row and column are possible in the game
+   */
+  public boolean contains(int row, int column) {
+    return field.contains(row, column);
+  }
+
+  /**
+   * Returns how the edges of this game field are connected.
+   *
+   * @return the topology of the shape of this game field
+   */
+  public Topology getTopology() {
+    return field.getTopology();
+  }
+
+  /**
+   * Returns one of the {@link FieldShape#SPAN} rows around a row, see {@link
+   * FieldShape#rowAround(int, int)}.
+   *
+   * @param row the row
+   * @param offset 0 for the row above, 1 for the row itself, 2 for the row below
+   * @return the row around the given row, or -1 if there is none
+   */
+  public int rowAround(int row, int offset) {
+    return field.rowAround(row, offset);
+  }
+
+  /**
+   * Returns one of the {@link FieldShape#SPAN} columns around a column, see {@link
+   * FieldShape#columnAround(int, int)}.
+   *
+   * @param column the column
+   * @param offset 0 for the column to the left, 1 for the column itself, 2 for the one to the right
+   * @return the column around the given column, or -1 if there is none
+   */
+  public int columnAround(int column, int offset) {
+    return field.columnAround(column, offset);
+  }
+
+  /**
+   * Returns the cell at the given row and column, without creating a coordinate.
+   *
+   * @param row the row of the cell
+   * @param column the column of the cell
+   * @return the cell at the given row and column
+   */
+  public Cell get(int row, int column) {
+    return field.get(row, column);
+  }
+
   /** will give the coordination of each cell
    *
    * @param coordinate the coordination of the cell
@@ -108,12 +244,15 @@ public final class GameField {
     }
 
     Cell newCell = get(coordinate);
-    if (newCell.isBee() && !newCell.isRevealed()) {
-      newCell.reveal();
+    if (newCell.isRevealed()) {
       return BeeSweeper.OperationStatus.FAIL;
-    } else {
-      return BeeSweeper.OperationStatus.SUCCESS;
     }
+    newCell.reveal();
+    if (!newCell.isBee()) {
+      cloakedSafeCells--;
+    }
+    fireCellChanged(coordinate, newCell);
+    return BeeSweeper.OperationStatus.SUCCESS;
   }
 
   /**
@@ -131,7 +270,12 @@ public final class GameField {
     } else if (flowersAvailable > 0) {
       flowersAvailable--;
 
-      get(coordinate).mark();
+      Cell cell = get(coordinate);
+      cell.mark();
+      if (cell.isBee()) {
+        markedBees++;
+      }
+      fireCellChanged(coordinate, cell);
     }
     return BeeSweeper.OperationStatus.SUCCESS;
 
@@ -151,12 +295,44 @@ public final class GameField {
       return BeeSweeper.OperationStatus.FAIL;
     } else {
       flowersAvailable++;
-      get(coordinate).unmark();
+      Cell cell = get(coordinate);
+      cell.unmark();
+      if (cell.isBee()) {
+        markedBees--;
+      }
+      fireCellChanged(coordinate, cell);
       return BeeSweeper.OperationStatus.SUCCESS;
     }
   }
 
 
+  /**
+   * Returns whether all cells without a bee have been revealed.
+   *
+   * @return true if no cell without a bee is cloaked anymore
+   */
+  public boolean areAllSafeCellsRevealed() {
+    return cloakedSafeCells == 0;
+  }
+
+  /**
+   * Returns whether all bees have been marked.
+   *
+   * @return true if every bee on the game field is marked
+   */
+  public boolean areAllBeesMarked() {
+    return markedBees == numBees;
+  }
+
+  /**
+   * Returns the number of bees hidden on this game field, without looking at its cells.
+   *
+   * @return the number of bees
+   */
+  public int getNumberOfBees() {
+    return numBees;
+  }
+
   /** gives the available flowers
    *
    * @return the available flowers of the game.
@@ -164,4 +340,11 @@ public final class GameField {
   public int getFlowersAvailable() {
     return flowersAvailable;
   }
+
+  private void fireCellChanged(Coordinate coordinate, Cell cell) {
+    field.cellChanged(coordinate.getRow(), coordinate.getColumn(), cell);
+    for (FieldListener listener : listeners) {
+      listener.cellChanged(coordinate.getRow(), coordinate.getColumn(), cell);
+    }
+  }
 }
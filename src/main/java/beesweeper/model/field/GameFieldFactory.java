@@ -1,18 +1,20 @@
 package beesweeper.model.field;
 
+import beesweeper.metrics.BoardGeneratedEvent;
+import beesweeper.metrics.Metrics;
 import beesweeper.model.shape.CoordinateGenerator;
 import beesweeper.model.shape.FieldShape;
 import beesweeper.model.shape.ShapeFactory;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /** Factory for {@link GameField}. */
 public class GameFieldFactory {
 
   private final ShapeFactory shapeFactory;
   private final CoordinateGenerator beeCoordinateGenerator;
+  // permutation of the positions of all coordinates, reused by every reset
+  private int[] beePositions = new int[0];
 
   /** generate the new shape of game
    *
@@ -41,16 +43,107 @@ public class GameFieldFactory {
       throw new IllegalArgumentException("Can't generate valid game field with less than 1 bee");
     }
 
-    // This method is a recommendation, may be changed if desired.
+    long start = Metrics.start();
+    BoardGeneratedEvent event = new BoardGeneratedEvent();
+    event.begin();
+    GameField field = build(numBees, numFlowers);
+    commit(event, field.getShape(), numBees, false);
+    Metrics.stop(Metrics.Operation.CREATE_FIELD, start);
+    return field;
+  }
+
+  /**
+   * Creates a {@link GameField} like {@link #create(int, int)}, for restoring a saved game whose
+   * bees are given by the {@link CoordinateGenerator} of this factory. The game field is not
+   * generated, so neither a {@code beesweeper.BoardGenerated} event nor the latency of {@link
+   * Metrics.Operation#CREATE_FIELD} are recorded.
+   *
+   * @param numBees number of bees to hide on the game field.
+   * @param numFlowers number of flowers that should be initially available to the player.
+   * @return a new game field instance with the configured parameters.
+   */
+  public GameField restore(int numBees, int numFlowers) {
+    if (numBees < 1) {
+      throw new IllegalArgumentException("Can't generate valid game field with less than 1 bee");
+    }
+    return build(numBees, numFlowers);
+  }
+
+  private GameField build(int numBees, int numFlowers) {
+    // a new shape consists of empty cells only
     FieldShape initialShape = shapeFactory.create();
-    initializeEmptyCells(initialShape);
-    addBeesToShape(initialShape, numBees, beeCoordinateGenerator);
-    addNumbersOfSurroundingBeesToShape(initialShape);
+    Collection<Coordinate> bees = addBeesToShape(initialShape, numBees, beeCoordinateGenerator);
+    addNumbersOfSurroundingBeesToShape(initialShape, bees);
     return new GameField(initialShape, numFlowers);
   }
 
-  // Recommendation, may be changed if desired.
-  // Add the number of bees to the given shape, using the beeCoordinateGenerator.
+  /**
+   * Re-seeds the given game field in place for a new game. All cells are cloaked and unmarked
+   * again, the given number of bees is hidden at locations determined by this factory's {@link
+   * CoordinateGenerator}, and the numbers of surrounding bees are recomputed. No cells or shapes
+   * are allocated, so this is much cheaper than {@link #create(int, int)} for repeated games. The
+   * bees are selected with {@link CoordinateGenerator#selectPositions}, in an array of positions
+   * kept by this factory, so that nothing is allocated at all after the first reset.
+   *
+   * <p>The game field must have been created by a factory with the same shape. Resets must not be
+   * run concurrently on the same factory.
+   *
+   * @param field game field to re-seed
+   * @param numBees number of bees to hide on the game field.
+   * @param numFlowers number of flowers that should be initially available to the player.
+   */
+  public void reset(GameField field, int numBees, int numFlowers) {
+    if (numBees < 1) {
+      throw new IllegalArgumentException("Can't generate valid game field with less than 1 bee");
+    }
+
+    long start = Metrics.start();
+    BoardGeneratedEvent event = new BoardGeneratedEvent();
+    event.begin();
+    field.clear(numFlowers);
+    FieldShape shape = field.getShape();
+    List<Coordinate> allCoordinates = shape.getAllCoordinates();
+    checkNumberOfBees(shape, numBees);
+    if (beePositions.length != allCoordinates.size()) {
+      beePositions = new int[allCoordinates.size()];
+      for (int i = 0; i < beePositions.length; i++) {
+        beePositions[i] = i;
+      }
+    }
+    beeCoordinateGenerator.selectPositions(numBees, shape, beePositions);
+    for (int i = 0; i < numBees; i++) {
+      shape.get(allCoordinates.get(beePositions[i])).reset(true);
+    }
+    for (int i = 0; i < numBees; i++) {
+      addSurroundingBee(shape, allCoordinates.get(beePositions[i]));
+    }
+    field.recount();
+    commit(event, shape, numBees, true);
+    Metrics.stop(Metrics.Operation.CREATE_FIELD, start);
+  }
+
+  private static void commit(
+      BoardGeneratedEvent event, FieldShape shape, int numBees, boolean reseeded) {
+    if (event.shouldCommit()) {
+      event.rows = shape.getNumberOfRows();
+      event.columns = shape.getNumberOfColumns();
+      event.bees = numBees;
+      event.reseeded = reseeded;
+      event.commit();
+    }
+  }
+
+  /**
+   * Creates a game field from a shape whose cells are already populated, e.g. a shape loaded from
+   * a file.
+   *
+   * @param populatedShape shape containing bees and surrounding counts
+   * @param numFlowers number of flowers that are currently available to the player.
+   * @return a new game field on the given shape
+   */
+  public static GameField fromShape(FieldShape populatedShape, int numFlowers) {
+    return new GameField(populatedShape, numFlowers);
+  }
 
   /**
    * Add bees to a given field shape.
@@ -58,65 +151,57 @@ public class GameFieldFactory {
    * @param emptyShape          the field shape to which bees will be added
    * @param numBees             the number of bees to add to the field shape
    * @param beeCoordinateGenerator    the generator for the bee coordinate
+   * @return the coordinates of the added bees
    * @throws IllegalArgumentException  if the number of bees exceeds the number of available cells in the field shape
    */
-  private void addBeesToShape(
+  private Collection<Coordinate> addBeesToShape(
       FieldShape emptyShape, int numBees, CoordinateGenerator beeCoordinateGenerator) {
 
-    if (emptyShape.getAllCoordinates().size() <= numBees) {
-      throw new IllegalArgumentException(
-          "Can't generate valid game field with number of bees >= number of field cells: "
-              + emptyShape.getAllCoordinates().size()
-              + " vs. "
-              + numBees
-              + " bees");
-    }
+    checkNumberOfBees(emptyShape, numBees);
 
     Collection<Coordinate> beeC = beeCoordinateGenerator.getCoordinates(numBees, emptyShape);
     for (Coordinate temporaryCoordinate : beeC) {
-      Cell newCell = new Cell(true, 0);
-      emptyShape.replace(temporaryCoordinate, newCell);
+      emptyShape.get(temporaryCoordinate).reset(true);
     }
+    return beeC;
   }
 
-
-  /**
-   *  initialize empty cells in the game
-   * @param field  field of the game
-   */
-  private void initializeEmptyCells(FieldShape field) {
-    for (Coordinate c : field.getAllCoordinates()) {
-      Cell emptyCell = new Cell(false, 0);
-      field.replace(c, emptyCell);
+  private static void checkNumberOfBees(FieldShape shape, int numBees) {
+    if (shape.getAllCoordinates().size() <= numBees) {
+      throw new IllegalArgumentException(
+          "Can't generate valid game field with number of bees >= number of field cells: "
+              + shape.getAllCoordinates().size()
+              + " vs. "
+              + numBees
+              + " bees");
     }
   }
 
   /**
    * Convert the initial board into a concrete game board. The number of bees around an empty cell
-   * is now counted.
+   * is now counted, by incrementing the count of every empty cell surrounding a bee.
    */
-  private void addNumbersOfSurroundingBeesToShape(FieldShape field) {
-    Set<Coordinate> beeCoordinates = new HashSet<>();
-    for (Coordinate c : field.getAllCoordinates()) {
-      if (field.get(c).isBee()) {
-        beeCoordinates.add(c);
-      }
+  private void addNumbersOfSurroundingBeesToShape(FieldShape field, Collection<Coordinate> bees) {
+    for (Coordinate bee : bees) {
+      addSurroundingBee(field, bee);
     }
+  }
 
-    for (Coordinate c : field.getAllCoordinates()) {
-      Cell cell = field.get(c);
-      if (!cell.isBee()) {
-        int numbersOfSurroundingBees = 0;
-        List<Coordinate> allSurrounding = c.getSurroundingCoordinates(c);
-        for (Coordinate surrounding : allSurrounding) {
-          if (beeCoordinates.contains(surrounding)) {
-            numbersOfSurroundingBees++;
+  /** Increments the count of every empty cell surrounding the given bee. */
+  private static void addSurroundingBee(FieldShape field, Coordinate bee) {
+    int beeRow = bee.getRow();
+    int beeColumn = bee.getColumn();
+    for (int i = 0; i < FieldShape.SPAN; i++) {
+      int row = field.rowAround(beeRow, i);
+      for (int j = 0; row >= 0 && j < FieldShape.SPAN; j++) {
+        int col = field.columnAround(beeColumn, j);
+        if (col >= 0 && field.contains(row, col)) {
+          Cell cell = field.get(row, col);
+          if (!cell.isBee()) {
+            cell.setNumberOfBeesSurrounding(cell.getNumberOfBeesSurrounding() + 1);
           }
         }
-        cell.setNumberOfBeesSurrounding(numbersOfSurroundingBees);
       }
     }
-
-
   }
 }
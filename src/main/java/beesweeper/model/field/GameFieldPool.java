@@ -0,0 +1,163 @@
+package beesweeper.model.field;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of pre-generated {@link GameField}s. For every {@link BoardProfile} that has been requested
+ * recently, the pool keeps up to a configured number of ready game fields, which are generated in
+ * the background. Taking a game field from a filled pool therefore costs constant time, no matter
+ * how large the board is.
+ *
+ * <p>If no ready game field is available, it is generated synchronously on the calling thread.
+ * Profiles that have not been requested for longer than the configured idle timeout are evicted
+ * together with their ready game fields.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class GameFieldPool implements AutoCloseable {
+
+  private final int boardsPerProfile;
+  private final long idleTimeoutNanos;
+  private final ThreadPoolExecutor executor;
+  private final Map<BoardProfile, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new pool.
+   *
+   * @param boardsPerProfile number of ready game fields to keep per profile
+   * @param refillThreads number of background threads generating game fields
+   * @param maxPendingRefills maximum number of queued background generations, further refills are
+   *     dropped until the queue drains
+   * @param idleTimeout time after which an unused profile is evicted
+   * @throws IllegalArgumentException if one of the numbers is not positive
+   */
+  public GameFieldPool(
+      int boardsPerProfile, int refillThreads, int maxPendingRefills, Duration idleTimeout) {
+    if (boardsPerProfile < 1 || refillThreads < 1 || maxPendingRefills < 1) {
+      throw new IllegalArgumentException("Pool sizes must be positive");
+    }
+    if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+      throw new IllegalArgumentException("Idle timeout must be positive: " + idleTimeout);
+    }
+    this.boardsPerProfile = boardsPerProfile;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.executor =
+        new ThreadPoolExecutor(
+            refillThreads,
+            refillThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(maxPendingRefills),
+            runnable -> {
+              Thread thread = new Thread(runnable, "game-field-pool");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Returns a fresh game field for the given profile. Uses a pre-generated game field if one is
+   * ready, otherwise generates one on the calling thread. Either way, the pool for this profile is
+   * refilled in the background afterwards.
+   *
+   * @param profile the profile of the requested game field
+   * @return a game field that has not been handed out before
+   * @throws IllegalArgumentException if the profile does not describe a valid game field
+   */
+  public GameField take(BoardProfile profile) {
+    long now = System.nanoTime();
+    evictIdleProfiles(now);
+
+    Entry entry = entries.computeIfAbsent(profile, p -> new Entry());
+    entry.lastUsed = now;
+
+    GameField field = entry.ready.poll();
+    if (field == null) {
+      try {
+        field = profile.generate();
+      } catch (IllegalArgumentException e) {
+        // never keep refilling profiles that cannot be generated
+        entries.remove(profile, entry);
+        throw e;
+      }
+    } else {
+      entry.available.decrementAndGet();
+    }
+    refill(profile, entry);
+    return field;
+  }
+
+  /**
+   * Returns the number of ready game fields for the given profile.
+   *
+   * @param profile the profile
+   * @return the number of game fields that can be taken without generating one
+   */
+  public int getReadyCount(BoardProfile profile) {
+    Entry entry = entries.get(profile);
+    return entry == null ? 0 : entry.available.get();
+  }
+
+  /** Stops all background generation and drops all ready game fields. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    entries.clear();
+  }
+
+  private void evictIdleProfiles(long now) {
+    Iterator<Entry> it = entries.values().iterator();
+    while (it.hasNext()) {
+      if (now - it.next().lastUsed > idleTimeoutNanos) {
+        it.remove();
+      }
+    }
+  }
+
+  private void refill(BoardProfile profile, Entry entry) {
+    while (true) {
+      int scheduled = entry.available.get() + entry.pending.get();
+      if (scheduled >= boardsPerProfile || executor.isShutdown()) {
+        return;
+      }
+      entry.pending.incrementAndGet();
+      try {
+        executor.execute(() -> generateInto(profile, entry));
+      } catch (RejectedExecutionException e) {
+        // queue is full, the next take will try again
+        entry.pending.decrementAndGet();
+        return;
+      }
+    }
+  }
+
+  private void generateInto(BoardProfile profile, Entry entry) {
+    try {
+      // skip the work if the profile has been evicted in the meantime
+      if (entries.get(profile) == entry) {
+        entry.ready.add(profile.generate());
+        entry.available.incrementAndGet();
+      }
+    } finally {
+      entry.pending.decrementAndGet();
+    }
+  }
+
+  /** Ready game fields and bookkeeping of a single profile. */
+  private static final class Entry {
+    private final Queue<GameField> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile long lastUsed;
+  }
+}
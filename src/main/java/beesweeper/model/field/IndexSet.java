@@ -0,0 +1,128 @@
+package beesweeper.model.field;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Set of the integers from 0 up to a fixed capacity, with constant time to add, remove and test an
+ * element, and iteration proportional to the size of the set instead of its capacity. Keeps the
+ * elements densely in one array and the position of every element in a second one.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class IndexSet {
+
+  private final int[] elements;
+  private final int[] positions;
+  private int size;
+
+  /**
+   * Creates an empty set.
+   *
+   * @param capacity the elements of the set are from 0 inclusive to capacity exclusive
+   */
+  public IndexSet(int capacity) {
+    elements = new int[capacity];
+    positions = new int[capacity];
+  }
+
+  /**
+   * Adds an element to this set.
+   *
+   * @param element the element to add
+   * @return true if the set did not contain the element
+   * @throws ArrayIndexOutOfBoundsException if the element is out of the capacity of this set
+   */
+  public boolean add(int element) {
+    if (contains(element)) {
+      return false;
+    }
+    elements[size] = element;
+    positions[element] = size;
+    size++;
+    return true;
+  }
+
+  /**
+   * Removes an element from this set. The last element takes the place of the removed one.
+   *
+   * @param element the element to remove
+   * @return true if the set contained the element
+   * @throws ArrayIndexOutOfBoundsException if the element is out of the capacity of this set
+   */
+  public boolean remove(int element) {
+    if (!contains(element)) {
+      return false;
+    }
+    int position = positions[element];
+    int last = elements[--size];
+    elements[position] = last;
+    positions[last] = position;
+    return true;
+  }
+
+  /**
+   * Tests whether this set contains an element.
+   *
+   * @param element the element to test
+   * @return true if the set contains the element
+   * @throws ArrayIndexOutOfBoundsException if the element is out of the capacity of this set
+   */
+  public boolean contains(int element) {
+    int position = positions[element];
+    return position < size && elements[position] == element;
+  }
+
+  /**
+   * Returns the element at a position, for iterating without an iterator.
+   *
+   * @param position position from 0 inclusive to {@link #size()} exclusive
+   * @return the element at the position
+   * @throws IndexOutOfBoundsException if the position is not in this set
+   */
+  public int get(int position) {
+    if (position >= size) {
+      throw new IndexOutOfBoundsException(position);
+    }
+    return elements[position];
+  }
+
+  /**
+   * Returns the number of elements in this set.
+   *
+   * @return the size of the set
+   */
+  public int size() {
+    return size;
+  }
+
+  /** Removes all elements from this set in constant time. */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns an iterator over the elements of this set, in no particular order. The set must not be
+   * changed while iterating.
+   *
+   * @return the iterator
+   */
+  public PrimitiveIterator.OfInt iterator() {
+    return new PrimitiveIterator.OfInt() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public int nextInt() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        return elements[next++];
+      }
+    };
+  }
+}
@@ -0,0 +1,269 @@
+package beesweeper.model.field;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Index answering how many cells of a category lie in a rectangle of a {@link GameField}, and
+ * where the next cell of a category is, without scanning the game field. Keeps a two-dimensional
+ * Fenwick tree per category, which is updated through a {@link FieldListener} on every change of
+ * the game field. Counting the cells in a rectangle takes O(log(rows) * log(columns)), updating
+ * after a move as well.
+ *
+ * <p>Like {@link GameField}, this class is not thread-safe.
+ */
+public final class RegionIndex {
+
+  /** Categories of cells that can be counted. */
+  public enum Category {
+    /** Cells that are not revealed, whether marked or not. */
+    HIDDEN,
+    /** Cells that are marked. */
+    MARKED,
+    /** Cells that are revealed. */
+    REVEALED
+  }
+
+  // bits of the last seen cell states
+  private static final byte PRESENT = 1;
+  private static final byte REVEALED = 2;
+  private static final byte MARKED = 4;
+
+  private static final Category[] CATEGORIES = Category.values();
+
+  private final GameField field;
+  private final int rows;
+  private final int columns;
+  private final int treeColumns;
+  private final byte[] states;
+  private final int[][] trees = new int[CATEGORIES.length][];
+  private final FieldListener listener =
+      new FieldListener() {
+        @Override
+        public void cellChanged(int row, int column, Cell cell) {
+          update(row, column, cell);
+        }
+
+        @Override
+        public void fieldReset() {
+          rebuild();
+        }
+      };
+
+  private RegionIndex(GameField field) {
+    this.field = field;
+    this.rows = field.getMaxRow();
+    this.columns = field.getMaxColumn();
+    this.treeColumns = columns + 1;
+    this.states = new byte[rows * columns];
+    for (int i = 0; i < trees.length; i++) {
+      trees[i] = new int[(rows + 1) * treeColumns];
+    }
+    rebuild();
+  }
+
+  /**
+   * Creates an index of the given game field, which is kept up to date until it is {@link
+   * #detach() detached}.
+   *
+   * @param field the game field to index
+   * @return the index
+   */
+  public static RegionIndex attach(GameField field) {
+    RegionIndex index = new RegionIndex(field);
+    field.addListener(index.listener);
+    return index;
+  }
+
+  /** Stops updating this index, so that it can be garbage collected with the game field alive. */
+  public void detach() {
+    field.removeListener(listener);
+  }
+
+  /**
+   * Counts the cells of a category in a rectangle.
+   *
+   * @param category the category of the counted cells
+   * @param fromRow first row of the rectangle, inclusive
+   * @param fromColumn first column of the rectangle, inclusive
+   * @param toRow last row of the rectangle, exclusive
+   * @param toColumn last column of the rectangle, exclusive
+   * @return the number of cells of the category in the rectangle
+   * @throws IllegalArgumentException if the rectangle exceeds the game field
+   */
+  public int count(Category category, int fromRow, int fromColumn, int toRow, int toColumn) {
+    if (fromRow < 0 || fromRow > toRow || toRow > rows) {
+      throw new IllegalArgumentException("Invalid rows " + fromRow + " to " + toRow);
+    }
+    if (fromColumn < 0 || fromColumn > toColumn || toColumn > columns) {
+      throw new IllegalArgumentException("Invalid columns " + fromColumn + " to " + toColumn);
+    }
+    return countUnchecked(trees[category.ordinal()], fromRow, fromColumn, toRow, toColumn);
+  }
+
+  /**
+   * Counts the cells of a category on the whole game field.
+   *
+   * @param category the category of the counted cells
+   * @return the number of cells of the category
+   */
+  public int count(Category category) {
+    return prefix(trees[category.ordinal()], rows, columns);
+  }
+
+  /**
+   * Finds the first cell of a category in row-major order.
+   *
+   * @param category the category of the cell
+   * @return the coordinate of the first cell of the category, or empty if there is none
+   */
+  public Optional<Coordinate> first(Category category) {
+    return next(category, 0, -1);
+  }
+
+  /**
+   * Finds the next cell of a category after the given cell in row-major order. Takes
+   * O(log(rows) * log(columns) * log(rows + columns)).
+   *
+   * @param category the category of the cell
+   * @param row row of the cell to start after
+   * @param column column of the cell to start after, -1 to start at the beginning of the row
+   * @return the coordinate of the next cell of the category, or empty if there is none
+   * @throws IllegalArgumentException if the given cell is outside the game field
+   */
+  public Optional<Coordinate> next(Category category, int row, int column) {
+    if (row < 0 || row >= rows || column < -1 || column >= columns) {
+      throw new IllegalArgumentException("Invalid cell " + row + ", " + column);
+    }
+    int[] tree = trees[category.ordinal()];
+    if (countUnchecked(tree, row, column + 1, row + 1, columns) > 0) {
+      return Optional.of(Coordinate.of(row, firstColumn(tree, row, column + 1)));
+    }
+    if (row + 1 == rows || countUnchecked(tree, row + 1, 0, rows, columns) == 0) {
+      return Optional.empty();
+    }
+    // smallest row below the given one that contains a cell of the category
+    int low = row + 1;
+    int high = rows - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (countUnchecked(tree, row + 1, 0, middle + 1, columns) > 0) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return Optional.of(Coordinate.of(low, firstColumn(tree, low, 0)));
+  }
+
+  /** Returns the first column from the given one on with a cell of the tree's category. */
+  private int firstColumn(int[] tree, int row, int fromColumn) {
+    int low = fromColumn;
+    int high = columns - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (countUnchecked(tree, row, fromColumn, row + 1, middle + 1) > 0) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  private void update(int row, int column, Cell cell) {
+    int index = row * columns + column;
+    byte oldState = states[index];
+    byte newState = stateOf(cell);
+    if (oldState == newState) {
+      return;
+    }
+    states[index] = newState;
+    for (Category category : CATEGORIES) {
+      int delta = (isIn(category, newState) ? 1 : 0) - (isIn(category, oldState) ? 1 : 0);
+      if (delta != 0) {
+        add(trees[category.ordinal()], row, column, delta);
+      }
+    }
+  }
+
+  /** Recomputes all trees from the cells of the game field in linear time. */
+  private void rebuild() {
+    for (int[] tree : trees) {
+      Arrays.fill(tree, 0);
+    }
+    for (Coordinate c : field.getAllCoordinates()) {
+      int row = c.getRow();
+      int column = c.getColumn();
+      byte state = stateOf(field.get(row, column));
+      states[row * columns + column] = state;
+      for (Category category : CATEGORIES) {
+        if (isIn(category, state)) {
+          trees[category.ordinal()][(row + 1) * treeColumns + column + 1] = 1;
+        }
+      }
+    }
+    for (int[] tree : trees) {
+      for (int i = 1; i <= rows; i++) {
+        for (int j = 1; j <= columns; j++) {
+          int parent = j + (j & -j);
+          if (parent <= columns) {
+            tree[i * treeColumns + parent] += tree[i * treeColumns + j];
+          }
+        }
+      }
+      for (int i = 1; i <= rows; i++) {
+        int parent = i + (i & -i);
+        if (parent <= rows) {
+          for (int j = 1; j <= columns; j++) {
+            tree[parent * treeColumns + j] += tree[i * treeColumns + j];
+          }
+        }
+      }
+    }
+  }
+
+  private void add(int[] tree, int row, int column, int delta) {
+    for (int i = row + 1; i <= rows; i += i & -i) {
+      for (int j = column + 1; j <= columns; j += j & -j) {
+        tree[i * treeColumns + j] += delta;
+      }
+    }
+  }
+
+  /** Returns the number of cells in rows [0, toRow) and columns [0, toColumn). */
+  private int prefix(int[] tree, int toRow, int toColumn) {
+    int sum = 0;
+    for (int i = toRow; i > 0; i -= i & -i) {
+      for (int j = toColumn; j > 0; j -= j & -j) {
+        sum += tree[i * treeColumns + j];
+      }
+    }
+    return sum;
+  }
+
+  private int countUnchecked(int[] tree, int fromRow, int fromColumn, int toRow, int toColumn) {
+    return prefix(tree, toRow, toColumn)
+        - prefix(tree, fromRow, toColumn)
+        - prefix(tree, toRow, fromColumn)
+        + prefix(tree, fromRow, fromColumn);
+  }
+
+  private static byte stateOf(Cell cell) {
+    return (byte)
+        (PRESENT | (cell.isRevealed() ? REVEALED : 0) | (cell.isMarked() ? MARKED : 0));
+  }
+
+  private static boolean isIn(Category category, byte state) {
+    switch (category) {
+      case HIDDEN:
+        return (state & PRESENT) != 0 && (state & REVEALED) == 0;
+      case MARKED:
+        return (state & MARKED) != 0;
+      case REVEALED:
+        return (state & REVEALED) != 0;
+      default:
+        throw new AssertionError(category);
+    }
+  }
+}
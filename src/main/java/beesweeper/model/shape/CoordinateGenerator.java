@@ -2,6 +2,9 @@ package beesweeper.model.shape;
 
 import beesweeper.model.field.Coordinate;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Classes implementing this interface support the sampling of distinct coordinates from a given
@@ -19,4 +22,32 @@ public interface CoordinateGenerator {
    *     sample from
    */
   Collection<Coordinate> getCoordinates(int n, FieldShape shape);
+
+  /**
+   * Selects n distinct coordinates of the given {@link FieldShape} by their positions in {@link
+   * FieldShape#getAllCoordinates()}: the given array of positions is permuted so that the selected
+   * ones come first. Neither the shape nor its list of coordinates is changed.
+   *
+   * <p>The default implementation samples with {@link #getCoordinates(int, FieldShape)}, and
+   * allocates. Implementations should override it to select the positions in place.
+   *
+   * @param n number of coordinates to select
+   * @param shape shape to select coordinates of
+   * @param positions a permutation of the positions of all coordinates of the shape, e.g. as left
+   *     by an earlier call
+   * @throws IllegalArgumentException if the given shape does not contain n distinct coordinates to
+   *     sample from
+   */
+  default void selectPositions(int n, FieldShape shape, int[] positions) {
+    Set<Coordinate> selected = new HashSet<>(getCoordinates(n, shape));
+    List<Coordinate> allCoordinates = shape.getAllCoordinates();
+    int front = 0;
+    for (int i = 0; i < positions.length; i++) {
+      if (selected.contains(allCoordinates.get(positions[i]))) {
+        int position = positions[i];
+        positions[i] = positions[front];
+        positions[front++] = position;
+      }
+    }
+  }
 }
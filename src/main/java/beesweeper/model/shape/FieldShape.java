@@ -3,19 +3,26 @@ package beesweeper.model.shape;
 import beesweeper.model.field.Cell;
 import beesweeper.model.field.Coordinate;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * A field of a given shape. Consists of rows and columns. Each row can have an arbitrary amount of
  * columns.
  */
 public class FieldShape {
-  private int numberOfRows;
-  private int numberOfColumns;
-  private Map<Coordinate, Cell> fieldShape;
-  private List<Coordinate> allCoordinates;
+
+  /** Number of rows or columns around a cell, including its own, see {@link #rowAround}. */
+  public static final int SPAN = 3;
+
+  private final int numberOfRows;
+  private final int numberOfColumns;
+  // cells in row-major order, null for coordinates that are not part of the shape
+  private final Cell[] cells;
+  private final List<Coordinate> allCoordinates;
+  private final Topology topology;
+  // the rows and columns around every row and column, SPAN entries each, see rowAround
+  private final int[] rowsAround;
+  private final int[] columnsAround;
 
 
   /**
@@ -26,20 +33,77 @@ public class FieldShape {
    */
 
   public FieldShape(int numberOfRows, int numberOfColumns) {
+    this(numberOfRows, numberOfColumns, Topology.BOUNDED);
+  }
+
+  /**
+   * Constructs a new FieldShape with the specified number of rows and columns, whose edges are
+   * connected as given by the topology.
+   *
+   * @param numberOfRows the number of rows in the field
+   * @param numberOfColumns the number of columns in the field
+   * @param topology how the edges of the field are connected
+   */
+  public FieldShape(int numberOfRows, int numberOfColumns, Topology topology) {
     this.numberOfRows = numberOfRows;
     this.numberOfColumns = numberOfColumns;
-    this.fieldShape = new HashMap<>();
-    this.allCoordinates = new ArrayList<>();
-
-    for (int col = 0; col < numberOfColumns; col++) {
-      for (int row = 0; row < numberOfRows; row++) {
-        Coordinate coordinate = Coordinate.of(col, row);
-        fieldShape.put(coordinate, new Cell(false, 0));
-        allCoordinates.add(coordinate);
+    this.topology = topology;
+    this.rowsAround = around(numberOfRows, topology);
+    this.columnsAround = around(numberOfColumns, topology);
+    this.cells = new Cell[numberOfRows * numberOfColumns];
+    this.allCoordinates = new ArrayList<>(cells.length);
+
+    for (int row = 0; row < numberOfRows; row++) {
+      for (int col = 0; col < numberOfColumns; col++) {
+        cells[row * numberOfColumns + col] = new Cell(false, 0);
+        allCoordinates.add(Coordinate.of(row, col));
       }
     }
   }
 
+  /**
+   * Constructs a FieldShape for subclasses that keep the cells in their own storage. Such
+   * subclasses must override {@link #contains(int, int)}, {@link #get(int, int)}, {@link
+   * #replace(Coordinate, Cell)} and the counting methods.
+   *
+   * @param numberOfRows the number of rows in the field
+   * @param numberOfColumns the number of columns in the field
+   * @param allCoordinates the coordinates of all cells in the field
+   */
+  protected FieldShape(int numberOfRows, int numberOfColumns, List<Coordinate> allCoordinates) {
+    this.numberOfRows = numberOfRows;
+    this.numberOfColumns = numberOfColumns;
+    this.cells = null;
+    this.allCoordinates = allCoordinates;
+    this.topology = Topology.BOUNDED;
+    this.rowsAround = around(numberOfRows, topology);
+    this.columnsAround = around(numberOfColumns, topology);
+  }
+
+  /**
+   * Precomputes the indices around every index, so that the neighbours of a cell are found without
+   * bounds checks or modulo arithmetic. Indices beyond a bounded edge, and indices that wrap around
+   * to an index already around the same index, are -1.
+   */
+  private static int[] around(int size, Topology topology) {
+    int[] around = new int[SPAN * size];
+    for (int index = 0; index < size; index++) {
+      for (int offset = 0; offset < SPAN; offset++) {
+        int neighbour = index + offset - 1;
+        if (topology == Topology.TOROIDAL) {
+          neighbour = Math.floorMod(neighbour, size);
+        }
+        boolean duplicate = false;
+        for (int previous = 0; previous < offset; previous++) {
+          duplicate |= around[SPAN * index + previous] == neighbour;
+        }
+        around[SPAN * index + offset] =
+            neighbour < 0 || neighbour >= size || duplicate ? -1 : neighbour;
+      }
+    }
+    return around;
+  }
+
   /** Returns the maximum row amount of any column in the shape.
    *
    * @return  the number of rows in the shape
@@ -56,6 +120,41 @@ public class FieldShape {
     return this.numberOfColumns;
   }
 
+  /**
+   * Returns how the edges of this shape are connected.
+   *
+   * @return the topology of this shape
+   */
+  public Topology getTopology() {
+    return topology;
+  }
+
+  /**
+   * Returns one of the {@link #SPAN} rows around a row: the row above it for offset 0, the row
+   * itself for offset 1 and the row below it for offset 2. On a {@link Topology#TOROIDAL} shape the
+   * rows wrap around at the edges. The neighbours of a cell are the cells in the rows and columns
+   * around it, except the cell itself.
+   *
+   * @param row the row
+   * @param offset 0, 1 or 2
+   * @return the row around the given row, or -1 if there is none, beyond the edge of a bounded
+   *     shape or because a torus has fewer than three rows
+   */
+  public int rowAround(int row, int offset) {
+    return rowsAround[SPAN * row + offset];
+  }
+
+  /**
+   * Returns one of the {@link #SPAN} columns around a column, like {@link #rowAround(int, int)}.
+   *
+   * @param column the column
+   * @param offset 0, 1 or 2
+   * @return the column around the given column, or -1 if there is none
+   */
+  public int columnAround(int column, int offset) {
+    return columnsAround[SPAN * column + offset];
+  }
+
   /**
    * Returns the coordinates of all cells in the shape. Coordinates may not be sorted.
    *
@@ -72,7 +171,23 @@ public class FieldShape {
    * @return <code>true</code> if the coordinate exists, <code>false</code> otherwise
    */
   public boolean contains(Coordinate coordinate) {
-    return fieldShape.containsKey(coordinate);
+    return contains(coordinate.getRow(), coordinate.getColumn());
+  }
+
+  /**
+   * Returns whether the given row and column exist in this shape. Same as {@link
+   * #contains(Coordinate)}, without creating a coordinate.
+   *
+   * @param row row to check
+   * @param column column to check
+   * @return <code>true</code> if the coordinate exists, <code>false</code> otherwise
+   */
+  public boolean contains(int row, int column) {
+    return row >= 0
+        && row < numberOfRows
+        && column >= 0
+        && column < numberOfColumns
+        && cells[row * numberOfColumns + column] != null;
   }
 
   /**
@@ -84,14 +199,23 @@ public class FieldShape {
    * @see #contains(Coordinate)
    */
   public void replace(Coordinate coordinate, Cell newCell) {
-    //throw new UnsupportedOperationException();
     if (!contains(coordinate)) {
       throw new IndexOutOfBoundsException();
     } else {
-      fieldShape.put(coordinate, newCell);
+      cells[coordinate.getRow() * numberOfColumns + coordinate.getColumn()] = newCell;
     }
   }
 
+  /**
+   * Called after the given cell of this shape has been revealed, marked or unmarked, so that shapes
+   * which store their cells elsewhere can write the change back. The default does nothing.
+   *
+   * @param row the row of the changed cell
+   * @param column the column of the changed cell
+   * @param cell the changed cell, as returned by {@link #get(int, int)}
+   */
+  public void cellChanged(int row, int column, Cell cell) {}
+
   /**
    * Returns the cell at the given coordinate in this shape.
    *
@@ -100,10 +224,68 @@ public class FieldShape {
    * @throws IndexOutOfBoundsException if the coordinate is not in this shape
    */
   public Cell get(Coordinate cellCoordinate) {
-    if (!getAllCoordinates().contains(cellCoordinate)) {
+    return get(cellCoordinate.getRow(), cellCoordinate.getColumn());
+  }
+
+  /**
+   * Returns the number of bees in this shape.
+   *
+   * @return the number of cells containing a bee
+   */
+  public int countBees() {
+    int count = 0;
+    for (Cell cell : cells) {
+      if (cell != null && cell.isBee()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of revealed cells without a bee in this shape.
+   *
+   * @return the number of revealed cells without a bee
+   */
+  public int countRevealedSafeCells() {
+    int count = 0;
+    for (Cell cell : cells) {
+      if (cell != null && cell.isRevealed() && !cell.isBee()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of marked bees in this shape.
+   *
+   * @return the number of marked cells containing a bee
+   */
+  public int countMarkedBees() {
+    int count = 0;
+    for (Cell cell : cells) {
+      if (cell != null && cell.isMarked() && cell.isBee()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the cell at the given row and column in this shape. Same as {@link #get(Coordinate)},
+   * without creating a coordinate.
+   *
+   * @param row row of the cell
+   * @param column column of the cell
+   * @return the cell at the given row and column in this shape
+   * @throws IndexOutOfBoundsException if the row and column are not in this shape
+   */
+  public Cell get(int row, int column) {
+    if (!contains(row, column)) {
       throw new IndexOutOfBoundsException();
     } else {
-      return fieldShape.get(cellCoordinate);
+      return cells[row * numberOfColumns + column];
     }
   }
 }
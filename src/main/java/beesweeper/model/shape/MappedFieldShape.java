@@ -0,0 +1,302 @@
+package beesweeper.model.shape;
+
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+
+/**
+ * A rectangular {@link FieldShape} whose cells are stored as bit planes in a memory-mapped file:
+ * one bit per cell for bees, revealed cells and marked cells, in row-major order.
+ *
+ * <p>Opening such a shape does not read any cell. {@link Cell} objects are created in pages when
+ * a cell of the page is accessed, from the bits of the planes and of the surrounding cells, so only
+ * the pages of the file around accessed cells are loaded by the operating system. At most {@value
+ * #MAX_CACHED_PAGES} pages of cells are kept; the oldest page is written back to the planes and
+ * dropped when another one is needed, so the heap used by a shape is bounded however much of the
+ * field is played. {@link #flush()} writes back the pages changed since the last flush.
+ *
+ * <p>Changes of cells are only written back when they are reported with {@link #cellChanged}, as
+ * {@link beesweeper.model.field.GameField} does. A cell must be changed and reported right after
+ * it has been returned by {@link #get}, before other cells are accessed, as its page may be dropped
+ * afterwards; reporting a cell of a dropped page fails.
+ */
+public class MappedFieldShape extends FieldShape {
+
+  // cells are created lazily in pages of 2^PAGE_BITS cells
+  private static final int PAGE_BITS = 12;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+  /** The maximum number of pages of cells kept in memory. */
+  public static final int MAX_CACHED_PAGES = 64;
+
+  private final MappedByteBuffer buffer;
+  private final int beePlane;
+  private final int revealedPlane;
+  private final int markedPlane;
+  private final int planeSize;
+  private final Cell[][] pages;
+  // indices of the cached pages in the order they were loaded, a ring starting at nextEviction
+  private final int[] cachedPages = new int[MAX_CACHED_PAGES];
+  private int numberOfCachedPages;
+  private int nextEviction;
+  // pages with changed cells that have not been written back yet
+  private final BitSet dirtyPages = new BitSet();
+
+  /**
+   * Creates a shape on the given bit planes.
+   *
+   * @param buffer the mapped file containing the bit planes
+   * @param numberOfRows the number of rows in the field
+   * @param numberOfColumns the number of columns in the field
+   * @param beePlane offset of the bee plane in the buffer
+   * @param revealedPlane offset of the plane of revealed cells in the buffer
+   * @param markedPlane offset of the plane of marked cells in the buffer
+   */
+  public MappedFieldShape(
+      MappedByteBuffer buffer,
+      int numberOfRows,
+      int numberOfColumns,
+      int beePlane,
+      int revealedPlane,
+      int markedPlane) {
+    super(numberOfRows, numberOfColumns, new CoordinateList(numberOfRows, numberOfColumns));
+    this.buffer = buffer;
+    this.beePlane = beePlane;
+    this.revealedPlane = revealedPlane;
+    this.markedPlane = markedPlane;
+    this.planeSize = (numberOfRows * numberOfColumns + Byte.SIZE - 1) / Byte.SIZE;
+    this.pages = new Cell[(numberOfRows * numberOfColumns + PAGE_SIZE - 1) >>> PAGE_BITS][];
+  }
+
+  @Override
+  public boolean contains(int row, int column) {
+    return row >= 0 && row < getNumberOfRows() && column >= 0 && column < getNumberOfColumns();
+  }
+
+  @Override
+  public Cell get(int row, int column) {
+    if (!contains(row, column)) {
+      throw new IndexOutOfBoundsException();
+    }
+    int index = row * getNumberOfColumns() + column;
+    Cell[] page = page(index);
+    Cell cell = page[index & (PAGE_SIZE - 1)];
+    if (cell == null) {
+      cell = load(row, column, index);
+      page[index & (PAGE_SIZE - 1)] = cell;
+    }
+    return cell;
+  }
+
+  @Override
+  public void replace(Coordinate coordinate, Cell newCell) {
+    if (!contains(coordinate)) {
+      throw new IndexOutOfBoundsException();
+    }
+    int index = coordinate.getRow() * getNumberOfColumns() + coordinate.getColumn();
+    page(index)[index & (PAGE_SIZE - 1)] = newCell;
+    dirtyPages.set(index >>> PAGE_BITS);
+    writeBit(beePlane, index, newCell.isBee());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the cell is not the one cached for the given row and column,
+   *     e.g. because it was kept after its page had been dropped
+   */
+  @Override
+  public void cellChanged(int row, int column, Cell cell) {
+    if (!contains(row, column)) {
+      throw new IndexOutOfBoundsException();
+    }
+    int index = row * getNumberOfColumns() + column;
+    Cell[] page = pages[index >>> PAGE_BITS];
+    if (page == null || page[index & (PAGE_SIZE - 1)] != cell) {
+      throw new IllegalStateException(
+          "Changed cell at " + row + ", " + column + " is no longer cached");
+    }
+    dirtyPages.set(index >>> PAGE_BITS);
+  }
+
+  @Override
+  public int countBees() {
+    flushCells();
+    return countBits(false, false);
+  }
+
+  @Override
+  public int countRevealedSafeCells() {
+    flushCells();
+    return countBits(true, false);
+  }
+
+  @Override
+  public int countMarkedBees() {
+    flushCells();
+    return countBits(false, true);
+  }
+
+  /** Writes all changes of cached cells to the bit planes and forces them to the file. */
+  public void flush() {
+    flushCells();
+    buffer.force();
+  }
+
+  private Cell[] page(int index) {
+    int p = index >>> PAGE_BITS;
+    Cell[] page = pages[p];
+    if (page == null) {
+      if (numberOfCachedPages < MAX_CACHED_PAGES) {
+        page = new Cell[PAGE_SIZE];
+        cachedPages[numberOfCachedPages++] = p;
+      } else {
+        // reuse the array of the oldest page
+        int evicted = cachedPages[nextEviction];
+        writeBack(evicted);
+        page = pages[evicted];
+        pages[evicted] = null;
+        Arrays.fill(page, null);
+        cachedPages[nextEviction] = p;
+        nextEviction = (nextEviction + 1) % MAX_CACHED_PAGES;
+      }
+      pages[p] = page;
+    }
+    return page;
+  }
+
+  private Cell load(int row, int column, int index) {
+    boolean isBee = readBit(beePlane, index);
+    int numberOfBeesSurrounding = 0;
+    if (!isBee) {
+      for (int i = 0; i < SPAN; i++) {
+        int r = rowAround(row, i);
+        for (int j = 0; r >= 0 && j < SPAN; j++) {
+          int c = columnAround(column, j);
+          if (c >= 0 && readBit(beePlane, r * getNumberOfColumns() + c)) {
+            numberOfBeesSurrounding++;
+          }
+        }
+      }
+    }
+    Cell cell = new Cell(isBee, numberOfBeesSurrounding);
+    if (readBit(revealedPlane, index)) {
+      cell.reveal();
+    }
+    if (readBit(markedPlane, index)) {
+      cell.mark();
+    }
+    return cell;
+  }
+
+  private void flushCells() {
+    for (int p = dirtyPages.nextSetBit(0); p >= 0; p = dirtyPages.nextSetBit(p + 1)) {
+      writeBack(p);
+    }
+  }
+
+  private void writeBack(int p) {
+    if (!dirtyPages.get(p)) {
+      return;
+    }
+    dirtyPages.clear(p);
+    Cell[] page = pages[p];
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      Cell cell = page[i];
+      if (cell != null) {
+        int index = (p << PAGE_BITS) | i;
+        writeBit(revealedPlane, index, cell.isRevealed());
+        writeBit(markedPlane, index, cell.isMarked());
+      }
+    }
+  }
+
+  /**
+   * Counts the cells whose bits are set in the revealed or marked plane, as requested, and in the
+   * bee plane unless revealed cells are requested. Without a requested plane, counts bees.
+   */
+  private int countBits(boolean revealed, boolean marked) {
+    ByteBuffer planes = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int count = 0;
+    int offset = 0;
+    for (; offset + Long.BYTES <= planeSize; offset += Long.BYTES) {
+      count +=
+          Long.bitCount(
+              combine(
+                  planes.getLong(beePlane + offset),
+                  planes.getLong(revealedPlane + offset),
+                  planes.getLong(markedPlane + offset),
+                  revealed,
+                  marked));
+    }
+    for (; offset < planeSize; offset++) {
+      count +=
+          Integer.bitCount(
+              (int)
+                      combine(
+                          planes.get(beePlane + offset),
+                          planes.get(revealedPlane + offset),
+                          planes.get(markedPlane + offset),
+                          revealed,
+                          marked)
+                  & 0xFF);
+    }
+    return count;
+  }
+
+  private static long combine(
+      long bees, long revealedBits, long markedBits, boolean revealed, boolean marked) {
+    if (revealed) {
+      return revealedBits & ~bees;
+    } else if (marked) {
+      return markedBits & bees;
+    } else {
+      return bees;
+    }
+  }
+
+  private boolean readBit(int plane, int index) {
+    return (buffer.get(plane + (index >>> 3)) & (1 << (index & 7))) != 0;
+  }
+
+  private void writeBit(int plane, int index, boolean value) {
+    int position = plane + (index >>> 3);
+    int b = buffer.get(position);
+    int changed = value ? b | (1 << (index & 7)) : b & ~(1 << (index & 7));
+    // unchanged bytes are not written, so that the operating system need not write their pages
+    if (changed != b) {
+      buffer.put(position, (byte) changed);
+    }
+  }
+
+  /** Coordinates of all cells of a rectangle, in row-major order, created on demand. */
+  private static final class CoordinateList extends AbstractList<Coordinate>
+      implements RandomAccess {
+    private final int numberOfRows;
+    private final int numberOfColumns;
+
+    private CoordinateList(int numberOfRows, int numberOfColumns) {
+      this.numberOfRows = numberOfRows;
+      this.numberOfColumns = numberOfColumns;
+    }
+
+    @Override
+    public Coordinate get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException(index);
+      }
+      return Coordinate.of(index / numberOfColumns, index % numberOfColumns);
+    }
+
+    @Override
+    public int size() {
+      return numberOfRows * numberOfColumns;
+    }
+  }
+}
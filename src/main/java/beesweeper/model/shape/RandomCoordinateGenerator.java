@@ -1,6 +1,7 @@
 package beesweeper.model.shape;
 
 import beesweeper.model.field.Coordinate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -32,12 +33,30 @@ public class RandomCoordinateGenerator implements CoordinateGenerator {
   @Override
   public Collection<Coordinate> getCoordinates(int n, FieldShape shape) {
     final List<Coordinate> allCoordinates = shape.getAllCoordinates();
-    if (n > allCoordinates.size()) {
-      throw new IllegalArgumentException(
-          "Asked to sample " + n + " coordinates, but shape only has " + allCoordinates.size());
+    checkSize(n, allCoordinates.size());
+
+    // a copy, the coordinates of the shape keep their order
+    List<Coordinate> shuffled = new ArrayList<>(allCoordinates);
+    Collections.shuffle(shuffled, randomNumberGenerator);
+    return shuffled.subList(0, n);
+  }
+
+  /** Select random positions with a partial Fisher-Yates shuffle, which allocates nothing. */
+  @Override
+  public void selectPositions(int n, FieldShape shape, int[] positions) {
+    checkSize(n, positions.length);
+    for (int i = 0; i < n; i++) {
+      int j = i + randomNumberGenerator.nextInt(positions.length - i);
+      int position = positions[i];
+      positions[i] = positions[j];
+      positions[j] = position;
     }
+  }
 
-    Collections.shuffle(allCoordinates, randomNumberGenerator);
-    return allCoordinates.subList(0, n);
+  private static void checkSize(int n, int size) {
+    if (n > size) {
+      throw new IllegalArgumentException(
+          "Asked to sample " + n + " coordinates, but shape only has " + size);
+    }
   }
 }
@@ -1,14 +1,11 @@
 package beesweeper.model.shape;
 
-import beesweeper.model.field.Cell;
-import java.awt.geom.RectangularShape;
-import java.util.List;
-
 /** {@link ShapeFactory} for a rectangular game field. */
 public class RectangularShapeFactory implements ShapeFactory {
 
   private int columnAmount;
   private int rowAmount;
+  private final Topology topology;
 
   /**
    * Creates a new RectangularShapeFactory. The created factory will create {@link FieldShape}s of
@@ -19,11 +16,25 @@ public class RectangularShapeFactory implements ShapeFactory {
    * @throws IllegalArgumentException if an invalid width or height is given
    */
   public RectangularShapeFactory(final int columns, final int rows) {
+    this(columns, rows, Topology.BOUNDED);
+  }
+
+  /**
+   * Creates a new RectangularShapeFactory for rectangles with the given columns and rows, whose
+   * edges are connected as given by the topology, e.g. wrapped around like a torus.
+   *
+   * @param columns intended columns of the rectangle (width).
+   * @param rows intended rows of the rectangle (height).
+   * @param topology how the edges of the rectangle are connected
+   * @throws IllegalArgumentException if an invalid width or height is given
+   */
+  public RectangularShapeFactory(final int columns, final int rows, final Topology topology) {
     if (columns <= 0 || rows <= 0) {
       throw new IllegalArgumentException("Invalid rectangle dimensions: " + columns + "x" + rows);
     }
     columnAmount = columns;
     rowAmount = rows;
+    this.topology = topology;
   }
 
   /**
@@ -34,6 +45,6 @@ public class RectangularShapeFactory implements ShapeFactory {
   @Override
   public FieldShape create() {
 
-    return new FieldShape(columnAmount, rowAmount);
+    return new FieldShape(rowAmount, columnAmount, topology);
   }
 }
@@ -0,0 +1,15 @@
+package beesweeper.model.shape;
+
+/**
+ * How the edges of a {@link FieldShape} are connected, which determines the neighbours of the
+ * cells at the edges.
+ */
+public enum Topology {
+  /** The shape ends at its edges, cells at an edge have fewer neighbours. */
+  BOUNDED,
+  /**
+   * The shape wraps around at its edges like a torus: the first and last row are neighbours, as
+   * are the first and last column.
+   */
+  TOROIDAL
+}
@@ -0,0 +1,101 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link AnsiFrameRenderer}. */
+public class AnsiFrameRendererTest {
+
+  private static final String CSI = "\u001b[";
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private final PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+
+  @Test
+  public void testFirstFrameIsDrawnCompletely() {
+    GameField field = BoardProfile.rectangular(3, 2, 1).generate(1);
+
+    String frame = render(new AnsiFrameRenderer(), field);
+
+    assertTrue(frame.startsWith(CSI + "H" + CSI + "2J    A B C\n  1 * * *\n  2 * * *\n"), frame);
+    assertTrue(frame.endsWith("Flowers left: 1\n"), frame);
+  }
+
+  @Test
+  public void testMovesWriteOnlyChangedCells() {
+    GameField field = BoardProfile.rectangular(26, 99, 40).generate(3);
+    AnsiFrameRenderer renderer = new AnsiFrameRenderer();
+    String fullFrame = render(renderer, field);
+
+    Coordinate safe = findSafeCell(field);
+    field.reveal(safe);
+    String update = render(renderer, field);
+
+    char glyph = (char) ('0' + field.get(safe).getNumberOfBeesSurrounding());
+    int line = safe.getRow() + 2;
+    int column = 2 * safe.getColumn() + 5;
+    assertEquals(CSI + line + ";" + column + "H" + glyph + CSI + "102;1H" + CSI + "J", update);
+    assertTrue(update.length() * 100 < fullFrame.length());
+
+    field.mark(Coordinate.of(safe.getRow(), safe.getColumn() == 0 ? 1 : 0));
+    assertTrue(render(renderer, field).contains("101;1HFlowers left: 39" + CSI + "K"));
+    assertEquals(CSI + "102;1H" + CSI + "J", render(renderer, field));
+  }
+
+  @Test
+  public void testUpdatesLookOnlyAtReportedCells() {
+    GameField field = BoardProfile.rectangular(8, 8, 5).generate(6);
+    AnsiFrameRenderer renderer = new AnsiFrameRenderer();
+    render(renderer, field);
+
+    // changed behind the back of the game field, so no listener hears of it
+    Coordinate hidden = findSafeCell(field);
+    field.get(hidden).reveal();
+    assertEquals(CSI + "11;1H" + CSI + "J", render(renderer, field));
+
+    // a move outside of the window is not drawn either
+    FieldLayout window = new FieldLayout(field, 0, 0, 2, 2);
+    renderer.render(field, window, out);
+    bytes.reset();
+    field.mark(Coordinate.of(7, 7));
+    renderer.render(field, window, out);
+    assertEquals(
+        CSI + "4;1HFlowers left: 4" + CSI + "K" + CSI + "5;1H" + CSI + "J",
+        bytes.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testInvalidatedOrReplacedFieldIsRedrawn() {
+    GameField field = BoardProfile.rectangular(4, 4, 2).generate(2);
+    AnsiFrameRenderer renderer = new AnsiFrameRenderer();
+    render(renderer, field);
+
+    renderer.invalidate();
+    assertTrue(render(renderer, field).startsWith(CSI + "H" + CSI + "2J"));
+    GameField other = BoardProfile.rectangular(5, 3, 2).generate(2);
+    assertTrue(render(renderer, other).contains("    A B C D E\n"));
+  }
+
+  private String render(AnsiFrameRenderer renderer, GameField field) {
+    bytes.reset();
+    renderer.render(field, FieldLayout.of(field), out);
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  private static Coordinate findSafeCell(GameField field) {
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()) {
+        return c;
+      }
+    }
+    throw new AssertionError("No safe cell");
+  }
+}
@@ -0,0 +1,116 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link BoardImageWriter}. */
+public class BoardImageWriterTest {
+
+  @Test
+  public void testPpmHasOnePixelPerCell() throws IOException {
+    GameField field = BoardProfile.rectangular(3, 2, 1).generate(1);
+    field.mark(Coordinate.of(1, 2));
+
+    byte[] image = write(field, BoardImageWriter.Format.PPM, 1, 1 << 20);
+
+    byte[] header = "P6\n3 2\n255\n".getBytes(StandardCharsets.US_ASCII);
+    assertArrayEquals(header, Arrays.copyOf(image, header.length));
+    assertEquals(header.length + 3 * 6, image.length);
+    // hidden grey, then the marked cell at the end
+    assertEquals((byte) 0x80, image[header.length]);
+    assertArrayEquals(
+        new byte[] {(byte) 0xff, (byte) 0xc0, 0x00},
+        Arrays.copyOfRange(image, image.length - 3, image.length));
+  }
+
+  @Test
+  public void testPngHasSamePixelsAsPpm() throws IOException {
+    GameField field = revealSome(BoardProfile.rectangular(70, 50, 300).generate(3));
+    byte[] ppm = write(field, BoardImageWriter.Format.PPM, 1, 1 << 20);
+
+    assertPixels(ppm, read(write(field, BoardImageWriter.Format.PNG, 1, 1 << 20)));
+  }
+
+  @Test
+  public void testParallelTilesGiveSameImages() throws IOException {
+    GameField field = revealSome(BoardProfile.rectangular(70, 50, 300).generate(5));
+    byte[] ppm = write(field, BoardImageWriter.Format.PPM, 1, 1 << 20);
+
+    // tiles of two rows each
+    assertArrayEquals(ppm, write(field, BoardImageWriter.Format.PPM, 4, 500));
+    assertPixels(ppm, read(write(field, BoardImageWriter.Format.PNG, 4, 500)));
+    assertPixels(ppm, read(write(field, BoardImageWriter.Format.PNG, 3, 1)));
+  }
+
+  @Test
+  public void testCombinedAdler32MatchesWholeChecksum() {
+    byte[] data = new byte[100_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 31 + i / 7);
+    }
+    Adler32 whole = new Adler32();
+    whole.update(data);
+    Adler32 first = new Adler32();
+    first.update(data, 0, 70_001);
+    Adler32 second = new Adler32();
+    second.update(data, 70_001, data.length - 70_001);
+
+    assertEquals(
+        whole.getValue(),
+        BoardImageWriter.combineAdler32(
+            first.getValue(), second.getValue(), data.length - 70_001));
+  }
+
+  private static GameField revealSome(GameField field) {
+    int step = 0;
+    for (Coordinate coordinate : field.getAllCoordinates()) {
+      if (step++ % 3 == 0) {
+        if (field.get(coordinate).isBee()) {
+          field.mark(coordinate);
+        } else {
+          field.reveal(coordinate);
+        }
+      }
+    }
+    return field;
+  }
+
+  private static byte[] write(
+      GameField field, BoardImageWriter.Format format, int threads, int tileBytes)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BoardImageWriter(format, threads, tileBytes).write(field, out);
+    return out.toByteArray();
+  }
+
+  private static BufferedImage read(byte[] png) throws IOException {
+    return ImageIO.read(new ByteArrayInputStream(png));
+  }
+
+  private static void assertPixels(byte[] ppm, BufferedImage image) {
+    String header = "P6\n" + image.getWidth() + " " + image.getHeight() + "\n255\n";
+    int pixel = header.length();
+    assertEquals(pixel + 3 * image.getWidth() * image.getHeight(), ppm.length);
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        int expected =
+            (ppm[pixel] & 0xff) << 16 | (ppm[pixel + 1] & 0xff) << 8 | ppm[pixel + 2] & 0xff;
+        assertEquals(expected, image.getRGB(x, y) & 0xffffff, "pixel " + x + "," + y);
+        pixel += 3;
+      }
+    }
+  }
+}
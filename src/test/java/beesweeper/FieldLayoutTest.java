@@ -0,0 +1,68 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.GameField;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link FieldLayout}. */
+public class FieldLayoutTest {
+
+  @Test
+  public void testColumnLabelsRoundTrip() {
+    String[] labels = {"A", "Z", "AA", "AZ", "BA", "ZZ", "AAA"};
+    int[] columns = {0, 25, 26, 51, 52, 701, 702};
+    for (int i = 0; i < labels.length; i++) {
+      FrameBuffer label = new FrameBuffer();
+      FieldLayout.appendColumnLabel(label, columns[i]);
+      assertEquals(labels[i], label.toString());
+      assertEquals(columns[i], FieldLayout.parseColumn(labels[i]));
+    }
+    for (int column = 0; column < 20000; column++) {
+      FrameBuffer label = new FrameBuffer();
+      FieldLayout.appendColumnLabel(label, column);
+      assertEquals(column, FieldLayout.parseColumn(label.toString()));
+    }
+    assertEquals(27, FieldLayout.parseColumn("ab"));
+  }
+
+  @Test
+  public void testInvalidColumnLabelsAreRejected() {
+    for (String label : new String[] {"", "1", "A1", "Ä", "@", "[", "AAAAAAA"}) {
+      assertEquals(-1, FieldLayout.parseColumn(label), label);
+    }
+  }
+
+  @Test
+  public void testWideFieldIsAligned() {
+    GameField field = BoardProfile.rectangular(28, 3, 1).generate(1);
+    FieldLayout layout = new FieldLayout(field, 1, 24, 5, 3);
+
+    FrameBuffer header = new FrameBuffer();
+    layout.appendHeader(header);
+    FrameBuffer row = new FrameBuffer();
+    layout.appendRowLabel(row, 1);
+    layout.appendCell(row, (byte) '*');
+
+    assertEquals("     Y  Z AA", header.toString());
+    assertEquals("  2  *", row.toString());
+    assertEquals(3, layout.getToRow());
+    assertEquals(27, layout.getToColumn());
+    assertEquals(6, layout.characterColumnOf(24));
+    assertEquals(12, layout.characterColumnOf(26));
+    assertEquals(2, layout.lineOf(1));
+  }
+
+  @Test
+  public void testWholeSmallFieldKeepsClassicLayout() {
+    FieldLayout layout = FieldLayout.of(BoardProfile.rectangular(3, 2, 1).generate(1));
+
+    FrameBuffer header = new FrameBuffer();
+    layout.appendHeader(header);
+
+    assertEquals("    A B C", header.toString());
+    assertEquals(5, layout.characterColumnOf(0));
+    assertEquals(4, layout.flowersLine());
+  }
+}
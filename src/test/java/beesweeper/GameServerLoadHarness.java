@@ -0,0 +1,142 @@
+package beesweeper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test for {@link GameServer}, run manually with {@code main}. Opens many idle sessions, then
+ * lets a number of active clients alternate MARK and UNMARK commands and reports the throughput
+ * and the latency percentiles of the round trips.
+ *
+ * <p>Arguments: idle sessions (default 10000), active clients (default 64), moves per client
+ * (default 2000). Tens of thousands of sessions need a raised limit of open files, e.g. {@code
+ * ulimit -n 65536}, as every session takes a descriptor on both ends.
+ */
+public final class GameServerLoadHarness {
+
+  private static final byte[] PROMPT = "MW > ".getBytes(StandardCharsets.UTF_8);
+
+  private GameServerLoadHarness() {}
+
+  /**
+   * Runs the load test against a server in this JVM.
+   *
+   * @param args idle sessions, active clients and moves per client
+   * @throws Exception if the test fails
+   */
+  public static void main(String[] args) throws Exception {
+    int idleSessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int activeClients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    int movesPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+
+    try (GameServer server =
+            new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      server.start();
+
+      List<Socket> idle = new ArrayList<>(idleSessions);
+      long openStart = System.nanoTime();
+      for (int i = 0; i < idleSessions; i++) {
+        Socket socket = connect(server);
+        readUntilPrompt(socket.getInputStream());
+        idle.add(socket);
+      }
+      System.out.printf(
+          "%d idle sessions open after %d ms, %d MB heap used%n",
+          server.getSessions().size(),
+          (System.nanoTime() - openStart) / 1_000_000,
+          usedHeapMegabytes());
+
+      List<Future<long[]>> results = new ArrayList<>(activeClients);
+      long start = System.nanoTime();
+      for (int i = 0; i < activeClients; i++) {
+        results.add(clients.submit(() -> play(server, movesPerClient)));
+      }
+      long[] latencies = new long[activeClients * movesPerClient];
+      for (int i = 0; i < activeClients; i++) {
+        System.arraycopy(results.get(i).get(), 0, latencies, i * movesPerClient, movesPerClient);
+      }
+      long elapsed = System.nanoTime() - start;
+
+      Arrays.sort(latencies);
+      System.out.printf(
+          "%d moves in %d ms: %.0f moves/s, p50 %d us, p99 %d us, p99.9 %d us, max %d us%n",
+          latencies.length,
+          elapsed / 1_000_000,
+          latencies.length * 1e9 / elapsed,
+          percentile(latencies, 0.5),
+          percentile(latencies, 0.99),
+          percentile(latencies, 0.999),
+          latencies[latencies.length - 1] / 1_000);
+
+      for (Socket socket : idle) {
+        socket.close();
+      }
+    }
+  }
+
+  /** Plays alternating MARK and UNMARK commands, returns the round trip times in nanoseconds. */
+  private static long[] play(GameServer server, int moves) throws IOException {
+    try (Socket socket = connect(server)) {
+      InputStream in = socket.getInputStream();
+      OutputStream out = socket.getOutputStream();
+      readUntilPrompt(in);
+      send(out, "NEWREC 26 26 100");
+      readUntilPrompt(in);
+      byte[] mark = "MARK A 1\n".getBytes(StandardCharsets.UTF_8);
+      byte[] unmark = "UNMARK A 1\n".getBytes(StandardCharsets.UTF_8);
+      long[] latencies = new long[moves];
+      for (int i = 0; i < moves; i++) {
+        long start = System.nanoTime();
+        out.write(i % 2 == 0 ? mark : unmark);
+        out.flush();
+        readUntilPrompt(in);
+        latencies[i] = System.nanoTime() - start;
+      }
+      send(out, "QUIT");
+      return latencies;
+    }
+  }
+
+  private static Socket connect(GameServer server) throws IOException {
+    Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    socket.setTcpNoDelay(true);
+    return socket;
+  }
+
+  private static void send(OutputStream out, String command) throws IOException {
+    out.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  private static void readUntilPrompt(InputStream in) throws IOException {
+    int matched = 0;
+    while (matched < PROMPT.length) {
+      int b = in.read();
+      if (b < 0) {
+        throw new IOException("Session closed");
+      }
+      matched = b == PROMPT[matched] ? matched + 1 : (b == PROMPT[0] ? 1 : 0);
+    }
+  }
+
+  private static long percentile(long[] sorted, double fraction) {
+    return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))] / 1_000;
+  }
+
+  private static long usedHeapMegabytes() {
+    Runtime runtime = Runtime.getRuntime();
+    return (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+  }
+}
@@ -0,0 +1,171 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.GameSessionStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link GameServer}. */
+public class GameServerTest {
+
+  private static final String PROMPT = "MW > ";
+
+  @TempDir Path tempDir;
+
+  @Timeout(value = 10, unit = TimeUnit.SECONDS)
+  @Test
+  public void testSessionsPlayIndependentGames() throws IOException, InterruptedException {
+    try (GameServer server =
+        new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+      server.start();
+      try (Socket first = connect(server);
+          Socket second = connect(server)) {
+        readUntilPrompt(first);
+        readUntilPrompt(second);
+
+        String firstBoard = command(first, "NEWREC 3 2 2");
+        String secondBoard = command(second, "NEWREC 5 4 2");
+
+        assertTrue(firstBoard.contains("    A B C\n"), firstBoard);
+        assertTrue(secondBoard.contains("    A B C D E\n"), secondBoard);
+        assertTrue(command(first, "MARK A 1").contains("Flowers left: 1"));
+        assertTrue(command(second, "UNMARK A 1").contains("Error! Not possible."));
+        assertEquals(2, server.getSessions().size());
+        assertTrue(command(second, "STATS").contains("MARK: count "));
+
+        command(first, "QUIT");
+        while (server.getSessions().size() != 1) {
+          Thread.sleep(1);
+        }
+      }
+    }
+  }
+
+  @Timeout(value = 10, unit = TimeUnit.SECONDS)
+  @Test
+  public void testMalformedNumberKeepsSessionAndGame() throws IOException {
+    try (GameServer server =
+        new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+      server.start();
+      try (Socket socket = connect(server)) {
+        readUntilPrompt(socket);
+        command(socket, "NEWREC 3 2 2");
+
+        assertTrue(command(socket, "REVEAL A x").contains("Error! Invalid arguments."));
+        assertTrue(command(socket, "MARK A 1").contains("Flowers left: 1"));
+      }
+    }
+  }
+
+  @Timeout(value = 10, unit = TimeUnit.SECONDS)
+  @Test
+  public void testLocalOnlyCommandsAreNotAvailable() throws IOException {
+    try (GameServer server =
+        new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+      server.start();
+      try (Socket socket = connect(server)) {
+        readUntilPrompt(socket);
+
+        // named games would bypass the memory budget of the session store, and exports would
+        // write files on the server
+        String error = "Error! Not available in a shared session.";
+        assertTrue(command(socket, "NEW a 702 999 10").contains(error));
+        assertTrue(command(socket, "USE a").contains(error));
+        assertTrue(command(socket, "LIST").contains(error));
+        command(socket, "NEWREC 3 2 2");
+        assertTrue(command(socket, "EXPORT board.png 64").contains(error));
+      }
+    }
+  }
+
+  @Timeout(value = 10, unit = TimeUnit.SECONDS)
+  @Test
+  public void testIdleGamesAreEvictedWithoutTraffic() throws IOException, InterruptedException {
+    GameSessionStore store = new GameSessionStore(tempDir, 1L << 20, Duration.ofMillis(20));
+    try (GameServer server =
+        new GameServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+            store,
+            Duration.ofMillis(5))) {
+      server.start();
+      try (Socket socket = connect(server)) {
+        readUntilPrompt(socket);
+        command(socket, "NEWREC 3 2 2");
+
+        // no further command, the game must be evicted by the server alone
+        while (store.getEvictions() == 0) {
+          Thread.sleep(1);
+        }
+        assertTrue(command(socket, "MARK A 1").contains("Flowers left: 1"));
+      }
+    }
+  }
+
+  @Timeout(value = 10, unit = TimeUnit.SECONDS)
+  @Test
+  public void testRunServesUntilClosed() throws IOException, InterruptedException {
+    GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    Thread thread = new Thread(server::run);
+    thread.start();
+    try (Socket socket = connect(server)) {
+      readUntilPrompt(socket);
+      assertTrue(command(socket, "NEWREC 3 2 2").contains("    A B C\n"));
+      assertTrue(thread.isAlive());
+    }
+
+    server.close();
+    thread.join();
+  }
+
+  @Test
+  public void testTemporarySpillDirectoryIsDeletedOnClose() throws IOException {
+    Path spillDirectory;
+    try (GameServer server =
+        new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+      spillDirectory = server.getSessionStore().getSpillDirectory();
+      assertTrue(Files.isDirectory(spillDirectory));
+    }
+    assertFalse(Files.exists(spillDirectory));
+  }
+
+  private static Socket connect(GameServer server) throws IOException {
+    return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+  }
+
+  private static String command(Socket socket, String command) throws IOException {
+    OutputStream out = socket.getOutputStream();
+    out.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    return readUntilPrompt(socket);
+  }
+
+  /** Reads the output of a command, up to the next prompt or the end of the session. */
+  private static String readUntilPrompt(Socket socket) throws IOException {
+    InputStream in = socket.getInputStream();
+    StringBuilder output = new StringBuilder();
+    while (output.length() < PROMPT.length()
+        || !output.substring(output.length() - PROMPT.length()).equals(PROMPT)) {
+      int b = in.read();
+      if (b < 0) {
+        break;
+      }
+      output.append((char) b);
+    }
+    return output.toString();
+  }
+}
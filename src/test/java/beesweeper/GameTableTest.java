@@ -0,0 +1,67 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.BeeSweeper;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldPool;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link GameTable}. */
+public class GameTableTest {
+
+  @Test
+  public void testCreatedGamesCanBeTakenOnce() {
+    try (GameFieldPool pool = new GameFieldPool(1, 1, 4, Duration.ofMinutes(1));
+        GameTable table = new GameTable(pool)) {
+      table.create("big", BoardProfile.rectangular(300, 200, 5000));
+      table.create("small", BoardProfile.rectangular(4, 3, 2));
+
+      assertEquals(List.of("big", "small"), List.copyOf(table.names()));
+      GameField field = table.take("big").getGameState().getField();
+      assertEquals(300, field.getMaxColumn());
+      assertEquals(200, field.getMaxRow());
+      assertFalse(table.contains("big"));
+      assertNull(table.take("big"));
+      assertTrue(table.contains("small"));
+    }
+  }
+
+  @Test
+  public void testFailedGameIsDroppedWhenTaken() {
+    try (GameFieldPool pool = new GameFieldPool(1, 1, 4, Duration.ofMinutes(1));
+        GameTable table = new GameTable(pool)) {
+      // not a valid profile, so creating the game fails in the background
+      table.create("bad", BoardProfile.rectangular(5, 5, 0));
+      while (!table.isFailed("bad")) {
+        Thread.onSpinWait();
+      }
+
+      assertFalse(table.isReady("bad"));
+      assertNull(table.take("bad"));
+      assertFalse(table.contains("bad"));
+    }
+  }
+
+  @Test
+  public void testPutReplacesGameOfTheSameName() {
+    try (GameFieldPool pool = new GameFieldPool(1, 1, 4, Duration.ofMinutes(1));
+        GameTable table = new GameTable(pool)) {
+      table.create("a", BoardProfile.rectangular(4, 3, 2));
+      BeeSweeper game = BeeSweeper.newRectangularGame(2, 2, 1);
+
+      table.put("a", game);
+
+      assertTrue(table.isReady("a"));
+      assertSame(game, table.take("a"));
+      assertFalse(table.isReady("a"));
+    }
+  }
+}
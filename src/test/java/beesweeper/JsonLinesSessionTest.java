@@ -0,0 +1,106 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link JsonLinesSession}. */
+public class JsonLinesSessionTest {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  @Test
+  public void testMovesAreAnsweredWithDelta() throws IOException {
+    String[] responses =
+        run(
+            "{\"op\":\"new\",\"cols\":3,\"rows\":2,\"bees\":2}",
+            "{ \"op\" : \"mark\", \"r\" : 1, \"c\" : 2, \"id\": null }",
+            "{\"op\":\"mark\",\"r\":1,\"c\":2}",
+            "{\"op\":\"unmark\",\"c\":2,\"r\":1}",
+            "{\"op\":\"board\"}",
+            "{\"op\":\"quit\"}",
+            "{\"op\":\"board\"}");
+
+    assertEquals(6, responses.length);
+    assertEquals(
+        "{\"status\":\"OK\",\"cols\":3,\"rows\":2,\"flowers\":2,\"delta\":[]}", responses[0]);
+    assertEquals("{\"status\":\"OK\",\"flowers\":1,\"delta\":[[1,2,\"F\"]]}", responses[1]);
+    assertEquals("{\"status\":\"FAIL\"}", responses[2]);
+    assertEquals("{\"status\":\"OK\",\"flowers\":2,\"delta\":[[1,2,\"*\"]]}", responses[3]);
+    assertEquals(
+        "{\"status\":\"OK\",\"flowers\":2,\"delta\":"
+            + "[[0,0,\"*\"],[0,1,\"*\"],[0,2,\"*\"],[1,0,\"*\"],[1,1,\"*\"],[1,2,\"*\"]]}",
+        responses[4]);
+    assertEquals("{\"status\":\"OK\"}", responses[5]);
+  }
+
+  @Test
+  public void testInvalidRequestsAreRejected() throws IOException {
+    String[] responses =
+        run(
+            "{\"op\":\"reveal\",\"r\":0,\"c\":0}",
+            "not json",
+            "{\"op\":\"jump\"}",
+            "{\"op\":\"re\\u0076eal\",\"r\":0,\"c\":0}",
+            "{\"op\":\"new\",\"cols\":3,\"rows\":2}",
+            "{\"op\":\"new\",\"cols\":3,\"rows\":2,\"bees\":6}",
+            "{\"op\":\"new\",\"cols\":3,\"rows\":2,\"bees\":1} x",
+            "{\"op\":\"new\",\"cols\":3,\"rows\":2,\"bees\":1}",
+            "{\"op\":\"reveal\",\"r\":5,\"c\":0}",
+            "{\"op\":\"reveal\",\"r\":12345678901,\"c\":0}",
+            "{\"op\":\"reveal\",\"c\":0}");
+
+    String[] expected = {
+      "ENOGAME", "ECMD", "ECMD", "ECMD", "EARGS", "EINPUT", "ECMD", "OK", "EARGS", "ECMD", "EARGS"
+    };
+    assertEquals(expected.length, responses.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertTrue(responses[i].startsWith("{\"status\":\"" + expected[i] + "\""), responses[i]);
+    }
+  }
+
+  @Test
+  public void testRequestsDoNotAllocateBeyondCoordinates() throws IOException {
+    // the difference between two runs is the cost of the additional requests only
+    long small = allocatedBytes(1000);
+    long large = allocatedBytes(3000);
+
+    long perRequest = (large - small) / 4000;
+    // a coordinate for the game's move API, nothing for decoding and encoding
+    assertTrue(perRequest <= 32, "allocated " + perRequest + " bytes per request");
+  }
+
+  private static long allocatedBytes(int moves) throws IOException {
+    StringBuilder script =
+        new StringBuilder("{\"op\":\"new\",\"cols\":26,\"rows\":99,\"bees\":1}\n");
+    for (int i = 0; i < moves; i++) {
+      script.append("{\"op\":\"mark\",\"r\":0,\"c\":0}\n{\"op\":\"unmark\",\"r\":0,\"c\":0}\n");
+    }
+    byte[] requests = script.toString().getBytes(StandardCharsets.US_ASCII);
+    PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+    // warm up, then measure
+    new JsonLinesSession(new ByteArrayInputStream(requests), out, null).run();
+    JsonLinesSession session =
+        new JsonLinesSession(new ByteArrayInputStream(requests), out, null);
+    long start = THREADS.getCurrentThreadAllocatedBytes();
+    session.run();
+    return THREADS.getCurrentThreadAllocatedBytes() - start;
+  }
+
+  private static String[] run(String... requests) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] input = (String.join("\n", requests) + "\n").getBytes(StandardCharsets.UTF_8);
+    PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+    new JsonLinesSession(new ByteArrayInputStream(input), out, null).run();
+    return bytes.toString(StandardCharsets.UTF_8).split("\n");
+  }
+}
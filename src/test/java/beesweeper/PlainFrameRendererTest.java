@@ -0,0 +1,106 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link PlainFrameRenderer}. */
+public class PlainFrameRendererTest {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final String NL = System.lineSeparator();
+
+  @Test
+  public void testFrameHasClassicLayout() {
+    GameField field = BoardProfile.rectangular(3, 2, 1).generate(1);
+    field.mark(Coordinate.of(0, 0));
+    CountingStream counting = new CountingStream();
+
+    new PlainFrameRenderer().render(field, FieldLayout.of(field), new PrintStream(counting));
+
+    String expected =
+        "    A B C" + NL + "  1 F * *" + NL + "  2 * * *" + NL + "Flowers left: 0" + NL;
+    assertEquals(expected, counting.text.toString());
+    assertEquals(1, counting.writes);
+  }
+
+  @Test
+  public void testRepeatedFramesDoNotAllocate() {
+    GameField field = BoardProfile.rectangular(26, 99, 300).generate(2);
+    FieldLayout layout = FieldLayout.of(field);
+    PlainFrameRenderer renderer = new PlainFrameRenderer();
+    PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+    // the first frame sizes the buffer
+    renderer.render(field, layout, out);
+
+    long start = THREADS.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < 10; i++) {
+      renderer.render(field, layout, out);
+    }
+    long allocated = THREADS.getCurrentThreadAllocatedBytes() - start;
+
+    assertTrue(allocated <= 256, "allocated " + allocated + " bytes");
+  }
+
+  @Test
+  public void testCachedRowsFollowMovesAndWindows() {
+    GameField field = BoardProfile.rectangular(26, 99, 300).generate(4);
+    PlainFrameRenderer renderer = new PlainFrameRenderer();
+    // the window for the first moves, then the whole game field
+    FieldLayout window = new FieldLayout(field, 10, 2, 20, 8);
+    render(renderer, field, FieldLayout.of(field));
+
+    int step = 0;
+    for (Coordinate coordinate : field.getAllCoordinates()) {
+      if (step++ % 37 != 0) {
+        continue;
+      }
+      if (field.get(coordinate).isBee()) {
+        field.mark(coordinate);
+      } else {
+        field.reveal(coordinate);
+      }
+      FieldLayout layout = step < 1000 ? window : FieldLayout.of(field);
+      assertEquals(
+          render(new PlainFrameRenderer(), field, layout), render(renderer, field, layout));
+    }
+    GameField other = BoardProfile.rectangular(5, 4, 3).generate(4);
+    assertEquals(
+        render(new PlainFrameRenderer(), other, FieldLayout.of(other)),
+        render(renderer, other, FieldLayout.of(other)));
+  }
+
+  private static String render(PlainFrameRenderer renderer, GameField field, FieldLayout layout) {
+    CountingStream counting = new CountingStream();
+    renderer.render(field, layout, new PrintStream(counting));
+    return counting.text.toString();
+  }
+
+  /** Stream recording the text and the number of writes. */
+  private static final class CountingStream extends OutputStream {
+    private final StringBuilder text = new StringBuilder();
+    private int writes;
+
+    @Override
+    public void write(int b) {
+      writes++;
+      text.append((char) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      writes++;
+      text.append(new String(b, off, len, StandardCharsets.US_ASCII));
+    }
+  }
+}
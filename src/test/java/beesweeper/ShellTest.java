@@ -0,0 +1,174 @@
+package beesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link Shell}. */
+public class ShellTest {
+
+  private static final String NL = System.lineSeparator();
+
+  @Test
+  public void testTokenizeSplitsOnWhitespace() {
+    assertArrayEquals(new String[] {"MARK", "A", "1"}, Shell.tokenize("  MARK\tA   1 "));
+    assertArrayEquals(new String[] {"x"}, Shell.tokenize("x"));
+    assertArrayEquals(new String[0], Shell.tokenize(" \t "));
+    assertArrayEquals(new String[0], Shell.tokenize(""));
+  }
+
+  @Test
+  public void testBatchModeReportsStatusPerCommand() throws IOException {
+    String script =
+        String.join(
+            "\n",
+            "MARK A 1",
+            "NEWREC 3 2 2",
+            "",
+            "UNMARK A 1",
+            "MARK A 1",
+            "MARK A 1",
+            "REVEAL Q 1",
+            "FOO",
+            "NEWREC 1 1 1",
+            "QUIT",
+            "PRINT");
+
+    String output = runBatch(script);
+
+    String expected =
+        String.join(NL, "ENOGAME", "OK", "FAIL", "OK", "FAIL", "EARGS", "ECMD", "EINPUT", "OK")
+            + NL;
+    assertEquals(expected, output);
+  }
+
+  @Test
+  public void testMalformedNumbersAreInvalidArguments() throws IOException {
+    String script =
+        String.join(
+            "\n",
+            "NEWREC 3 x 2",
+            "NEWREC 3 2 2",
+            "REVEAL A x",
+            "MARK A 99999999999",
+            "UNMARK A -",
+            "NEWCOMB 3.0 1",
+            "EXPORT board.png x",
+            "VIEW A x 10 10",
+            "VIEW A 1 10 99999999999",
+            "MARK A 1");
+
+    String output = runBatch(script);
+
+    String expected =
+        String.join(
+                NL, "EARGS", "OK", "EARGS", "EARGS", "EARGS", "EARGS", "EARGS", "EARGS", "EARGS",
+                "OK")
+            + NL;
+    assertEquals(expected, output);
+  }
+
+  @Test
+  public void testBatchModePrintsOnlyOnPrintAndGameEnd() throws IOException {
+    // with one bee on two cells, the first reveal ends the game either way
+    String output = runBatch("NEWREC 2 1 1\nPRINT\nREVEAL A 1\nPRINT\n");
+
+    String[] lines = output.split(NL);
+    assertEquals(10, lines.length, output);
+    assertArrayEquals(
+        new String[] {"OK", "    A B", "  1 * *", "Flowers left: 1", "OK", "    A B"},
+        Arrays.copyOf(lines, 6));
+    assertTrue(lines[8].equals("WIN") || lines[8].equals("LOSE"), output);
+    assertEquals("ENOGAME", lines[9]);
+  }
+
+  @Test
+  public void testCommandsOfALineAreRenderedOnce() throws IOException {
+    String output = run("NEWREC 3 2 2; MARK A 1; MARK A 1; UNMARK A 1; FOO;\nQUIT\n");
+
+    // one error per failed command, in order, then a single board for the whole line
+    String[] lines = output.split(NL);
+    assertArrayEquals(
+        new String[] {
+          "MW > Error! Not possible.",
+          "Error! Invalid command.",
+          "    A B C",
+          "  1 * * *",
+          "  2 * * *",
+          "Flowers left: 2",
+          "MW > "
+        },
+        lines);
+  }
+
+  @Test
+  public void testBatchModeReportsStatusPerCommandOfALine() throws IOException {
+    String output = runBatch("NEWREC 3 2 2;MARK A 1 ; MARK A 1;PRINT\nVIEW;QUIT;PRINT");
+
+    String[] lines = output.split(NL);
+    assertArrayEquals(
+        new String[] {
+          "OK", "OK", "FAIL", "    A B C", "  1 F * *", "  2 * * *", "Flowers left: 1", "OK", "OK",
+          "OK"
+        },
+        lines);
+  }
+
+  @Test
+  public void testNamedGamesAreKeptWhileAnotherIsPlayed() throws IOException {
+    String script =
+        String.join(
+            "\n",
+            "NEW a 3 2 2",
+            "NEW b 4 1 2",
+            "USE a",
+            "MARK A 1",
+            "USE b",
+            "LIST",
+            "USE a",
+            "PRINT",
+            "USE c",
+            "NEWREC 2 2 1",
+            "LIST");
+
+    String output = runBatch(script);
+
+    String[] lines = output.split(NL);
+    assertArrayEquals(
+        new String[] {
+          "OK", "OK", "OK", "OK", "OK", "  a", "* b", "OK", "OK", "    A B C", "  1 F * *",
+          "  2 * * *", "Flowers left: 1", "OK", "ENOGAME", "OK", "  a", "  b", "OK"
+        },
+        lines);
+  }
+
+  @Test
+  public void testGamesWithoutBeesAreInvalidInput() throws IOException {
+    String output = runBatch(String.join("\n", "NEW g 5 5 0", "NEWREC 5 5 0", "LIST", "USE g"));
+
+    assertArrayEquals(new String[] {"EINPUT", "EINPUT", "OK", "ENOGAME"}, output.split(NL));
+  }
+
+  private static String run(String input) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+    new Shell(new BufferedReader(new StringReader(input)), out, null, null).run();
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  private static String runBatch(String script) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(bytes, false, StandardCharsets.UTF_8);
+    new Shell(new BufferedReader(new StringReader(script)), out, null, null, true).run();
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+}
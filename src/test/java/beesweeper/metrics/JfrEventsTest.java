@@ -0,0 +1,85 @@
+package beesweeper.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.BeeSweeper;
+import beesweeper.model.GameSnapshot;
+import beesweeper.model.SharedBeeSweeper;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for the JFR events of the {@code beesweeper.metrics} package. */
+public class JfrEventsTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testEventsAreRecorded() throws IOException {
+    Path recordingFile = tempDir.resolve("events.jfr");
+    Path snapshotFile = tempDir.resolve("game.bees");
+    try (Recording recording = new Recording()) {
+      recording.enable(BoardGeneratedEvent.class);
+      recording.enable(CascadeEvent.class);
+      recording.enable(SnapshotEvent.class);
+      recording.start();
+
+      BeeSweeper game = BeeSweeper.newGame(BoardProfile.rectangular(12, 9, 10), 4);
+      GameSnapshot.save(game, snapshotFile);
+      GameSnapshot.load(snapshotFile);
+      revealAroundEmptyCell(SharedBeeSweeper.newGame(BoardProfile.rectangular(7, 5, 1), 2));
+
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+    // generated for the new game only, loading the snapshot restores the saved board
+    List<RecordedEvent> boards = withRows(byName(events, "beesweeper.BoardGenerated"), 9);
+    assertEquals(1, boards.size());
+    assertEquals(12, boards.get(0).getInt("columns"));
+    assertEquals(10, boards.get(0).getInt("bees"));
+
+    List<RecordedEvent> snapshots = byName(events, "beesweeper.Snapshot");
+    assertEquals(2, snapshots.size());
+    assertTrue(snapshots.stream().anyMatch(e -> e.getBoolean("load")));
+    assertTrue(snapshots.stream().allMatch(e -> e.getString("file").endsWith("game.bees")));
+
+    RecordedEvent cascade = byName(events, "beesweeper.Cascade").get(0);
+    assertTrue(cascade.getInt("cellsOpened") > 0);
+  }
+
+  /** Reveals a cell without surrounding bees and then its neighbours. */
+  private static void revealAroundEmptyCell(SharedBeeSweeper game) {
+    GameField field = game.getField();
+    for (Coordinate c : field.getAllCoordinates()) {
+      Cell cell = field.get(c);
+      if (!cell.isBee() && cell.getNumberOfBeesSurrounding() == 0) {
+        game.reveal(c);
+        game.revealNeighbours(c);
+        return;
+      }
+    }
+  }
+
+  private static List<RecordedEvent> withRows(List<RecordedEvent> events, int rows) {
+    return events.stream().filter(e -> e.getInt("rows") == rows).collect(Collectors.toList());
+  }
+
+  private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(e -> e.getEventType().getName().equals(name))
+        .collect(Collectors.toList());
+  }
+}
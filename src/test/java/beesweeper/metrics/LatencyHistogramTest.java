@@ -0,0 +1,61 @@
+package beesweeper.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link LatencyHistogram}. */
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBucketsCoverAllValuesWithBoundedError() {
+    long[] values = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456_789, Long.MAX_VALUE / 3};
+    for (long value : values) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      long upperBound = LatencyHistogram.upperBoundOf(bucket);
+      assertTrue(upperBound >= value, value + " above bucket bound " + upperBound);
+      assertTrue(upperBound - value <= value / LatencyHistogram.SUB_BUCKETS, "error at " + value);
+      if (bucket > 0) {
+        assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < value);
+      }
+    }
+    assertEquals(
+        Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1_000L);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(500_500, histogram.getMeanNanos());
+    assertEquals(1_000_000, histogram.getMaxNanos());
+    assertWithinError(500_000, histogram.getPercentileNanos(0.5));
+    assertWithinError(990_000, histogram.getPercentileNanos(0.99));
+    assertEquals(1_000_000, histogram.getPercentileNanos(1));
+    assertWithinError(1_000, histogram.getPercentileNanos(0));
+    assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(1.5));
+  }
+
+  @Test
+  public void testEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+
+    assertEquals(1, histogram.getCount());
+    assertEquals(0, histogram.getPercentileNanos(0.99));
+    assertEquals(0, new LatencyHistogram().getPercentileNanos(0.5));
+    assertEquals(0, new LatencyHistogram().getMeanNanos());
+  }
+
+  private static void assertWithinError(long expected, long actual) {
+    assertTrue(
+        actual >= expected && actual - expected <= expected / LatencyHistogram.SUB_BUCKETS,
+        "expected about " + expected + " but was " + actual);
+  }
+}
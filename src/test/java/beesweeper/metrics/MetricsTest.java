@@ -0,0 +1,88 @@
+package beesweeper.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.BeeSweeper;
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link Metrics}. */
+public class MetricsTest {
+
+  @Test
+  public void testGameIsCounted() {
+    long created = Metrics.getHistogram(Metrics.Operation.CREATE_FIELD).getCount();
+    long reveals = Metrics.getHistogram(Metrics.Operation.REVEAL).getCount();
+    long moves = Metrics.getMoves();
+    long cellsRevealed = Metrics.getCellsRevealed();
+    long gamesLost = Metrics.getGamesLost();
+
+    BeeSweeper game = BeeSweeper.newGame(BoardProfile.rectangular(8, 8, 10), 3);
+    GameField field = game.getGameState().getField();
+    int safeReveals = 0;
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee() && safeReveals < 5) {
+        game.reveal(c);
+        safeReveals++;
+      }
+    }
+    game.reveal(field.getAllBeeCoordinates().iterator().next());
+    game.reveal(Coordinate.of(100, 100));
+
+    // the counters are shared with everything else in the JVM, e.g. board pools refilling in the
+    // background, so only lower bounds hold
+    assertAtLeast(created + 1, Metrics.getHistogram(Metrics.Operation.CREATE_FIELD).getCount());
+    assertAtLeast(reveals + 7, Metrics.getHistogram(Metrics.Operation.REVEAL).getCount());
+    assertAtLeast(moves + 6, Metrics.getMoves());
+    assertAtLeast(cellsRevealed + 5, Metrics.getCellsRevealed());
+    assertAtLeast(gamesLost + 1, Metrics.getGamesLost());
+  }
+
+  @Test
+  public void testGameIsCountedOnceWhenItEnds() {
+    BeeSweeper lost = BeeSweeper.newGame(BoardProfile.rectangular(8, 8, 10), 5);
+    Iterator<Coordinate> bees = lost.getGameState().getField().getAllBeeCoordinates().iterator();
+    lost.reveal(bees.next());
+    BeeSweeper won = BeeSweeper.newGame(BoardProfile.rectangular(2, 2, 1), 5);
+    Coordinate bee = won.getGameState().getField().getAllBeeCoordinates().iterator().next();
+    won.mark(bee);
+    long gamesLost = Metrics.getGamesLost();
+    long gamesWon = Metrics.getGamesWon();
+
+    // games are only ended by moves, and no other game is played meanwhile
+    assertEquals(BeeSweeper.OperationStatus.SUCCESS, lost.reveal(bees.next()));
+    won.unmark(bee);
+    assertEquals(BeeSweeper.OperationStatus.SUCCESS, won.mark(bee));
+    assertEquals(gamesLost, Metrics.getGamesLost());
+    assertEquals(gamesWon, Metrics.getGamesWon());
+  }
+
+  @Test
+  public void testMBeansAreRegistered() throws JMException {
+    Metrics.registerMBeans();
+    Metrics.registerMBeans();
+    BeeSweeper.newRectangularGame(5, 5, 3);
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    long count =
+        (Long) server.getAttribute(
+            new ObjectName("beesweeper:type=Latency,operation=create_field"), "Count");
+    assertTrue(count > 0);
+    long moves = Metrics.getMoves();
+    assertAtLeast(
+        moves,
+        (long) (Long) server.getAttribute(new ObjectName("beesweeper:type=Metrics"), "Moves"));
+  }
+
+  private static void assertAtLeast(long expected, long actual) {
+    assertTrue(actual >= expected, actual + " < " + expected);
+  }
+}
@@ -0,0 +1,134 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldFactory;
+import beesweeper.model.shape.RandomCoordinateGenerator;
+import beesweeper.model.shape.RectangularShapeFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation budgets for the move path and board generation. Moves on a running game must not
+ * allocate at all, so that hosting many games does not put pressure on the garbage collector.
+ * Allocated bytes are measured per thread with {@link com.sun.management.ThreadMXBean}.
+ */
+public class AllocationBudgetTest {
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(26, 99, 300);
+  private static final int ROUNDS = 20;
+
+  /** Budget of a whole batch of moves, for the allocation of the measurement itself. */
+  private static final long MEASUREMENT_SLACK = 256;
+
+  /** Bytes per cell a newly generated game field may allocate: cell, coordinate and lists. */
+  private static final long CREATE_BYTES_PER_CELL = 80;
+
+  /** Bytes per cell re-seeding a game field in place may allocate, only for the bee list. */
+  private static final long RESET_BYTES_PER_CELL = 4;
+
+  @Test
+  public void testMovesDoNotAllocate() {
+    long revealBytes = 0;
+    long markBytes = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      BeeSweeper game = BeeSweeper.newGame(PROFILE, round);
+      GameField field = game.getGameState().getField();
+      List<Coordinate> bees = new ArrayList<>();
+      List<Coordinate> safeCells = new ArrayList<>();
+      for (Coordinate c : field.getAllCoordinates()) {
+        (field.get(c).isBee() ? bees : safeCells).add(c);
+      }
+      // leave one safe cell cloaked and one bee unmarked, so that the game is never won
+      List<Coordinate> reveals = safeCells.subList(1, safeCells.size());
+      List<Coordinate> marks = bees.subList(1, bees.size());
+
+      long start = allocatedBytes();
+      for (int i = 0; i < reveals.size(); i++) {
+        game.reveal(reveals.get(i));
+      }
+      revealBytes = allocatedBytes() - start;
+
+      start = allocatedBytes();
+      for (int i = 0; i < marks.size(); i++) {
+        game.mark(marks.get(i));
+        game.unmark(marks.get(i));
+      }
+      markBytes = allocatedBytes() - start;
+    }
+
+    assertWithinSlack("reveal", revealBytes);
+    assertWithinSlack("mark and unmark", markBytes);
+  }
+
+  @Test
+  public void testCascadesDoNotAllocate() {
+    long bytes = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      SharedBeeSweeper game = SharedBeeSweeper.newGame(PROFILE, round);
+      GameField field = game.getField();
+      List<Coordinate> emptyCells = new ArrayList<>();
+      for (Coordinate c : field.getAllCoordinates()) {
+        Cell cell = field.get(c);
+        if (!cell.isBee() && cell.getNumberOfBeesSurrounding() == 0) {
+          emptyCells.add(c);
+        }
+      }
+      for (int i = 0; i < emptyCells.size(); i++) {
+        game.reveal(emptyCells.get(i));
+      }
+
+      long start = allocatedBytes();
+      for (int i = 0; i < emptyCells.size(); i++) {
+        game.revealNeighbours(emptyCells.get(i));
+      }
+      bytes = allocatedBytes() - start;
+    }
+
+    assertWithinSlack("revealNeighbours", bytes);
+  }
+
+  @Test
+  public void testBoardGenerationStaysWithinBudgetPerCell() {
+    int cells = PROFILE.getColumns() * PROFILE.getRows();
+    GameFieldFactory factory =
+        new GameFieldFactory(
+            new RectangularShapeFactory(PROFILE.getColumns(), PROFILE.getRows()),
+            new RandomCoordinateGenerator(7));
+    long createBytes = 0;
+    long resetBytes = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = allocatedBytes();
+      GameField field = factory.create(PROFILE.getNumBees(), PROFILE.getNumBees());
+      createBytes = allocatedBytes() - start;
+
+      start = allocatedBytes();
+      factory.reset(field, PROFILE.getNumBees(), PROFILE.getNumBees());
+      resetBytes = allocatedBytes() - start;
+    }
+
+    assertTrue(
+        createBytes <= CREATE_BYTES_PER_CELL * cells,
+        "create allocated " + createBytes / cells + " bytes per cell");
+    assertTrue(
+        resetBytes <= RESET_BYTES_PER_CELL * cells,
+        "reset allocated " + resetBytes / cells + " bytes per cell");
+  }
+
+  private static long allocatedBytes() {
+    return THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  private static void assertWithinSlack(String operation, long bytes) {
+    assertTrue(bytes <= MEASUREMENT_SLACK, operation + " allocated " + bytes + " bytes");
+  }
+}
@@ -0,0 +1,86 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import beesweeper.model.field.GameFieldFactory;
+import beesweeper.model.shape.RandomCoordinateGenerator;
+import beesweeper.model.shape.RectangularShapeFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link BeeSweeper#restart(GameFieldFactory)}. */
+public class BeeSweeperRestartTest {
+
+  private static final int NUM_COLS = 12;
+  private static final int NUM_ROWS = 7;
+  private static final int NUM_BEES = 20;
+
+  @Test
+  public void testRestartReusesCellsAndResetsState() {
+    GameFieldFactory factory =
+        new GameFieldFactory(
+            new RectangularShapeFactory(NUM_COLS, NUM_ROWS), new RandomCoordinateGenerator(42));
+    BeeSweeper game = new BeeSweeper(factory.create(NUM_BEES, NUM_BEES));
+    GameField field = game.getGameState().getField();
+    Map<Coordinate, Cell> cellsBefore = new HashMap<>();
+    for (Coordinate c : field.getAllCoordinates()) {
+      cellsBefore.put(c, field.get(c));
+    }
+
+    for (int gameNumber = 0; gameNumber < 5; gameNumber++) {
+      game.mark(Coordinate.of(0, 0));
+      game.reveal(Coordinate.of(NUM_ROWS - 1, NUM_COLS - 1));
+
+      game = game.restart(factory);
+
+      BeeSweeperTestUtils.assertGameIsAlive(game);
+      assertSame(field, game.getGameState().getField());
+      assertEquals(NUM_BEES, field.getFlowersAvailable());
+      assertEquals(NUM_BEES, field.getAllBeeCoordinates().size());
+      for (Coordinate c : field.getAllCoordinates()) {
+        Cell cell = field.get(c);
+        assertSame(cellsBefore.get(c), cell);
+        assertFalse(cell.isRevealed());
+        assertFalse(cell.isMarked());
+        if (!cell.isBee()) {
+          assertEquals(countSurroundingBees(field, c), cell.getNumberOfBeesSurrounding());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRestartKeepsTheOrderOfCoordinates() {
+    GameFieldFactory factory =
+        new GameFieldFactory(
+            new RectangularShapeFactory(NUM_COLS, NUM_ROWS), new RandomCoordinateGenerator(7));
+    BeeSweeper game = new BeeSweeper(factory.create(NUM_BEES, NUM_BEES));
+    GameField field = game.getGameState().getField();
+    List<Coordinate> coordinatesBefore = new ArrayList<>(field.getAllCoordinates());
+
+    for (int gameNumber = 0; gameNumber < 5; gameNumber++) {
+      game = game.restart(factory);
+
+      assertEquals(coordinatesBefore, field.getAllCoordinates());
+      assertEquals(NUM_BEES, field.getNumberOfBees());
+    }
+  }
+
+  private static int countSurroundingBees(GameField field, Coordinate coordinate) {
+    int count = 0;
+    for (Coordinate surrounding : coordinate.getSurroundingCoordinates(coordinate)) {
+      if (field.contains(surrounding) && field.get(surrounding).isBee()) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
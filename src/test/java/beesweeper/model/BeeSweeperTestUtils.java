@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import beesweeper.model.field.Cell;
 import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -65,6 +67,21 @@ final class BeeSweeperTestUtils {
     assertFalse(gameState.isGameOver());
   }
 
+  static void assertSameCells(BeeSweeper expected, BeeSweeper actual) {
+    GameField expectedField = expected.getGameState().getField();
+    GameField actualField = actual.getGameState().getField();
+    assertEquals(expectedField.getFlowersAvailable(), actualField.getFlowersAvailable());
+    for (Coordinate c : expectedField.getAllCoordinates()) {
+      Cell expectedCell = expectedField.get(c);
+      Cell actualCell = actualField.get(c);
+      assertEquals(expectedCell.isBee(), actualCell.isBee());
+      assertEquals(expectedCell.isRevealed(), actualCell.isRevealed());
+      assertEquals(expectedCell.isMarked(), actualCell.isMarked());
+      assertEquals(
+          expectedCell.getNumberOfBeesSurrounding(), actualCell.getNumberOfBeesSurrounding());
+    }
+  }
+
   static void assertGameIsLostAfterKRandomReveals(
       BeeSweeper game, List<Coordinate> coordinates, int k) {
     for (Coordinate p : getKRandomCoordinates(coordinates, k)) {
@@ -0,0 +1,116 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.Frontier;
+import beesweeper.model.field.GameField;
+import beesweeper.model.shape.FieldShape;
+import beesweeper.model.shape.Topology;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Tests for games on a {@link Topology#TOROIDAL} rectangle. */
+public class BeeSweeperToroidalShapeTest {
+
+  @Test
+  public void testNumbersCountBeesAcrossTheEdges() {
+    for (int seed = 0; seed < 5; seed++) {
+      GameField field = BoardProfile.toroidal(9, 6, 12).generate(seed);
+      assertEquals(Topology.TOROIDAL, field.getTopology());
+      for (Coordinate coordinate : field.getAllCoordinates()) {
+        Cell cell = field.get(coordinate);
+        if (!cell.isBee()) {
+          assertEquals(countWrappedBees(field, coordinate), cell.getNumberOfBeesSurrounding());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testNarrowTorusHasNoDuplicateNeighbours() {
+    FieldShape shape = new FieldShape(1, 2, Topology.TOROIDAL);
+
+    // the only neighbour of each cell is the other cell of the row
+    assertEquals(Set.of(Coordinate.of(0, 1)), neighbours(shape, 0, 0));
+    assertEquals(Set.of(Coordinate.of(0, 0)), neighbours(shape, 0, 1));
+    assertEquals(8, neighbours(new FieldShape(3, 3, Topology.TOROIDAL), 0, 0).size());
+    assertEquals(3, neighbours(new FieldShape(3, 3, Topology.BOUNDED), 0, 0).size());
+  }
+
+  @Test
+  public void testFrontierWrapsAroundTheEdges() {
+    GameField field = BoardProfile.toroidal(10, 8, 1).generate(3);
+    Coordinate corner = Coordinate.of(0, 0);
+    if (field.get(corner).isBee()) {
+      corner = Coordinate.of(7, 9);
+    }
+    Frontier frontier = field.getFrontier();
+
+    field.reveal(corner);
+
+    assertEquals(8, frontier.size(Frontier.Part.HIDDEN));
+    int oppositeRow = (corner.getRow() + 7) % 8;
+    int oppositeColumn = (corner.getColumn() + 9) % 10;
+    assertTrue(frontier.contains(Frontier.Part.HIDDEN, oppositeRow, oppositeColumn));
+  }
+
+  @Test
+  public void testSnapshotKeepsTopology() throws IOException {
+    BeeSweeper game = BeeSweeper.newGame(BoardProfile.toroidal(7, 5, 6), 11);
+
+    BeeSweeper loaded = GameSnapshot.decode(GameSnapshot.encode(game));
+
+    GameField field = loaded.getGameState().getField();
+    assertEquals(Topology.TOROIDAL, field.getTopology());
+    for (Coordinate coordinate : field.getAllCoordinates()) {
+      assertEquals(
+          game.getGameState().getField().get(coordinate).getNumberOfBeesSurrounding(),
+          field.get(coordinate).getNumberOfBeesSurrounding());
+    }
+  }
+
+  private static int countWrappedBees(GameField field, Coordinate coordinate) {
+    int rows = field.getMaxRow();
+    int columns = field.getMaxColumn();
+    Set<Coordinate> around = new HashSet<>();
+    for (int r = -1; r <= 1; r++) {
+      for (int c = -1; c <= 1; c++) {
+        around.add(
+            Coordinate.of(
+                Math.floorMod(coordinate.getRow() + r, rows),
+                Math.floorMod(coordinate.getColumn() + c, columns)));
+      }
+    }
+    around.remove(coordinate);
+    int count = 0;
+    for (Coordinate neighbour : around) {
+      if (field.get(neighbour).isBee()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static Set<Coordinate> neighbours(FieldShape shape, int row, int column) {
+    Set<Coordinate> neighbours = new HashSet<>();
+    int count = 0;
+    for (int i = 0; i < FieldShape.SPAN; i++) {
+      int r = shape.rowAround(row, i);
+      for (int j = 0; r >= 0 && j < FieldShape.SPAN; j++) {
+        int c = shape.columnAround(column, j);
+        if (c >= 0 && (r != row || c != column)) {
+          neighbours.add(Coordinate.of(r, c));
+          count++;
+        }
+      }
+    }
+    assertEquals(count, neighbours.size(), "duplicate neighbours");
+    return neighbours;
+  }
+}
@@ -0,0 +1,121 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link GameReplay}. */
+public class GameReplayTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(26, 99, 300);
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testReplayReconstructsFinalAndIntermediateStates() throws IOException {
+    GameReplay.Recorder recorder = GameReplay.record(PROFILE, -17);
+    List<Coordinate> moves = playSafeMoves(recorder, 40);
+
+    GameReplay replay = GameReplay.decode(recorder.toReplay().encode());
+
+    assertEquals(PROFILE, replay.getProfile());
+    assertEquals(-17, replay.getSeed());
+    assertEquals(recorder.toReplay().getNumberOfMoves(), replay.getNumberOfMoves());
+    BeeSweeperTestUtils.assertSameCells(recorder.getGame(), replay.replay());
+
+    GameField halfway = replay.replay(20).getGameState().getField();
+    assertTrue(halfway.get(moves.get(19)).isRevealed() || halfway.get(moves.get(19)).isMarked());
+    assertFalse(halfway.get(moves.get(39)).isRevealed() || halfway.get(moves.get(39)).isMarked());
+  }
+
+  @Test
+  public void testReplayIsMuchSmallerThanSnapshot() {
+    GameReplay.Recorder recorder = GameReplay.record(PROFILE, 4);
+    playSafeMoves(recorder, 40);
+
+    int replaySize = recorder.toReplay().encode().length;
+    int snapshotSize = GameSnapshot.encode(recorder.getGame()).remaining();
+    assertTrue(replaySize * 10 < snapshotSize, replaySize + " vs. " + snapshotSize);
+  }
+
+  @Test
+  public void testReplayAllFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    List<BeeSweeper> expected = new ArrayList<>();
+    for (int seed = 0; seed < 16; seed++) {
+      GameReplay.Recorder recorder = GameReplay.record(BoardProfile.rectangular(20, 20, 40), seed);
+      playSafeMoves(recorder, seed);
+      Path file = tempDir.resolve("game" + seed + ".replay");
+      recorder.toReplay().write(file);
+      files.add(file);
+      expected.add(recorder.getGame());
+    }
+
+    List<BeeSweeper> replayed = GameReplay.replayAll(files);
+
+    assertEquals(files.size(), replayed.size());
+    for (int i = 0; i < files.size(); i++) {
+      BeeSweeperTestUtils.assertSameCells(expected.get(i), replayed.get(i));
+    }
+  }
+
+  @Test
+  public void testDecodeRejectsOtherData() {
+    assertThrows(IOException.class, () -> GameReplay.decode(new byte[] {1, 2, 3, 4, 5, 6}));
+  }
+
+  @Test
+  public void testDecodeRejectsCorruptMoves() throws IOException {
+    GameReplay.Recorder recorder = GameReplay.record(PROFILE, 9);
+    playSafeMoves(recorder, 10);
+    byte[] encoded = recorder.toReplay().encode();
+
+    // a missing move, a trailing byte, and the unknown move type 3 in the last move, which is
+    // next to the one before and takes a single byte
+    byte[] unknownType = encoded.clone();
+    unknownType[unknownType.length - 1] |= 3;
+    for (byte[] corrupt :
+        List.of(
+            Arrays.copyOf(encoded, encoded.length - 1),
+            Arrays.copyOf(encoded, encoded.length + 1),
+            unknownType)) {
+      assertThrows(IOException.class, () -> GameReplay.decode(corrupt));
+    }
+
+    Path file = tempDir.resolve("corrupt.replay");
+    Files.write(file, unknownType);
+    assertThrows(UncheckedIOException.class, () -> GameReplay.replayAll(List.of(file)));
+  }
+
+  /** Reveals or marks the given number of cells, returns the cells in the order of the moves. */
+  private static List<Coordinate> playSafeMoves(GameReplay.Recorder recorder, int count) {
+    GameField field = recorder.getGame().getGameState().getField();
+    List<Coordinate> moves = new ArrayList<>();
+    for (int row = 0; row < field.getMaxRow() && moves.size() < count; row++) {
+      for (int column = 0; column < field.getMaxColumn() && moves.size() < count; column++) {
+        Coordinate c = Coordinate.of(row, column);
+        if (field.get(c).isBee()) {
+          recorder.mark(c);
+        } else {
+          recorder.reveal(c);
+        }
+        moves.add(c);
+      }
+    }
+    return moves;
+  }
+}
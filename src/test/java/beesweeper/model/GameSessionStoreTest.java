@@ -0,0 +1,122 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link GameSessionStore}. */
+public class GameSessionStoreTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(10, 10, 10);
+  private static final long FOOTPRINT = 10 * 10 * GameSessionStore.BYTES_PER_CELL;
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testLeastRecentlyUsedGamesAreEvictedOverBudget() throws IOException {
+    try (GameSessionStore store =
+        new GameSessionStore(tempDir, 2 * FOOTPRINT, Duration.ofHours(1))) {
+      long first = open(store, 1);
+      long second = open(store, 2);
+      assertEquals(0, store.getEvictions());
+
+      // touch the first game, so that the second is the least recently used one
+      store.release(first, store.acquire(first));
+      long third = open(store, 3);
+
+      assertEquals(1, store.getEvictions());
+      assertEquals(2, store.getResidentCount());
+      assertEquals(2 * FOOTPRINT, store.getResidentBytes());
+      assertNull(store.peek(second));
+      assertTrue(store.peek(first) != null && store.peek(third) != null);
+      assertEquals(1, countSpillFiles());
+    }
+  }
+
+  @Test
+  public void testEvictedGameIsReloadedTransparently() throws IOException {
+    try (GameSessionStore store = new GameSessionStore(tempDir, FOOTPRINT, Duration.ofHours(1))) {
+      long first = open(store, 7);
+      BeeSweeper game = store.acquire(first);
+      Coordinate marked = Coordinate.of(4, 2);
+      game.mark(marked);
+      store.release(first, game);
+      open(store, 8);
+      assertNull(store.peek(first));
+
+      BeeSweeper reloaded = store.acquire(first);
+      store.release(first, reloaded);
+
+      GameField field = reloaded.getGameState().getField();
+      GameField expected = PROFILE.generate(7);
+      for (Coordinate c : expected.getAllCoordinates()) {
+        assertEquals(expected.get(c).isBee(), field.get(c).isBee());
+        assertEquals(c.equals(marked), field.get(c).isMarked());
+      }
+      assertEquals(7, reloaded.getSeed().getAsInt());
+      assertEquals(1, store.getMisses());
+      assertEquals(1, store.getHits());
+      assertEquals(2, store.getEvictions());
+    }
+  }
+
+  @Test
+  public void testIdleGamesAreEvicted() throws IOException, InterruptedException {
+    try (GameSessionStore store =
+        new GameSessionStore(tempDir, 100 * FOOTPRINT, Duration.ofMillis(1))) {
+      long session = open(store, 1);
+      Thread.sleep(5);
+
+      store.evict();
+
+      assertNull(store.peek(session));
+      assertEquals(0, store.getResidentBytes());
+      assertTrue(store.acquire(session) != null);
+      store.release(session, null);
+      assertEquals(0, store.getResidentCount());
+    }
+  }
+
+  @Test
+  public void testClosedSessionsAreForgotten() throws IOException {
+    GameSessionStore store = new GameSessionStore(tempDir, FOOTPRINT, Duration.ofHours(1));
+    long first = open(store, 1);
+    open(store, 2);
+    assertEquals(1, countSpillFiles());
+
+    store.close(first);
+    assertEquals(0, countSpillFiles());
+    assertThrows(NoSuchElementException.class, () -> store.acquire(first));
+
+    store.close();
+    assertEquals(0, store.size());
+    assertEquals(0, store.getResidentBytes());
+  }
+
+  /** Opens a session and starts a game in it. */
+  private static long open(GameSessionStore store, int seed) {
+    long id = store.open();
+    assertNull(store.acquire(id));
+    store.release(id, BeeSweeper.newGame(PROFILE, seed));
+    return id;
+  }
+
+  private long countSpillFiles() throws IOException {
+    try (Stream<Path> files = Files.list(tempDir)) {
+      return files.count();
+    }
+  }
+}
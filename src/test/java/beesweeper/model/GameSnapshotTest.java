@@ -0,0 +1,101 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link GameSnapshot}. */
+public class GameSnapshotTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testSaveAndLoadRunningGame() throws IOException {
+    BeeSweeper game = BeeSweeper.newGame(BoardProfile.rectangular(13, 9, 20), 7);
+    game.mark(Coordinate.of(0, 0));
+    game.mark(Coordinate.of(8, 12));
+    for (Coordinate c : game.getGameState().getField().getAllCoordinates()) {
+      if (!game.getGameState().getField().get(c).isBee() && c.getRow() == 4) {
+        game.reveal(c);
+      }
+    }
+
+    Path file = tempDir.resolve("game.bees");
+    GameSnapshot.save(game, file);
+    BeeSweeper loaded = GameSnapshot.load(file);
+
+    assertSameGame(game, loaded);
+    assertEquals(7, loaded.getSeed().getAsInt());
+  }
+
+  @Test
+  public void testSaveAndLoadLostGame() throws IOException {
+    BeeSweeper game = BeeSweeper.newRectangularGame(5, 6, 3);
+    Coordinate bee = game.getGameState().getField().getAllBeeCoordinates().iterator().next();
+    game.reveal(bee);
+
+    Path file = tempDir.resolve("lost.bees");
+    GameSnapshot.save(game, file);
+    BeeSweeper loaded = GameSnapshot.load(file);
+
+    assertSameGame(game, loaded);
+    assertTrue(loaded.getSeed().isEmpty());
+    BeeSweeperTestUtils.assertGameIsLost(loaded);
+  }
+
+  @Test
+  public void testLoadRejectsOtherFiles() throws IOException {
+    Path file = tempDir.resolve("other.bees");
+    Files.write(file, new byte[64]);
+
+    assertThrows(IOException.class, () -> GameSnapshot.load(file));
+  }
+
+  @Test
+  public void testDecodeRejectsInvalidCounts() {
+    BeeSweeper game = BeeSweeper.newGame(BoardProfile.rectangular(4, 3, 2), 1);
+    int beesOffset = GameSnapshot.Header.FLOWERS_OFFSET - Integer.BYTES;
+
+    for (int bees : new int[] {-1, 0, 12, Integer.MAX_VALUE}) {
+      ByteBuffer buffer = GameSnapshot.encode(game);
+      buffer.putInt(beesOffset, bees);
+      assertThrows(IOException.class, () -> GameSnapshot.decode(buffer));
+    }
+    ByteBuffer buffer = GameSnapshot.encode(game);
+    buffer.putInt(GameSnapshot.Header.FLOWERS_OFFSET, -1);
+    assertThrows(IOException.class, () -> GameSnapshot.decode(buffer));
+  }
+
+  @Test
+  public void testDecodeRejectsHoneycombs() {
+    ByteBuffer buffer =
+        GameSnapshot.encode(BeeSweeper.newGame(BoardProfile.rectangular(4, 3, 2), 1));
+    // the shape type is the byte before the status
+    buffer.put(
+        GameSnapshot.Header.STATUS_OFFSET - 1, (byte) BoardProfile.ShapeType.HONEYCOMB.ordinal());
+
+    assertThrows(IOException.class, () -> GameSnapshot.decode(buffer));
+  }
+
+  private static void assertSameGame(BeeSweeper expected, BeeSweeper actual) {
+    GameState expectedState = expected.getGameState();
+    GameState actualState = actual.getGameState();
+    assertEquals(expectedState.getStatus(), actualState.getStatus());
+
+    GameField expectedField = expectedState.getField();
+    GameField actualField = actualState.getField();
+    assertEquals(expectedField.getMaxRow(), actualField.getMaxRow());
+    assertEquals(expectedField.getMaxColumn(), actualField.getMaxColumn());
+    BeeSweeperTestUtils.assertSameCells(expected, actual);
+  }
+}
@@ -0,0 +1,110 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link JournaledGame} and {@link MoveJournal}. */
+public class JournaledGameTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(10, 8, 12);
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testRecoverReplaysJournaledMoves() throws IOException {
+    JournaledGame journaled =
+        JournaledGame.create(
+            tempDir, BeeSweeper.newGame(PROFILE, 3), MoveJournal.SyncPolicy.EVERY_MOVE, 8, 1 << 20);
+    playSafeMoves(journaled);
+    // no close, as after a crash
+
+    try (JournaledGame recovered =
+        JournaledGame.recover(tempDir, MoveJournal.SyncPolicy.EVERY_MOVE, 8, 1 << 20)) {
+      BeeSweeperTestUtils.assertSameCells(journaled.getGame(), recovered.getGame());
+    }
+    journaled.close();
+  }
+
+  @Test
+  public void testCompactionWritesSnapshotAndClearsJournal() throws IOException {
+    long threshold = 4L * MoveJournal.RECORD_SIZE;
+    JournaledGame journaled =
+        JournaledGame.create(
+            tempDir,
+            BeeSweeper.newGame(PROFILE, 5),
+            MoveJournal.SyncPolicy.EVERY_GROUP,
+            2,
+            threshold);
+    try (journaled) {
+      playSafeMoves(journaled);
+      assertTrue(Files.size(tempDir.resolve(JournaledGame.JOURNAL_FILE)) < threshold);
+    }
+
+    try (JournaledGame recovered =
+        JournaledGame.recover(tempDir, MoveJournal.SyncPolicy.EVERY_GROUP, 2, threshold)) {
+      BeeSweeperTestUtils.assertSameCells(journaled.getGame(), recovered.getGame());
+    }
+  }
+
+  @Test
+  public void testTornRecordIsDiscarded() throws IOException {
+    Path file = tempDir.resolve("torn.journal");
+    try (MoveJournal journal = MoveJournal.open(file, MoveJournal.SyncPolicy.NEVER, 4, 0)) {
+      journal.append(MoveJournal.Move.MARK, 1, 2);
+      journal.append(MoveJournal.Move.REVEAL, 3, 4);
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(MoveJournal.RECORD_SIZE + 5);
+    }
+
+    try (MoveJournal journal = MoveJournal.open(file, MoveJournal.SyncPolicy.NEVER, 4, 0)) {
+      int[] moves = new int[1];
+      journal.replay(-1, (move, row, column) -> moves[0]++);
+      assertEquals(1, moves[0]);
+      assertEquals(1, journal.append(MoveJournal.Move.UNMARK, 1, 2));
+    }
+  }
+
+  @Test
+  public void testCreateRefusesExistingGame() throws IOException {
+    JournaledGame.create(
+            tempDir, BeeSweeper.newGame(PROFILE, 1), MoveJournal.SyncPolicy.NEVER, 1, 1 << 20)
+        .close();
+
+    assertThrows(
+        IOException.class,
+        () ->
+            JournaledGame.create(
+                tempDir, BeeSweeper.newGame(PROFILE, 1), MoveJournal.SyncPolicy.NEVER, 1, 1000));
+  }
+
+  private static void playSafeMoves(JournaledGame journaled) {
+    GameField field = journaled.getGame().getGameState().getField();
+    int moves = 0;
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (moves == 20) {
+        break;
+      }
+      if (field.get(c).isBee()) {
+        journaled.mark(c);
+        journaled.unmark(c);
+        journaled.mark(c);
+      } else {
+        journaled.reveal(c);
+      }
+      moves++;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.GameField;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link MappedGame}. */
+public class MappedGameTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testMappedGameMatchesSavedGame() throws IOException {
+    BeeSweeper original = BeeSweeper.newGame(BoardProfile.rectangular(33, 17, 60), 11);
+    Path file = tempDir.resolve("game.bees");
+    GameSnapshot.save(original, file);
+
+    try (MappedGame mapped = MappedGame.open(file)) {
+      GameField expected = original.getGameState().getField();
+      GameField actual = mapped.getGame().getGameState().getField();
+      assertEquals(expected.getMaxRow(), actual.getMaxRow());
+      assertEquals(expected.getMaxColumn(), actual.getMaxColumn());
+      assertEquals(expected.getFlowersAvailable(), actual.getFlowersAvailable());
+      for (Coordinate c : expected.getAllCoordinates()) {
+        Cell expectedCell = expected.get(c);
+        Cell actualCell = actual.get(c);
+        assertEquals(expectedCell.isBee(), actualCell.isBee());
+        assertEquals(
+            expectedCell.getNumberOfBeesSurrounding(), actualCell.getNumberOfBeesSurrounding());
+      }
+    }
+  }
+
+  @Test
+  public void testMovesOnMappedGameAreSynced() throws IOException {
+    BeeSweeper original = BeeSweeper.newGame(BoardProfile.rectangular(10, 10, 5), 3);
+    Path file = tempDir.resolve("game.bees");
+    GameSnapshot.save(original, file);
+
+    Coordinate marked;
+    Coordinate revealed;
+    try (MappedGame mapped = MappedGame.open(file)) {
+      BeeSweeper game = mapped.getGame();
+      GameField field = game.getGameState().getField();
+      marked = field.getAllBeeCoordinates().iterator().next();
+      revealed = firstSafeCoordinate(field);
+      game.mark(marked);
+      game.reveal(revealed);
+    }
+
+    BeeSweeper loaded = GameSnapshot.load(file);
+    GameField field = loaded.getGameState().getField();
+    assertTrue(field.get(marked).isMarked());
+    assertTrue(field.get(revealed).isRevealed());
+    assertEquals(4, field.getFlowersAvailable());
+    BeeSweeperTestUtils.assertGameIsAlive(loaded);
+  }
+
+  @Test
+  public void testWinOnMappedGameIsSynced() throws IOException {
+    BeeSweeper original = BeeSweeper.newGame(BoardProfile.rectangular(6, 4, 3), 8);
+    Path file = tempDir.resolve("game.bees");
+    GameSnapshot.save(original, file);
+
+    try (MappedGame mapped = MappedGame.open(file)) {
+      BeeSweeper game = mapped.getGame();
+      for (Coordinate bee : game.getGameState().getField().getAllBeeCoordinates()) {
+        game.mark(bee);
+      }
+      BeeSweeperTestUtils.assertGameIsWon(game);
+    }
+
+    BeeSweeperTestUtils.assertGameIsWon(GameSnapshot.load(file));
+  }
+
+  @Test
+  public void testMovesBeyondCachedPagesAreSynced() throws IOException {
+    // far more cells than fit into the cached pages of the shape
+    BeeSweeper original = BeeSweeper.newGame(BoardProfile.rectangular(1000, 1000, 2000), 5);
+    Path file = tempDir.resolve("game.bees");
+    GameSnapshot.save(original, file);
+
+    List<Coordinate> bees;
+    try (MappedGame mapped = MappedGame.open(file)) {
+      BeeSweeper game = mapped.getGame();
+      bees = new ArrayList<>(game.getGameState().getField().getAllBeeCoordinates());
+      bees.remove(bees.size() - 1);
+      for (Coordinate bee : bees) {
+        game.mark(bee);
+      }
+    }
+
+    GameField field = GameSnapshot.load(file).getGameState().getField();
+    assertEquals(1, field.getFlowersAvailable());
+    assertEquals(bees, new ArrayList<>(field.getAllMarkedCoordinates()));
+  }
+
+  private static Coordinate firstSafeCoordinate(GameField field) {
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()) {
+        return c;
+      }
+    }
+    throw new AssertionError("No safe cell");
+  }
+}
@@ -0,0 +1,269 @@
+package beesweeper.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.BoardProfile;
+import beesweeper.model.field.Cell;
+import beesweeper.model.field.Coordinate;
+import beesweeper.model.field.FieldListener;
+import beesweeper.model.field.GameField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/** Tests for {@link SharedBeeSweeper}. */
+public class SharedBeeSweeperTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(26, 99, 300);
+  private static final int TILE_SIZE = 8;
+  private static final int PLAYERS = 8;
+
+  @Timeout(value = 30, unit = TimeUnit.SECONDS)
+  @Test
+  public void testConcurrentPlayersWinTogether() throws Exception {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(PROFILE, 5, TILE_SIZE);
+    GameField field = game.getField();
+
+    // every player takes its own band of rows, all players work on every column of it
+    runPlayers(
+        player -> {
+          for (int row = player; row < field.getMaxRow(); row += PLAYERS) {
+            for (int column = 0; column < field.getMaxColumn(); column++) {
+              Coordinate c = Coordinate.of(row, column);
+              if (field.get(c).isBee()) {
+                assertEquals(BeeSweeper.OperationStatus.SUCCESS, game.mark(c));
+                assertEquals(BeeSweeper.OperationStatus.SUCCESS, game.unmark(c));
+              } else {
+                game.reveal(c);
+              }
+            }
+          }
+        });
+
+    assertEquals(GameState.GameStatus.WIN, game.getStatus());
+    assertEquals(PROFILE.getNumBees(), game.getFlowersAvailable());
+    GameField finalField = game.getField();
+    for (Coordinate c : finalField.getAllCoordinates()) {
+      assertEquals(!finalField.get(c).isBee(), finalField.get(c).isRevealed());
+      assertFalse(finalField.get(c).isMarked());
+    }
+  }
+
+  @Timeout(value = 30, unit = TimeUnit.SECONDS)
+  @Test
+  public void testOverlappingMultiTileMovesDoNotDeadlock() throws Exception {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(PROFILE, 11, TILE_SIZE);
+    GameField field = game.getField();
+    // all bees but one are marked, so the game is not won by marking
+    List<Coordinate> bees = new ArrayList<>(field.getAllBeeCoordinates());
+    for (Coordinate c : bees.subList(1, bees.size())) {
+      game.mark(c);
+    }
+    // reveal cells on tile borders from all players, in different directions
+    List<Coordinate> borderCells = new ArrayList<>();
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()
+          && c.getRow() > bees.get(0).getRow() + 1
+          && (c.getRow() % TILE_SIZE == 0 || c.getColumn() % TILE_SIZE == TILE_SIZE - 1)) {
+        borderCells.add(c);
+      }
+    }
+
+    runPlayers(
+        player -> {
+          for (int i = 0; i < borderCells.size(); i++) {
+            int index = player % 2 == 0 ? i : borderCells.size() - 1 - i;
+            Coordinate c = borderCells.get((index + player) % borderCells.size());
+            game.reveal(c);
+            game.revealNeighbours(c);
+          }
+        });
+
+    assertTrue(game.getStatus() != GameState.GameStatus.LOSE);
+    for (Coordinate c : borderCells) {
+      assertTrue(game.isRevealed(c));
+    }
+  }
+
+  @Test
+  public void testRevealNeighboursNeedsMarkedBees() {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(PROFILE, 3, TILE_SIZE);
+    GameField field = game.getField();
+    Coordinate target = findSafeCellWithBeeNeighbour(field);
+    Cell targetCell = field.get(target);
+
+    assertEquals(BeeSweeper.OperationStatus.FAIL, game.revealNeighbours(target));
+    assertEquals(BeeSweeper.OperationStatus.SUCCESS, game.reveal(target));
+    assertEquals(BeeSweeper.OperationStatus.FAIL, game.revealNeighbours(target));
+
+    for (int r = target.getRow() - 1; r <= target.getRow() + 1; r++) {
+      for (int c = target.getColumn() - 1; c <= target.getColumn() + 1; c++) {
+        if (field.contains(r, c) && field.get(r, c).isBee()) {
+          game.mark(Coordinate.of(r, c));
+        }
+      }
+    }
+    assertEquals(BeeSweeper.OperationStatus.SUCCESS, game.revealNeighbours(target));
+    assertTrue(targetCell.getNumberOfBeesSurrounding() > 0);
+    for (int r = target.getRow() - 1; r <= target.getRow() + 1; r++) {
+      for (int c = target.getColumn() - 1; c <= target.getColumn() + 1; c++) {
+        if (field.contains(r, c)) {
+          assertEquals(!field.get(r, c).isBee(), game.isRevealed(Coordinate.of(r, c)));
+        }
+      }
+    }
+    assertEquals(GameState.GameStatus.ALIVE, game.getStatus());
+  }
+
+  @Test
+  public void testRevealingBeeEndsGameForEveryone() {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(PROFILE, 8, TILE_SIZE);
+    Coordinate bee = game.getField().getAllBeeCoordinates().iterator().next();
+
+    assertEquals(BeeSweeper.OperationStatus.SUCCESS, game.reveal(bee));
+
+    assertEquals(GameState.GameStatus.LOSE, game.getStatus());
+    assertEquals(BeeSweeper.OperationStatus.FAIL, game.mark(Coordinate.of(0, 0)));
+    assertEquals(BeeSweeper.OperationStatus.INDEX_OOB, game.reveal(Coordinate.of(-1, 0)));
+  }
+
+  @Test
+  public void testMarkFailsWithoutFlowers() {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(BoardProfile.rectangular(4, 4, 1), 1);
+    GameField field = game.getField();
+    List<Coordinate> safe = new ArrayList<>();
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()) {
+        safe.add(c);
+      }
+    }
+
+    assertEquals(BeeSweeper.OperationStatus.SUCCESS, game.mark(safe.get(0)));
+    assertEquals(BeeSweeper.OperationStatus.FAIL, game.mark(safe.get(1)));
+    assertEquals(0, game.getFlowersAvailable());
+  }
+
+  @Test
+  public void testFieldFollowsMovesThroughItsCounters() {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(BoardProfile.rectangular(10, 10, 3), 4, 4);
+    GameField field = game.getField();
+    AtomicInteger changes = new AtomicInteger();
+    field.addListener(
+        new FieldListener() {
+          @Override
+          public void cellChanged(int row, int column, Cell cell) {
+            changes.incrementAndGet();
+          }
+
+          @Override
+          public void fieldReset() {}
+        });
+    List<Coordinate> bees = new ArrayList<>(field.getAllBeeCoordinates());
+    Coordinate safe = Coordinate.of(0, 0);
+    while (field.get(safe).isBee()) {
+      safe = Coordinate.of(0, safe.getColumn() + 1);
+    }
+
+    game.mark(safe);
+    game.mark(bees.get(0));
+    assertEquals(1, game.getFlowersAvailable());
+    assertEquals(1, game.getField().getFlowersAvailable());
+    assertEquals(2, changes.get());
+    game.getField();
+    assertEquals(2, changes.get());
+
+    // the flower comes back before the last bees are marked
+    game.unmark(safe);
+    game.mark(bees.get(1));
+    game.mark(bees.get(2));
+    assertEquals(GameState.GameStatus.WIN, game.getStatus());
+    assertTrue(game.getField().areAllBeesMarked());
+    assertEquals(0, field.getFlowersAvailable());
+    assertFalse(field.get(safe).isMarked());
+    assertEquals(5, changes.get());
+  }
+
+  @Timeout(value = 30, unit = TimeUnit.SECONDS)
+  @Test
+  public void testRacingPlayersOnOneCell() throws Exception {
+    SharedBeeSweeper game = SharedBeeSweeper.newGame(PROFILE, 21, TILE_SIZE);
+    GameField field = game.getField();
+    List<Coordinate> safe = new ArrayList<>();
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee() && safe.size() < 200) {
+        safe.add(c);
+      }
+    }
+    AtomicInteger marks = new AtomicInteger();
+    AtomicInteger unmarks = new AtomicInteger();
+    AtomicInteger reveals = new AtomicInteger();
+
+    runPlayers(
+        player -> {
+          for (Coordinate c : safe) {
+            if (game.mark(c) == BeeSweeper.OperationStatus.SUCCESS) {
+              marks.incrementAndGet();
+            }
+            if (game.unmark(c) == BeeSweeper.OperationStatus.SUCCESS) {
+              unmarks.incrementAndGet();
+            }
+            if (game.reveal(c) == BeeSweeper.OperationStatus.SUCCESS) {
+              reveals.incrementAndGet();
+            }
+          }
+        });
+
+    assertEquals(safe.size(), reveals.get());
+    assertEquals(marks.get() - unmarks.get(), countMarked(game, safe));
+    assertEquals(PROFILE.getNumBees() - countMarked(game, safe), game.getFlowersAvailable());
+  }
+
+  private static int countMarked(SharedBeeSweeper game, List<Coordinate> coordinates) {
+    int marked = 0;
+    for (Coordinate c : coordinates) {
+      if (game.isMarked(c)) {
+        marked++;
+      }
+    }
+    return marked;
+  }
+
+  private static Coordinate findSafeCellWithBeeNeighbour(GameField field) {
+    for (Coordinate c : field.getAllCoordinates()) {
+      Cell cell = field.get(c);
+      if (!cell.isBee() && cell.getNumberOfBeesSurrounding() > 0) {
+        return c;
+      }
+    }
+    throw new AssertionError("No safe cell next to a bee");
+  }
+
+  /** Runs the given player code on one thread per player and waits for all players. */
+  private static void runPlayers(Player player) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(PLAYERS);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < PLAYERS; i++) {
+        int number = i;
+        results.add(executor.submit(() -> player.play(number)));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private interface Player {
+    void play(int number);
+  }
+}
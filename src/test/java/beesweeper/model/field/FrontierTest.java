@@ -0,0 +1,125 @@
+package beesweeper.model.field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import beesweeper.model.field.Frontier.Part;
+import beesweeper.model.shape.RandomCoordinateGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link Frontier}. */
+public class FrontierTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(12, 10, 15);
+
+  @Test
+  public void testFrontierMatchesScanAfterEveryReveal() {
+    GameField field = PROFILE.generate(6);
+    Frontier frontier = field.getFrontier();
+    assertSame(frontier, field.getFrontier());
+    assertEquals(0, frontier.size(Part.HIDDEN));
+
+    // mirror the frontier from the change notifications only
+    List<Set<Integer>> mirrored = List.of(new HashSet<>(), new HashSet<>());
+    frontier.addListener(
+        new Frontier.Listener() {
+          @Override
+          public void frontierChanged(Part part, int index, boolean added) {
+            Set<Integer> set = mirrored.get(part.ordinal());
+            assertTrue(added ? set.add(index) : set.remove(index));
+          }
+
+          @Override
+          public void frontierReset() {
+            throw new AssertionError("Unexpected reset");
+          }
+        });
+
+    List<Coordinate> safe = new ArrayList<>();
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()) {
+        safe.add(c);
+      }
+    }
+    Collections.shuffle(safe, new Random(9));
+    for (Coordinate c : safe) {
+      field.mark(c);
+      field.reveal(c);
+      for (Part part : Part.values()) {
+        Set<Integer> expected = scan(field, part);
+        assertEquals(expected, toSet(frontier.iterator(part)));
+        assertEquals(expected, mirrored.get(part.ordinal()));
+      }
+    }
+    // only bees are hidden, and all of them border a revealed cell
+    assertEquals(PROFILE.getNumBees(), frontier.size(Part.HIDDEN));
+  }
+
+  @Test
+  public void testFrontierIsRebuiltOnReset() {
+    GameField field = PROFILE.generate(2);
+    Frontier frontier = field.getFrontier();
+    Coordinate safe = findSafeCell(field);
+    field.reveal(safe);
+    assertTrue(frontier.size(Part.HIDDEN) > 0);
+
+    new GameFieldFactory(PROFILE.createShapeFactory(), new RandomCoordinateGenerator(3))
+        .reset(field, PROFILE.getNumBees(), PROFILE.getNumBees());
+
+    assertEquals(0, frontier.size(Part.HIDDEN));
+    assertEquals(0, frontier.size(Part.BOUNDARY));
+    assertFalse(frontier.contains(Part.HIDDEN, -1, 0));
+  }
+
+  private static Set<Integer> scan(GameField field, Part part) {
+    Set<Integer> cells = new HashSet<>();
+    for (Coordinate c : field.getAllCoordinates()) {
+      Cell cell = field.get(c);
+      boolean hiddenNeighbour = false;
+      boolean safeRevealedNeighbour = false;
+      for (int r = c.getRow() - 1; r <= c.getRow() + 1; r++) {
+        for (int col = c.getColumn() - 1; col <= c.getColumn() + 1; col++) {
+          if ((r != c.getRow() || col != c.getColumn()) && field.contains(r, col)) {
+            Cell neighbour = field.get(r, col);
+            hiddenNeighbour |= !neighbour.isRevealed();
+            safeRevealedNeighbour |= neighbour.isRevealed() && !neighbour.isBee();
+          }
+        }
+      }
+      boolean in =
+          part == Part.HIDDEN
+              ? !cell.isRevealed() && safeRevealedNeighbour
+              : cell.isRevealed() && !cell.isBee() && hiddenNeighbour;
+      if (in) {
+        cells.add(c.getRow() * field.getMaxColumn() + c.getColumn());
+      }
+    }
+    return cells;
+  }
+
+  private static Set<Integer> toSet(PrimitiveIterator.OfInt iterator) {
+    Set<Integer> cells = new HashSet<>();
+    while (iterator.hasNext()) {
+      assertTrue(cells.add(iterator.nextInt()));
+    }
+    return cells;
+  }
+
+  private static Coordinate findSafeCell(GameField field) {
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()) {
+        return c;
+      }
+    }
+    throw new AssertionError("No safe cell");
+  }
+}
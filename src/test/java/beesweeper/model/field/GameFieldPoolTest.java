@@ -0,0 +1,54 @@
+package beesweeper.model.field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/** Tests for {@link GameFieldPool}. */
+public class GameFieldPoolTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(20, 10, 30);
+
+  @Test
+  public void testTakeFromEmptyPoolGeneratesSynchronously() {
+    try (GameFieldPool pool = new GameFieldPool(2, 1, 4, Duration.ofMinutes(1))) {
+      GameField field = pool.take(PROFILE);
+
+      assertEquals(200, field.getAllCoordinates().size());
+      assertEquals(30, field.getAllBeeCoordinates().size());
+      assertEquals(30, field.getFlowersAvailable());
+    }
+  }
+
+  @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+  @Test
+  public void testPoolIsRefilledInBackground() throws InterruptedException {
+    try (GameFieldPool pool = new GameFieldPool(3, 2, 4, Duration.ofMinutes(1))) {
+      GameField first = pool.take(PROFILE);
+      while (pool.getReadyCount(PROFILE) < 3) {
+        Thread.sleep(1);
+      }
+
+      GameField second = pool.take(PROFILE);
+      assertNotSame(first, second);
+      assertEquals(30, second.getAllBeeCoordinates().size());
+      assertTrue(pool.getReadyCount(PROFILE) <= 3);
+    }
+  }
+
+  @Test
+  public void testInvalidProfileIsNotPooled() {
+    try (GameFieldPool pool = new GameFieldPool(2, 1, 4, Duration.ofMinutes(1))) {
+      BoardProfile invalid = BoardProfile.rectangular(3, 3, 9);
+
+      assertThrows(IllegalArgumentException.class, () -> pool.take(invalid));
+      assertEquals(0, pool.getReadyCount(invalid));
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package beesweeper.model.field;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import beesweeper.model.field.RegionIndex.Category;
+import beesweeper.model.shape.RandomCoordinateGenerator;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/** Tests for {@link RegionIndex}. */
+public class RegionIndexTest {
+
+  private static final BoardProfile PROFILE = BoardProfile.rectangular(13, 9, 20);
+
+  @Test
+  public void testCountsMatchCellsAfterRandomMoves() {
+    GameField field = PROFILE.generate(4);
+    RegionIndex index = RegionIndex.attach(field);
+    Random random = new Random(17);
+
+    for (int move = 0; move < 300; move++) {
+      Coordinate c = Coordinate.of(random.nextInt(9), random.nextInt(13));
+      switch (random.nextInt(3)) {
+        case 0:
+          field.reveal(c);
+          break;
+        case 1:
+          field.mark(c);
+          break;
+        default:
+          field.unmark(c);
+          break;
+      }
+      if (move % 10 == 0) {
+        assertMatchesField(index, field, random);
+      }
+    }
+    assertMatchesField(index, field, random);
+  }
+
+  @Test
+  public void testIndexIsRebuiltOnReset() {
+    GameField field = PROFILE.generate(2);
+    RegionIndex index = RegionIndex.attach(field);
+    for (Coordinate c : field.getAllCoordinates()) {
+      if (!field.get(c).isBee()) {
+        field.reveal(c);
+      }
+    }
+    assertEquals(PROFILE.getNumBees(), index.count(Category.HIDDEN));
+
+    new GameFieldFactory(PROFILE.createShapeFactory(), new RandomCoordinateGenerator(3))
+        .reset(field, PROFILE.getNumBees(), PROFILE.getNumBees());
+
+    assertEquals(9 * 13, index.count(Category.HIDDEN));
+    assertEquals(0, index.count(Category.REVEALED));
+    assertEquals(Optional.of(Coordinate.of(0, 0)), index.first(Category.HIDDEN));
+  }
+
+  @Test
+  public void testDetachedIndexIsNotUpdated() {
+    GameField field = PROFILE.generate(5);
+    RegionIndex index = RegionIndex.attach(field);
+    index.detach();
+
+    field.mark(Coordinate.of(3, 3));
+
+    assertEquals(0, index.count(Category.MARKED));
+    assertFalse(index.first(Category.MARKED).isPresent());
+  }
+
+  @Test
+  public void testInvalidRegionsAreRejected() {
+    RegionIndex index = RegionIndex.attach(PROFILE.generate(1));
+
+    assertThrows(IllegalArgumentException.class, () -> index.count(Category.HIDDEN, 0, 0, 10, 1));
+    assertThrows(IllegalArgumentException.class, () -> index.count(Category.HIDDEN, 2, 0, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> index.next(Category.HIDDEN, 0, 13));
+  }
+
+  private static void assertMatchesField(RegionIndex index, GameField field, Random random) {
+    for (Category category : Category.values()) {
+      for (int i = 0; i < 20; i++) {
+        int fromRow = random.nextInt(10);
+        int toRow = fromRow + random.nextInt(10 - fromRow);
+        int fromColumn = random.nextInt(14);
+        int toColumn = fromColumn + random.nextInt(14 - fromColumn);
+        int expected = 0;
+        for (int r = fromRow; r < toRow; r++) {
+          for (int c = fromColumn; c < toColumn; c++) {
+            if (isIn(category, field.get(r, c))) {
+              expected++;
+            }
+          }
+        }
+        assertEquals(expected, index.count(category, fromRow, fromColumn, toRow, toColumn));
+      }
+      // walk all cells of the category with next, and compare with a scan
+      Optional<Coordinate> next = index.first(category);
+      for (int r = 0; r < field.getMaxRow(); r++) {
+        for (int c = 0; c < field.getMaxColumn(); c++) {
+          if (isIn(category, field.get(r, c))) {
+            assertEquals(Optional.of(Coordinate.of(r, c)), next);
+            next = index.next(category, r, c);
+          }
+        }
+      }
+      assertFalse(next.isPresent());
+    }
+  }
+
+  private static boolean isIn(Category category, Cell cell) {
+    switch (category) {
+      case HIDDEN:
+        return !cell.isRevealed();
+      case MARKED:
+        return cell.isMarked();
+      default:
+        return cell.isRevealed();
+    }
+  }
+}
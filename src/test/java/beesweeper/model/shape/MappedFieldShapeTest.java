@@ -0,0 +1,67 @@
+package beesweeper.model.shape;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import beesweeper.model.field.Cell;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests for {@link MappedFieldShape}. */
+public class MappedFieldShapeTest {
+
+  // far more cells than fit into the cached pages of the shape
+  private static final int SIZE = 1000;
+  private static final int PLANE_SIZE = SIZE * SIZE / Byte.SIZE;
+  private static final int CELLS_PER_PAGE = 4096;
+
+  @TempDir Path tempDir;
+
+  @Test
+  public void testOnlyReportedChangesAreWrittenBack() throws IOException {
+    MappedByteBuffer buffer = map();
+    MappedFieldShape shape = createShape(buffer);
+
+    shape.get(0, 0).mark();
+    Cell reported = shape.get(5, 0);
+    reported.mark();
+    shape.cellChanged(5, 0, reported);
+    shape.flush();
+
+    assertEquals(0, buffer.get(2 * PLANE_SIZE));
+    assertEquals(1 << (5 * SIZE % Byte.SIZE), buffer.get(2 * PLANE_SIZE + 5 * SIZE / Byte.SIZE));
+  }
+
+  @Test
+  public void testReportingACellOfADroppedPageFails() throws IOException {
+    MappedFieldShape shape = createShape(map());
+    Cell kept = shape.get(0, 0);
+    for (int page = 1; page <= MappedFieldShape.MAX_CACHED_PAGES; page++) {
+      int index = page * CELLS_PER_PAGE;
+      shape.get(index / SIZE, index % SIZE);
+    }
+
+    kept.mark();
+    assertThrows(IllegalStateException.class, () -> shape.cellChanged(0, 0, kept));
+  }
+
+  private MappedByteBuffer map() throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(
+            tempDir.resolve("planes"),
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, 3 * PLANE_SIZE);
+    }
+  }
+
+  private static MappedFieldShape createShape(MappedByteBuffer buffer) {
+    return new MappedFieldShape(buffer, SIZE, SIZE, 0, PLANE_SIZE, 2 * PLANE_SIZE);
+  }
+}